@@ -0,0 +1,59 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.cache.BookResponseRedisSerializer;
+import com.mescobar.bookapi.config.BookCacheProperties.Serializer;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookCacheSerializerBenchmark {
+
+    @Param({"BINARY", "JSON", "JDK"})
+    private Serializer serializer;
+
+    private final BookResponse bookResponse = new BookResponse("65a0f1c2e4b0a1b2c3d4e5f6",
+            "The Pragmatic Programmer", "Andrew Hunt", 1999, 1L);
+    private RedisSerializer<Object> redisSerializer;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        redisSerializer = switch (serializer) {
+            case BINARY -> new BookResponseRedisSerializer(classLoader);
+            case JSON -> new GenericJackson2JsonRedisSerializer();
+            case JDK -> new JdkSerializationRedisSerializer(classLoader);
+        };
+        serialized = redisSerializer.serialize(bookResponse);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(bookResponse);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(serialized);
+    }
+}
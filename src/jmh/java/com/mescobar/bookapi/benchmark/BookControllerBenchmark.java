@@ -0,0 +1,109 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.HotBookSketch;
+import com.mescobar.bookapi.cache.LocalInvalidationChannel;
+import com.mescobar.bookapi.cache.TwoLevelCacheManager;
+import com.mescobar.bookapi.config.BookExportProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.BookController;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.InMemoryBookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BookControllerBenchmark {
+
+    private WebTestClient webTestClient;
+    private List<String> ids;
+
+    @Setup
+    public void setUp() {
+        InMemoryBookService bookService = InMemoryBookService.withBooks(10_000);
+        ids = bookService.ids();
+        LocalInvalidationChannel invalidationChannel = new LocalInvalidationChannel();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(CachingConfig.BOOKS),
+                () -> Caffeine.newBuilder().maximumSize(10_000), invalidationChannel, new SimpleMeterRegistry(), 0);
+        BookCache bookCache = new BookCache(cacheManager, null, invalidationChannel, new HotBookSketch(10_000, 0.1));
+        webTestClient = WebTestClient
+                .bindToController(new BookController(bookService, new NoOpBookBulkService(),
+                        (content, format, ordered) -> Mono.empty(), new BookMapperImpl(), bookCache,
+                        new BookExportProperties(1000, 64), Optional.empty()))
+                .build();
+    }
+
+    @Benchmark
+    public BookResponse getBook() {
+        String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return webTestClient.get()
+                .uri("/api/books/{id}", id)
+                .exchange()
+                .expectBody(BookResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public List<BookResponse> getBooksPage() {
+        return webTestClient.get()
+                .uri("/api/books?limit=100&sort=title")
+                .exchange()
+                .expectBodyList(BookResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static class NoOpBookBulkService implements BookBulkService {
+
+        @Override
+        public Flux<BulkItemResponse> getBooks(List<String> ids) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<BulkItemResponse> createBooks(Flux<DataBuffer> content) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<BulkItemResponse> updateBooks(Flux<DataBuffer> content) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<BulkItemResponse> deleteBooks(Flux<DataBuffer> content) {
+            return Flux.empty();
+        }
+    }
+}
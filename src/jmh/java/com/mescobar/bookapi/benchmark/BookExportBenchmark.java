@@ -0,0 +1,128 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.mapper.RawBookTranscoder;
+import com.mescobar.bookapi.model.Book;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the catalog export paths from the bytes the driver hands over to NDJSON response buffers: decoding into
+ * documents, mapping to {@link Book} and {@link BookResponse} and encoding with Jackson, against transcoding the raw
+ * BSON directly. The {@code bytes} counter gives the output in bytes per second, {@code -prof gc} the allocation per
+ * export.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BookExportBenchmark {
+
+    private static final ResolvableType BOOK_RESPONSE_TYPE = ResolvableType.forClass(BookResponse.class);
+
+    @Param({"1000"})
+    private int books;
+
+    @Param({"64"})
+    private int booksPerBuffer;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final BookMapperImpl bookMapper = new BookMapperImpl();
+    private MappingMongoConverter converter;
+    private List<RawBsonDocument> documents;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        documents = IntStream.range(0, books)
+                .mapToObj(i -> new RawBsonDocument(new Document("_id", new ObjectId())
+                        .append("title", "title-" + i)
+                        .append("author", "author-" + i % 100)
+                        .append("year", 1900 + i % 125)
+                        .append("version", (long) i)
+                        .append("_class", Book.class.getName()), documentCodec))
+                .toList();
+    }
+
+    @Benchmark
+    public long mappedExport(Throughput throughput) {
+        Flux<BookResponse> responses = Flux.fromIterable(documents)
+                .map(raw -> documentCodec.decode(new BsonBinaryReader(raw.getByteBuffer().asNIO()),
+                        DecoderContext.builder().build()))
+                .map(document -> converter.read(Book.class, document))
+                .map(bookMapper::toBookResponse);
+        return drain(encoder.encode(responses, bufferFactory, BOOK_RESPONSE_TYPE, MediaType.APPLICATION_NDJSON, null),
+                throughput);
+    }
+
+    @Benchmark
+    public long rawExport(Throughput throughput) {
+        return drain(RawBookTranscoder.toNdjson(Flux.fromIterable(documents), bufferFactory, booksPerBuffer), throughput);
+    }
+
+    private static long drain(Flux<DataBuffer> buffers, Throughput throughput) {
+        long bytes = buffers.map(buffer -> {
+                    int size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) size;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+        throughput.bytes += bytes;
+        return bytes;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookMapperBenchmark {
+
+    private final BookMapper bookMapper = new BookMapperImpl();
+    private final CreateBookRequest createBookRequest = new CreateBookRequest("title", "author", 2023);
+    private final UpdateBookRequest updateBookRequest = new UpdateBookRequest("newTitle", null, 2024);
+    private final Book book = new Book("65a0f1c2e4b0a1b2c3d4e5f6", "title", "author", 2023, 1L, null);
+
+    @Benchmark
+    public Book toBook() {
+        return bookMapper.toBook(createBookRequest);
+    }
+
+    @Benchmark
+    public BookResponse toBookResponse() {
+        return bookMapper.toBookResponse(book);
+    }
+
+    @Benchmark
+    public Book updateBookFromUpdateBookRequest() {
+        bookMapper.updateBookFromUpdateBookRequest(updateBookRequest, book);
+        return book;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookCursor;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSort;
+import com.mescobar.bookapi.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares keyset pages with the {@code findAll()} stream that used to serve every {@code GET /api/books}, against a
+ * seeded collection in a Testcontainers Mongo, so it needs Docker. {@code page} fetches one page after a random cursor,
+ * which stays flat as the collection grows; {@code keysetScan} and {@code findAll} read the whole catalog, by pages and
+ * as one cursor. Use {@code -p books=1000000} for a catalog of a million books; seeding it takes a minute or two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookPagingBenchmark {
+
+    private static final int CURSORS = 1_000;
+
+    @Param({"100000"})
+    private int books;
+
+    @Param({"100"})
+    private int limit;
+
+    @Param({"ID", "TITLE"})
+    private BookSort sort;
+
+    @Param({"", "id,title"})
+    private String fields;
+
+    private SeededBookCollection collection;
+    private BookRepository bookRepository;
+    private Set<String> projection;
+    private List<BookCursor> cursors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collection = SeededBookCollection.start(books);
+        bookRepository = collection.bookRepository();
+        projection = fields.isEmpty() ? Set.of() : Set.of(fields.split(","));
+        cursors = collection.mongoTemplate()
+                .aggregate(Aggregation.newAggregation(Aggregation.sample(CURSORS)), Book.class, Book.class)
+                .map(book -> BookCursor.of(sort, book))
+                .collectList()
+                .block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        collection.close();
+    }
+
+    @Benchmark
+    public List<Book> page() {
+        BookCursor after = cursors.get(ThreadLocalRandom.current().nextInt(cursors.size()));
+        return bookRepository.findPage(new BookPageRequest(after, limit, sort, projection))
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public Long keysetScan() {
+        BookPageRequest first = new BookPageRequest(null, BookPageRequest.MAX_LIMIT, sort, projection);
+        return bookRepository.findPage(first)
+                .collectList()
+                .expand(page -> page.size() < BookPageRequest.MAX_LIMIT
+                        ? Mono.<List<Book>>empty()
+                        : bookRepository.findPage(new BookPageRequest(BookCursor.of(sort, page.get(page.size() - 1)),
+                                BookPageRequest.MAX_LIMIT, sort, projection)).collectList())
+                .map(List::size)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    @Benchmark
+    public Long findAll() {
+        return bookRepository.findAll()
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookResponseEncodingBenchmark {
+
+    private static final ResolvableType BOOK_RESPONSE_TYPE = ResolvableType.forClass(BookResponse.class);
+
+    @Param({"1", "100", "1000"})
+    private int books;
+
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private List<BookResponse> bookResponses;
+
+    @Setup
+    public void setUp() {
+        bookResponses = IntStream.range(0, books)
+                .mapToObj(i -> new BookResponse("65a0f1c2e4b0a1b2c3d4%04x".formatted(i), "title-" + i, "author-" + i, 2000 + i % 25, 1L))
+                .toList();
+    }
+
+    @Benchmark
+    public long encodeNdjson() {
+        return encoder.encode(Flux.fromIterable(bookResponses), bufferFactory, BOOK_RESPONSE_TYPE,
+                        MediaType.APPLICATION_NDJSON, null)
+                .map(buffer -> {
+                    int size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) size;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+}
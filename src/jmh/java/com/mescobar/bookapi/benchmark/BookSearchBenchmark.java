@@ -0,0 +1,91 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@code GET /api/books/search} queries against a million seeded books in a Testcontainers Mongo, so it
+ * needs Docker, with the indexes declared on {@link Book} and with every query forced into a collection scan. Each
+ * invocation draws a random title prefix, author or pair of years, so that no single range stays in the cache; the
+ * selective queries scan the whole collection without an index, the year range stops once the page is full. Seeding
+ * takes a minute or two per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookSearchBenchmark {
+
+    private static final int WORDS = 1_000;
+    private static final int AUTHORS = 10_000;
+    private static final int YEARS = 125;
+
+    @Param({"1000000"})
+    private int books;
+
+    @Param({"100"})
+    private int limit;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private SeededBookCollection collection;
+    private BookRepository bookRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collection = SeededBookCollection.start(books);
+        bookRepository = indexed ? collection.bookRepository() : collection.scanningBookRepository();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        collection.close();
+    }
+
+    @Benchmark
+    public List<Book> titlePrefix() {
+        String title = SeededBookCollection.word(ThreadLocalRandom.current().nextInt(WORDS)) + " "
+                + SeededBookCollection.word(ThreadLocalRandom.current().nextInt(WORDS));
+        return search(BookSearchRequest.of(title, null, null, null, null, limit));
+    }
+
+    @Benchmark
+    public List<Book> authorAndYears() {
+        int year = SeededBookCollection.year(ThreadLocalRandom.current().nextInt(YEARS - 10));
+        return search(BookSearchRequest.of(null, SeededBookCollection.author(ThreadLocalRandom.current().nextInt(AUTHORS)),
+                year, year + 10, null, limit));
+    }
+
+    @Benchmark
+    public List<Book> yearRange() {
+        int year = SeededBookCollection.year(ThreadLocalRandom.current().nextInt(YEARS - 1));
+        return search(BookSearchRequest.of(null, null, year, year + 1, null, limit));
+    }
+
+    private List<Book> search(BookSearchRequest searchRequest) {
+        return bookRepository.search(searchRequest)
+                .collectList()
+                .block();
+    }
+}
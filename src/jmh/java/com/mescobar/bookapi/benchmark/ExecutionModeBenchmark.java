@@ -0,0 +1,180 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.HotBookSketch;
+import com.mescobar.bookapi.cache.LocalInvalidationChannel;
+import com.mescobar.bookapi.cache.TwoLevelCacheManager;
+import com.mescobar.bookapi.config.BlockingConfig;
+import com.mescobar.bookapi.config.BookBlockingProperties;
+import com.mescobar.bookapi.config.BookExportProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.BlockingBookController;
+import com.mescobar.bookapi.controller.BookController;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.InMemoryBlockingBookService;
+import com.mescobar.bookapi.service.InMemoryBookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reactive and blocking controllers in front of the same in-memory backend with a simulated round trip.
+ * Run with {@code -prof gc} to read the allocation per request next to throughput and the sampled latency percentiles.
+ * On Java 21 and later, {@code -p virtualThreads=true} runs the blocking controller on virtual threads instead of a pool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    @Param({"reactive", "blocking"})
+    private String mode;
+
+    @Param({"0", "5"})
+    private int backendLatencyMillis;
+
+    @Param("200")
+    private int blockingThreads;
+
+    @Param("false")
+    private boolean virtualThreads;
+
+    private WebTestClient webTestClient;
+    private AsyncTaskExecutor taskExecutor;
+    private Scheduler loadScheduler;
+    private List<String> ids;
+
+    @Setup
+    public void setUp() {
+        Duration latency = Duration.ofMillis(backendLatencyMillis);
+        InMemoryBookService bookService = InMemoryBookService.withBooks(10_000);
+        ids = bookService.ids();
+        // the cache is bypassed so that every request reaches the backend
+        LocalInvalidationChannel invalidationChannel = new LocalInvalidationChannel();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new NoOpCacheManager(),
+                () -> Caffeine.newBuilder().maximumSize(0).executor(Runnable::run), invalidationChannel, new SimpleMeterRegistry(), 0);
+        BookCache bookCache = new BookCache(cacheManager, null, invalidationChannel, new HotBookSketch(10_000, 0.1));
+        BookMapperImpl bookMapper = new BookMapperImpl();
+
+        if ("blocking".equals(mode)) {
+            taskExecutor = virtualThreads ? virtualThreadExecutor() : platformThreadExecutor(blockingThreads);
+            loadScheduler = new BlockingConfig().bookLoadScheduler(new BookBlockingProperties(64, 1000));
+            BlockingBookController controller = new BlockingBookController(
+                    new InMemoryBlockingBookService(bookService, latency), bookService, new NoOpBookBulkService(),
+                    (content, format, ordered) -> Mono.empty(), bookMapper, bookCache, new BookExportProperties(1000, 64), Optional.empty(), taskExecutor,
+                    loadScheduler);
+            webTestClient = WebTestClient.bindToController(controller)
+                    .blockingExecution(configurer -> configurer.setExecutor(taskExecutor))
+                    .build();
+        } else {
+            BookController controller = new BookController(bookService.withLatency(latency), new NoOpBookBulkService(),
+                    (content, format, ordered) -> Mono.empty(), bookMapper, bookCache, new BookExportProperties(1000, 64), Optional.empty());
+            webTestClient = WebTestClient.bindToController(controller).build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (loadScheduler != null) {
+            loadScheduler.dispose();
+        }
+        if (taskExecutor instanceof DisposableBean pool) {
+            pool.destroy();
+        } else if (taskExecutor instanceof AutoCloseable executor) {
+            executor.close();
+        }
+    }
+
+    @Benchmark
+    public BookResponse getBook() {
+        String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return webTestClient.get()
+                .uri("/api/books/{id}", id)
+                .exchange()
+                .expectBody(BookResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public List<BookResponse> getBooksPage() {
+        return webTestClient.get()
+                .uri("/api/books?limit=100&sort=title")
+                .exchange()
+                .expectBodyList(BookResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static AsyncTaskExecutor platformThreadExecutor(int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setThreadNamePrefix("book-blocking-");
+        executor.initialize();
+        return executor;
+    }
+
+    private static AsyncTaskExecutor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("book-blocking-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private static class NoOpBookBulkService implements BookBulkService {
+
+        @Override
+        public Flux<BulkItemResponse> getBooks(List<String> ids) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<BulkItemResponse> createBooks(Flux<DataBuffer> content) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<BulkItemResponse> updateBooks(Flux<DataBuffer> content) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<BulkItemResponse> deleteBooks(Flux<DataBuffer> content) {
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.config.BookRateLimitProperties;
+import com.mescobar.bookapi.controller.RateLimitFilter;
+import com.mescobar.bookapi.controller.TokenBuckets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of a rate limit decision, which should stay well under a microsecond: the bucket update alone for one hot
+ * client, uncontended and contended, and across many clients, then the whole filter up to the next link of the chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    private TokenBuckets buckets;
+    private String[] clients;
+    private RateLimitFilter filter;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        buckets = new TokenBuckets(1_000_000, Duration.ofSeconds(1), 1_000, CLIENTS);
+        clients = IntStream.range(0, CLIENTS).mapToObj(i -> "ip:10.0." + (i >> 8) + "." + (i & 0xff)).toArray(String[]::new);
+        BookRateLimitProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "book-api.rate-limit.budgets.point.patterns", "/api/books/**",
+                "book-api.rate-limit.budgets.point.limit", "1000000",
+                "book-api.rate-limit.budgets.streaming.patterns", "/api/books,/api/books/search,/api/books/_export",
+                "book-api.rate-limit.budgets.streaming.methods", "GET",
+                "book-api.rate-limit.budgets.streaming.limit", "10")))
+                .bindOrCreate("book-api.rate-limit", BookRateLimitProperties.class);
+        filter = new RateLimitFilter(properties, null, new SimpleMeterRegistry());
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/65a0f1c2e4b0a1b2c3d4e5f6")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 4000)));
+    }
+
+    @Benchmark
+    public TokenBuckets.Decision hotClient() {
+        return buckets.tryAcquire(clients[0], System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TokenBuckets.Decision hotClientContended() {
+        return buckets.tryAcquire(clients[0], System.nanoTime());
+    }
+
+    @Benchmark
+    public TokenBuckets.Decision manyClients() {
+        return buckets.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)], System.nanoTime());
+    }
+
+    @Benchmark
+    public Mono<Void> filter() {
+        return filter.filter(exchange, CHAIN);
+    }
+}
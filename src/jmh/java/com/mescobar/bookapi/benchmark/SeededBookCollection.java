@@ -0,0 +1,144 @@
+package com.mescobar.bookapi.benchmark;
+
+import com.mescobar.bookapi.MyContainers;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import com.mescobar.bookapi.repository.BookRepositoryCustomImpl;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.testcontainers.containers.MongoDBContainer;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * A books collection in the Testcontainers Mongo of {@link MyContainers}, seeded with {@code count} generated books and
+ * the indexes declared on {@link Book}, for the benchmarks that need a real query planner. Titles start with one of a
+ * thousand words and authors are drawn from ten thousand names, so prefix and range queries select a small slice.
+ */
+final class SeededBookCollection implements AutoCloseable {
+
+    private static final String DATABASE = "bookdb";
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int WORDS = 1_000;
+    private static final int AUTHORS = 10_000;
+    private static final int FIRST_YEAR = 1900;
+    private static final int YEARS = 125;
+    private static final String NATURAL_ORDER = "{ $natural : 1 }";
+
+    private final MongoDBContainer container;
+    private final MongoClient client;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final BookRepository bookRepository;
+    private final BookRepository scanningBookRepository;
+
+    private SeededBookCollection(MongoDBContainer container) {
+        this.container = container;
+        this.client = MongoClients.create(container.getReplicaSetUrl(DATABASE));
+        this.mongoTemplate = new ReactiveMongoTemplate(client, DATABASE);
+        this.bookRepository = repository(mongoTemplate);
+        this.scanningBookRepository = repository(new CollectionScanningMongoTemplate(client, DATABASE));
+    }
+
+    private static BookRepository repository(ReactiveMongoTemplate mongoTemplate) {
+        return new ReactiveMongoRepositoryFactory(mongoTemplate)
+                .getRepository(BookRepository.class, RepositoryFragments.just(new BookRepositoryCustomImpl(mongoTemplate)));
+    }
+
+    static SeededBookCollection start(int count) {
+        MyContainers.mongoDBContainer.start();
+        SeededBookCollection collection = new SeededBookCollection(MyContainers.mongoDBContainer);
+        collection.seed(count);
+        collection.createIndexes();
+        return collection;
+    }
+
+    ReactiveMongoTemplate mongoTemplate() {
+        return mongoTemplate;
+    }
+
+    BookRepository bookRepository() {
+        return bookRepository;
+    }
+
+    /**
+     * The same repository with every find hinted to {@code $natural}, which runs it as a collection scan as if the
+     * collection had no secondary indexes. {@code $text} queries cannot run without their index.
+     */
+    BookRepository scanningBookRepository() {
+        return scanningBookRepository;
+    }
+
+    static String word(int i) {
+        return "w%03d".formatted(i % WORDS);
+    }
+
+    static String author(int i) {
+        return "author-%05d".formatted(i % AUTHORS);
+    }
+
+    static int year(int i) {
+        return FIRST_YEAR + i % YEARS;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        container.stop();
+    }
+
+    private void seed(int count) {
+        String collectionName = mongoTemplate.getCollectionName(Book.class);
+        SplittableRandom random = new SplittableRandom(42);
+        Instant now = Instant.now();
+        mongoTemplate.dropCollection(collectionName)
+                .then(mongoTemplate.getCollection(collectionName))
+                .flatMapMany(collection -> Flux.range(0, (count + INSERT_BATCH_SIZE - 1) / INSERT_BATCH_SIZE)
+                        .map(batch -> IntStream.range(batch * INSERT_BATCH_SIZE, Math.min(count, (batch + 1) * INSERT_BATCH_SIZE))
+                                .mapToObj(i -> book(random.nextInt(Integer.MAX_VALUE), now))
+                                .toList())
+                        .concatMap(books -> collection.insertMany(books), 2))
+                .blockLast();
+    }
+
+    private static Document book(int seed, Instant lastModified) {
+        return new Document("_id", new ObjectId())
+                .append("title", word(seed) + " " + word(seed / WORDS) + " " + seed)
+                .append("author", author(seed / 7))
+                .append("year", year(seed / 11))
+                .append("version", 0L)
+                .append("lastModified", lastModified);
+    }
+
+    private void createIndexes() {
+        ReactiveIndexOperations indexOperations = mongoTemplate.indexOps(Book.class);
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (IndexDefinition index : resolver.resolveIndexFor(Book.class)) {
+            indexOperations.ensureIndex(index).block();
+        }
+    }
+
+    private static final class CollectionScanningMongoTemplate extends ReactiveMongoTemplate {
+
+        private CollectionScanningMongoTemplate(MongoClient client, String database) {
+            super(client, database);
+        }
+
+        @Override
+        public <T> Flux<T> find(Query query, Class<T> entityClass, String collectionName) {
+            return super.find(Query.of(query).withHint(NATURAL_ORDER), entityClass, collectionName);
+        }
+    }
+}
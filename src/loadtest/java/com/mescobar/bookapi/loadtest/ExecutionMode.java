@@ -0,0 +1,10 @@
+package com.mescobar.bookapi.loadtest;
+
+public enum ExecutionMode {
+    REACTIVE,
+    BLOCKING;
+
+    public String[] profiles() {
+        return this == BLOCKING ? new String[]{"blocking"} : new String[0];
+    }
+}
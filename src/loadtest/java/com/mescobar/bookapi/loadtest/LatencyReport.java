@@ -0,0 +1,103 @@
+package com.mescobar.bookapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public void record(Operation operation, long latencyNanos, boolean failed) {
+        histograms.get(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        if (failed) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    public Summary summarize(LoadTestSettings settings, long backendLookups, ResourceSampler.Usage resources) {
+        Map<String, OperationSummary> operations = new LinkedHashMap<>();
+        histograms.forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                operations.put(operation.name(), new OperationSummary(
+                        histogram.getTotalCount(),
+                        errors.get(operation).get(),
+                        millis(histogram.getValueAtPercentile(50)),
+                        millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue())));
+            }
+        });
+        return new Summary(settings.mix().name(), settings.mode().name(), settings.backendLatency().toMillis(),
+                settings.rate(), settings.duration().toSeconds(), backendLookups, resources, operations);
+    }
+
+    public void write(Summary summary, LoadTestSettings settings) throws IOException {
+        Path directory = settings.reportDirectory();
+        Files.createDirectories(directory);
+        String prefix = settings.reportPrefix();
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getTotalCount() > 0) {
+                Path file = directory.resolve("%s-%s.hgrm".formatted(prefix, entry.getKey().name().toLowerCase()));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                    entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+                }
+            }
+        }
+        objectMapper.writeValue(directory.resolve(prefix + "-summary.json").toFile(), summary);
+    }
+
+    public List<String> violations(Summary summary, LoadTestSettings settings) throws IOException {
+        List<String> violations = new ArrayList<>();
+        Summary baseline = settings.baseline() != null && Files.exists(settings.baseline())
+                ? objectMapper.readValue(settings.baseline().toFile(), Summary.class)
+                : null;
+        summary.operations().forEach((operation, result) -> {
+            if (result.p99Ms() > settings.p99MaxMillis()) {
+                violations.add("%s p99 %.2f ms exceeds %.2f ms".formatted(operation, result.p99Ms(), settings.p99MaxMillis()));
+            }
+            OperationSummary previous = baseline == null ? null : baseline.operations().get(operation);
+            if (previous != null && result.p99Ms() > previous.p99Ms() * (1 + settings.p99Tolerance())) {
+                violations.add("%s p99 %.2f ms regressed from baseline %.2f ms".formatted(operation, result.p99Ms(),
+                        previous.p99Ms()));
+            }
+        });
+        return violations;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    public record Summary(String mix, String mode, long backendLatencyMs, int rate, long durationSeconds,
+            long backendLookups, ResourceSampler.Usage resources, Map<String, OperationSummary> operations) {
+    }
+
+    public record OperationSummary(long count, long errors, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+}
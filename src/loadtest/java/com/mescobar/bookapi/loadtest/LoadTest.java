@@ -0,0 +1,85 @@
+package com.mescobar.bookapi.loadtest;
+
+import com.mescobar.bookapi.service.InMemoryBookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+public class LoadTest {
+
+    private static final int MAX_IN_FLIGHT = 16_384;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        int exitCode;
+        try (ReactiveWebServerApplicationContext context = (ReactiveWebServerApplicationContext) new SpringApplicationBuilder(
+                LoadTestServer.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(settings.mode().profiles())
+                .run(args)) {
+            InMemoryBookService bookService = context.getBean(InMemoryBookService.class);
+            HttpClient client = HttpClient.create(ConnectionProvider.builder("loadtest")
+                            .maxConnections(1024)
+                            .pendingAcquireMaxCount(-1)
+                            .build())
+                    .baseUrl("http://localhost:" + context.getWebServer().getPort());
+            exitCode = run(settings, client, bookService);
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestSettings settings, HttpClient client, InMemoryBookService bookService)
+            throws Exception {
+        List<String> ids = bookService.ids();
+        LatencyReport report = new LatencyReport();
+        long intervalNanos = settings.intervalNanos();
+        long warmupRequests = settings.warmup().toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        ResourceSampler sampler = new ResourceSampler();
+        log.info("Running {} against the {} controllers ({} backend latency) at {} req/s for {} after {} warm-up",
+                settings.mix(), settings.mode(), settings.backendLatency(), settings.rate(), settings.duration(),
+                settings.warmup());
+        sampler.start();
+
+        long lookupsAfterWarmup = Flux.interval(Duration.ofNanos(intervalNanos))
+                .take(settings.totalRequests())
+                .flatMap(tick -> {
+                    long intendedStart = start + (tick + 1) * intervalNanos;
+                    Operation operation = settings.mix().next();
+                    return operation.execute(client, ids)
+                            .doOnSubscribe(subscription -> sampler.requestStarted())
+                            .doFinally(signal -> sampler.requestFinished())
+                            .map(status -> status >= 400)
+                            .onErrorReturn(true)
+                            .doOnNext(failed -> {
+                                if (tick >= warmupRequests) {
+                                    report.record(operation, System.nanoTime() - intendedStart, failed);
+                                }
+                            })
+                            .then(Mono.fromSupplier(() -> tick == warmupRequests ? bookService.lookups() : -1L));
+                }, MAX_IN_FLIGHT)
+                .filter(lookups -> lookups >= 0)
+                .last(0L)
+                .block();
+
+        ResourceSampler.Usage resources = sampler.stop(settings.totalRequests());
+        LatencyReport.Summary summary = report.summarize(settings, bookService.lookups() - lookupsAfterWarmup, resources);
+        report.write(summary, settings);
+        summary.operations().forEach((operation, result) -> log.info("{}: {}", operation, result));
+        log.info("Backend lookups after warm-up: {}", summary.backendLookups());
+        log.info("Resources: {}", resources);
+
+        List<String> violations = report.violations(summary, settings);
+        violations.forEach(violation -> log.error("SLO violation: {}", violation));
+        return violations.isEmpty() ? 0 : 1;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mescobar.bookapi.loadtest;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.HotBookSketch;
+import com.mescobar.bookapi.cache.CacheInvalidationChannel;
+import com.mescobar.bookapi.cache.LocalInvalidationChannel;
+import com.mescobar.bookapi.cache.TwoLevelCacheManager;
+import com.mescobar.bookapi.config.BookExportProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.BlockingBookController;
+import com.mescobar.bookapi.controller.BookController;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.service.BlockingBookService;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.InMemoryBlockingBookService;
+import com.mescobar.bookapi.service.InMemoryBookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@EnableWebFlux
+@EnableCaching
+@Import({BookController.class, BlockingBookController.class, BookMapperImpl.class, LoadTestServer.BlockingExecution.class})
+public class LoadTestServer {
+
+    @Bean
+    public NettyReactiveWebServerFactory webServerFactory() {
+        return new NettyReactiveWebServerFactory(0);
+    }
+
+    @Bean
+    public HttpHandler httpHandler(ApplicationContext applicationContext) {
+        return WebHttpHandlerBuilder.applicationContext(applicationContext).build();
+    }
+
+    @Bean
+    public InMemoryBookService bookService(Environment environment) {
+        InMemoryBookService bookService = InMemoryBookService.withBooks(Integer.getInteger("loadtest.books", 10_000));
+        // the blocking service waits on the calling thread instead, see BlockingExecution
+        return environment.acceptsProfiles(Profiles.of("blocking"))
+                ? bookService
+                : bookService.withLatency(LoadTestSettings.fromSystemProperties().backendLatency());
+    }
+
+    @Bean
+    public BookBulkService bookBulkService() {
+        return new BookBulkService() {
+            @Override
+            public Flux<BulkItemResponse> getBooks(List<String> ids) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Flux<BulkItemResponse> createBooks(Flux<DataBuffer> content) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Flux<BulkItemResponse> updateBooks(Flux<DataBuffer> content) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Flux<BulkItemResponse> deleteBooks(Flux<DataBuffer> content) {
+                return Flux.empty();
+            }
+        };
+    }
+
+    @Bean
+    public BookExportProperties exportProperties() {
+        return new BookExportProperties(1000, 64);
+    }
+
+    @Bean
+    public CacheInvalidationChannel invalidationChannel() {
+        return new LocalInvalidationChannel();
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(CacheInvalidationChannel invalidationChannel) {
+        return new TwoLevelCacheManager(new ConcurrentMapCacheManager(CachingConfig.BOOKS),
+                () -> Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(Duration.ofMinutes(10)),
+                invalidationChannel, new SimpleMeterRegistry(), 0);
+    }
+
+    @Bean
+    public BookCache bookCache(TwoLevelCacheManager cacheManager, CacheInvalidationChannel invalidationChannel) {
+        return new BookCache(cacheManager, null, invalidationChannel, new HotBookSketch(10_000, 0.1));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @Profile("blocking")
+    static class BlockingExecution implements WebFluxConfigurer {
+
+        private final ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+
+        BlockingExecution() {
+            taskExecutor.setCorePoolSize(Integer.getInteger("loadtest.blocking-threads", 200));
+            taskExecutor.setThreadNamePrefix("book-blocking-");
+        }
+
+        @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+        public ThreadPoolTaskExecutor applicationTaskExecutor() {
+            return taskExecutor;
+        }
+
+        @Bean
+        public BlockingBookService blockingBookService(InMemoryBookService bookService) {
+            return new InMemoryBlockingBookService(bookService, LoadTestSettings.fromSystemProperties().backendLatency());
+        }
+
+        @Override
+        public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+            configurer.setExecutor(taskExecutor);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mescobar.bookapi.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+public record LoadTestSettings(
+        ExecutionMode mode,
+        Duration backendLatency,
+        TrafficMix mix,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        double p99MaxMillis,
+        Path baseline,
+        double p99Tolerance,
+        Path reportDirectory) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        String baseline = System.getProperty("loadtest.baseline", "");
+        return new LoadTestSettings(
+                ExecutionMode.valueOf(System.getProperty("loadtest.mode", ExecutionMode.REACTIVE.name())),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.backend-latency", "0ms")),
+                TrafficMix.valueOf(System.getProperty("loadtest.mix", TrafficMix.READ_HEAVY.name())),
+                Integer.getInteger("loadtest.rate", 1000),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s")),
+                Double.parseDouble(System.getProperty("loadtest.p99-max-ms", "50")),
+                baseline.isBlank() ? null : Path.of(baseline),
+                Double.parseDouble(System.getProperty("loadtest.p99-tolerance", "0.2")),
+                Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+    }
+
+    public String reportPrefix() {
+        return (mix.name() + "-" + mode.name()).toLowerCase();
+    }
+
+    public long totalRequests() {
+        return rate * (warmup.toMillis() + duration.toMillis()) / 1000;
+    }
+
+    public long intervalNanos() {
+        return Duration.ofSeconds(1).toNanos() / rate;
+    }
+}
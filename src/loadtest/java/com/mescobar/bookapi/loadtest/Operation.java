@@ -0,0 +1,51 @@
+package com.mescobar.bookapi.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public enum Operation {
+    GET_BOOK(HttpMethod.GET),
+    LIST_PAGE(HttpMethod.GET),
+    LIST_BULK(HttpMethod.GET),
+    CREATE_BOOK(HttpMethod.POST),
+    UPDATE_BOOK(HttpMethod.PATCH);
+
+    private final HttpMethod method;
+
+    Operation(HttpMethod method) {
+        this.method = method;
+    }
+
+    public Mono<Integer> execute(HttpClient client, List<String> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String id = ids.get(random.nextInt(ids.size()));
+        String uri = switch (this) {
+            case GET_BOOK, UPDATE_BOOK -> "/api/books/" + id;
+            case LIST_PAGE -> "/api/books?limit=100&sort=title";
+            case LIST_BULK -> "/api/books?limit=1000";
+            case CREATE_BOOK -> "/api/books";
+        };
+        String body = switch (this) {
+            case CREATE_BOOK -> "{\"title\":\"title-%d\",\"author\":\"author\",\"year\":2024}".formatted(random.nextInt());
+            case UPDATE_BOOK -> "{\"year\":%d}".formatted(1900 + random.nextInt(125));
+            default -> null;
+        };
+        HttpClient.RequestSender sender = client
+                .headers(headers -> {
+                    if (body != null) {
+                        headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+                    }
+                })
+                .request(method)
+                .uri(uri);
+        HttpClient.ResponseReceiver<?> receiver = body == null ? sender : sender.send(ByteBufFlux.fromString(Mono.just(body)));
+        return receiver.responseSingle((response, content) -> content.then(Mono.just(response.status().code())));
+    }
+}
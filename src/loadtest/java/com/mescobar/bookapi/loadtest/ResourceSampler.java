@@ -0,0 +1,66 @@
+package com.mescobar.bookapi.loadtest;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Tracks requests in flight and samples live threads and used heap while a run is going. The load generator shares the
+ * JVM with the server, so the figures are meant for comparing execution modes rather than as absolute footprints.
+ */
+public class ResourceSampler {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(100);
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+    private final AtomicLong peakHeapUsed = new AtomicLong();
+    private long allocatedAtStart;
+    private Disposable sampling;
+
+    public void start() {
+        allocatedAtStart = allocatedBytes();
+        sampling = Flux.interval(SAMPLE_INTERVAL).subscribe(tick -> sample());
+    }
+
+    public void requestStarted() {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    }
+
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    public Usage stop(long requests) {
+        sampling.dispose();
+        sample();
+        long allocated = allocatedBytes() - allocatedAtStart;
+        return new Usage(peakInFlight.get(), peakThreads.get(), peakHeapUsed.get() / BYTES_PER_MB,
+                requests == 0 ? 0 : allocated / requests);
+    }
+
+    private void sample() {
+        peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        peakHeapUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    private long allocatedBytes() {
+        return LongStream.of(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    public record Usage(int peakInFlight, int peakThreads, long peakHeapUsedMb, long allocatedBytesPerRequest) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.mescobar.bookapi.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+public enum TrafficMix {
+    READ_HEAVY(Map.of(Operation.GET_BOOK, 90, Operation.LIST_PAGE, 5, Operation.UPDATE_BOOK, 5)),
+    WRITE_HEAVY(Map.of(Operation.CREATE_BOOK, 40, Operation.UPDATE_BOOK, 40, Operation.GET_BOOK, 20)),
+    BULK_LISTING(Map.of(Operation.LIST_PAGE, 50, Operation.LIST_BULK, 50));
+
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+
+    TrafficMix(Map<Operation, Integer> weights) {
+        this.weights = new LinkedHashMap<>(weights);
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public Operation next() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights of %s do not add up".formatted(name()));
+    }
+}
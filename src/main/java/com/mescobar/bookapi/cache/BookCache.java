@@ -0,0 +1,311 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.HotBookResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveStringCommands.SetCommand;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class BookCache {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final HotBookSketch hotBooks;
+
+    public void recordAccess(String id) {
+        hotBooks.record(id);
+    }
+
+    /**
+     * Returns up to {@code limit} of the most read books, hottest first, with their estimated reads and share of
+     * all reads since the sketch last decayed.
+     */
+    public List<HotBookResponse> hottest(int limit) {
+        long total = hotBooks.total();
+        Set<Object> pinned = cache().getPinnedKeys();
+        return hotBooks.top(limit).entrySet().stream()
+                .map(entry -> new HotBookResponse(entry.getKey(), Math.round(entry.getValue() / hotBooks.sampleRate()),
+                        total == 0 ? 0 : (double) entry.getValue() / total, pinned.contains(entry.getKey())))
+                .toList();
+    }
+
+    /**
+     * Returns the generations of {@code ids}, to be taken before loading the books to {@link #pin}.
+     */
+    public Map<Object, Long> generations(Collection<String> ids) {
+        return cache().generations(ids);
+    }
+
+    /**
+     * Replaces the books pinned in process, leaving out the ones written or evicted since {@code generations}.
+     */
+    public void pin(Map<String, BookResponse> books, Map<Object, Long> generations) {
+        cache().pin(books, generations);
+    }
+
+    public Mono<BookResponse> get(String id, Supplier<Mono<BookResponse>> loader) {
+        TwoLevelCache cache = cache();
+        return Mono.fromFuture(() -> cache.retrieve(id, () -> loader.get().toFuture()));
+    }
+
+    /**
+     * Resolves the version of a cached book from the local tier, or from the head of the Redis value, without
+     * decoding the book itself. Completes empty when the book is not cached or its version is unknown.
+     */
+    public Mono<Long> version(String id) {
+        TwoLevelCache cache = cache();
+        if (cache.getLocal(id) instanceof BookResponse book) {
+            return Mono.justOrEmpty(book.version());
+        }
+        if (!(ResilientCache.unwrap(cache.getRemoteCache()) instanceof RedisCache redisCache)) {
+            return Mono.empty();
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        Mono<ByteBuffer> head = Mono.usingWhen(Mono.fromSupplier(connectionFactory::getReactiveConnection),
+                connection -> connection.stringCommands()
+                        .getRange(key(configuration, id), 0, BookResponseRedisSerializer.PEEK_LENGTH - 1),
+                ReactiveRedisConnection::closeLater);
+        return guardRead(cache, head)
+                .mapNotNull(prefix -> {
+                    byte[] bytes = new byte[prefix.remaining()];
+                    prefix.get(bytes);
+                    return BookResponseRedisSerializer.peekVersion(bytes);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to read the cached version of book {}", id, e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Looks books up in the local tier first and the rest with a single Redis {@code MGET}, promoting remote hits to
+     * the local tier. The map holds only the books that were found.
+     */
+    public Mono<Map<String, BookResponse>> getAll(Collection<String> ids) {
+        TwoLevelCache cache = cache();
+        Map<String, BookResponse> found = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            if (cache.getLocal(id) instanceof BookResponse book) {
+                found.put(id, book);
+            } else {
+                remaining.add(id);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return Mono.just(found);
+        }
+        if (!(ResilientCache.unwrap(cache.getRemoteCache()) instanceof RedisCache redisCache)) {
+            return Mono.fromSupplier(() -> {
+                remaining.forEach(id -> {
+                    BookResponse book = cache.getRemoteCache().get(id, BookResponse.class);
+                    if (book != null) {
+                        found.put(id, book);
+                    }
+                });
+                return found;
+            });
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        List<ByteBuffer> keys = remaining.stream().map(id -> key(configuration, id)).toList();
+        Mono<List<ByteBuffer>> values = Mono.usingWhen(Mono.fromSupplier(connectionFactory::getReactiveConnection),
+                connection -> connection.stringCommands().mGet(keys),
+                ReactiveRedisConnection::closeLater);
+        return guardRead(cache, values)
+                .map(buffers -> {
+                    for (int i = 0; i < remaining.size(); i++) {
+                        ByteBuffer value = buffers.get(i);
+                        if (value != null && value.hasRemaining()
+                                && configuration.getValueSerializationPair().read(value) instanceof BookResponse book) {
+                            found.put(remaining.get(i), book);
+                            cache.putLocal(remaining.get(i), book);
+                        }
+                    }
+                    return found;
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to read {} cached books", remaining.size(), e);
+                    return Mono.just(found);
+                })
+                .defaultIfEmpty(found);
+    }
+
+    public Mono<Void> putAll(Collection<BookResponse> books) {
+        return put(books, true);
+    }
+
+    /**
+     * Writes freshly loaded books to both tiers without invalidating other nodes, which may keep what they have.
+     */
+    public Mono<Void> preload(Collection<BookResponse> books) {
+        return put(books, false);
+    }
+
+    /**
+     * Writes books to Redis with one pipelined {@code SET} per book, then to the local tier. When the books replace
+     * cached ones and Redis does not take the write, because it failed or the circuit is open, the books are evicted
+     * everywhere instead, so that the previous values are not served until they expire.
+     */
+    private Mono<Void> put(Collection<BookResponse> books, boolean invalidateOthers) {
+        if (books.isEmpty()) {
+            return Mono.empty();
+        }
+        TwoLevelCache cache = cache();
+        if (!(ResilientCache.unwrap(cache.getRemoteCache()) instanceof RedisCache)) {
+            return Mono.fromRunnable(() -> books.forEach(book -> {
+                if (invalidateOthers) {
+                    cache.put(book.id(), book);
+                } else {
+                    cache.getRemoteCache().put(book.id(), book);
+                    cache.putLocal(book.id(), book);
+                }
+            }));
+        }
+        RedisCacheConfiguration configuration = redisCacheConfiguration(cache);
+        List<String> ids = books.stream().map(BookResponse::id).toList();
+        return withConnection(cache, connection -> connection.stringCommands()
+                .set(Flux.fromIterable(books).map(book -> setCommand(configuration, book)))
+                .then())
+                .onErrorResume(e -> {
+                    log.warn("Failed to cache {} books", books.size(), e);
+                    return Mono.just(false);
+                })
+                .flatMap(written -> {
+                    if (written) {
+                        books.forEach(book -> cache.putLocal(book.id(), book));
+                        if (invalidateOthers) {
+                            invalidationChannel.publishEvict(CachingConfig.BOOKS, ids);
+                        }
+                        return Mono.empty();
+                    }
+                    return invalidateOthers ? evictAll(ids, true) : Mono.empty();
+                });
+    }
+
+    public Mono<Void> evictAll(Collection<String> ids) {
+        return evictAll(ids, false);
+    }
+
+    /**
+     * Deletes the books from Redis, then evicts them locally and on other nodes whether or not the delete succeeded.
+     * A {@code forced} delete is attempted even while the circuit is open, for a write that Redis did not take.
+     */
+    private Mono<Void> evictAll(Collection<String> ids, boolean forced) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        TwoLevelCache cache = cache();
+        if (!(ResilientCache.unwrap(cache.getRemoteCache()) instanceof RedisCache)) {
+            return Mono.fromRunnable(() -> ids.forEach(cache::evict));
+        }
+        RedisCacheConfiguration configuration = redisCacheConfiguration(cache);
+        List<ByteBuffer> keys = ids.stream().map(id -> key(configuration, id)).toList();
+        Function<ReactiveRedisConnection, Mono<Void>> delete = connection -> connection.keyCommands().mDel(keys).then();
+        return (forced ? withConnectionForced(cache, delete) : withConnection(cache, delete))
+                .onErrorResume(e -> {
+                    log.error("Failed to evict {} books from the remote cache", ids.size(), e);
+                    return Mono.just(false);
+                })
+                .then()
+                .doOnTerminate(() -> {
+                    ids.forEach(cache::evictLocal);
+                    invalidationChannel.publishEvict(CachingConfig.BOOKS, ids);
+                });
+    }
+
+    public boolean isCachedLocally(String id) {
+        return cache().getLocal(id) != null;
+    }
+
+    public Mono<Void> clear() {
+        return Mono.fromRunnable(() -> cache().clear()).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    /**
+     * Drops the local copies of books, leaving Redis and other nodes alone.
+     */
+    public void evictLocal(Collection<String> ids) {
+        TwoLevelCache cache = cache();
+        ids.forEach(cache::evictLocal);
+    }
+
+    public void clearLocal() {
+        cache().clearLocal();
+    }
+
+    private TwoLevelCache cache() {
+        return cacheManager.getCache(CachingConfig.BOOKS);
+    }
+
+    private static RedisCacheConfiguration redisCacheConfiguration(TwoLevelCache cache) {
+        if (ResilientCache.unwrap(cache.getRemoteCache()) instanceof RedisCache redisCache) {
+            return redisCache.getCacheConfiguration();
+        }
+        throw new IllegalStateException("Cache %s is not backed by Redis".formatted(cache.getName()));
+    }
+
+    private static SetCommand setCommand(RedisCacheConfiguration configuration, BookResponse book) {
+        SetCommand command = SetCommand.set(key(configuration, book.id()))
+                .value(configuration.getValueSerializationPair().write(book));
+        Duration ttl = configuration.getTtlFunction().getTimeToLive(book.id(), book);
+        return ttl.isZero() || ttl.isNegative() ? command : command.expiring(Expiration.from(ttl));
+    }
+
+    private static ByteBuffer key(RedisCacheConfiguration configuration, String id) {
+        String key = configuration.usePrefix() ? configuration.getKeyPrefixFor(CachingConfig.BOOKS) + id : id;
+        return configuration.getKeySerializationPair().write(key);
+    }
+
+    private static <T> Mono<T> guardRead(TwoLevelCache cache, Mono<T> read) {
+        return cache.getRemoteCache() instanceof ResilientCache resilientCache ? resilientCache.read(read) : read;
+    }
+
+    /**
+     * Runs a write, completing with whether Redis took it. Without a resilient cache in between, a failed write
+     * completes with the error instead.
+     */
+    private Mono<Boolean> withConnection(TwoLevelCache cache, Function<ReactiveRedisConnection, Mono<Void>> action) {
+        Mono<Void> write = connect(action);
+        return cache.getRemoteCache() instanceof ResilientCache resilientCache
+                ? resilientCache.write(write)
+                : write.thenReturn(true);
+    }
+
+    private Mono<Boolean> withConnectionForced(TwoLevelCache cache, Function<ReactiveRedisConnection, Mono<Void>> action) {
+        Mono<Void> write = connect(action);
+        return cache.getRemoteCache() instanceof ResilientCache resilientCache
+                ? resilientCache.invalidate(write)
+                : write.thenReturn(true);
+    }
+
+    private Mono<Void> connect(Function<ReactiveRedisConnection, Mono<Void>> action) {
+        return Mono.usingWhen(Mono.fromSupplier(connectionFactory::getReactiveConnection), action,
+                ReactiveRedisConnection::closeLater);
+    }
+}
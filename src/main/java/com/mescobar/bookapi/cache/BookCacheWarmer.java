@@ -0,0 +1,83 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Preloads the hottest books recorded by {@link HotBookStore} once the application has started, without holding up
+ * the runner thread. Until the warm-up has finished or used up its time budget, {@link CacheWarmUpHealthIndicator}
+ * keeps the readiness probe out of service.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "book-api.cache.warm-up", name = "enabled", havingValue = "true")
+public class BookCacheWarmer implements ApplicationRunner, DisposableBean {
+
+    private final HotBookStore hotBookStore;
+    private final BookRepository bookRepository;
+    private final BookCache bookCache;
+    private final BookMapper bookMapper;
+    private final BookCacheProperties.WarmUp warmUp;
+    private final CacheWarmUpHealthIndicator healthIndicator;
+    private Disposable subscription;
+
+    public BookCacheWarmer(HotBookStore hotBookStore, BookRepository bookRepository, BookCache bookCache,
+            BookMapper bookMapper, BookCacheProperties bookCacheProperties, CacheWarmUpHealthIndicator healthIndicator) {
+        this.hotBookStore = hotBookStore;
+        this.bookRepository = bookRepository;
+        this.bookCache = bookCache;
+        this.bookMapper = bookMapper;
+        this.warmUp = bookCacheProperties.warmUp();
+        this.healthIndicator = healthIndicator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        healthIndicator.started();
+        subscription = warmUp()
+                .defaultIfEmpty(0)
+                .subscribe(warmed -> {
+                    log.info("Warmed up {} books in {} ms", warmed, (System.nanoTime() - start) / 1_000_000);
+                    healthIndicator.finished(warmed);
+                });
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    Mono<Integer> warmUp() {
+        return hotBookStore.hottest(warmUp.limit())
+                .flatMapMany(ids -> Flux.fromIterable(ids).buffer(warmUp.batchSize()))
+                .flatMap(this::load, warmUp.concurrency())
+                .take(warmUp.timeBudget())
+                .reduce(0, Integer::sum)
+                .onErrorResume(e -> {
+                    log.warn("Cache warm-up failed, starting with a cold cache", e);
+                    return Mono.just(0);
+                });
+    }
+
+    private Mono<Integer> load(List<String> ids) {
+        return bookRepository.findAllById(ids)
+                .map(bookMapper::toBookResponse)
+                .collectList()
+                .flatMap(books -> bookCache.preload(books).thenReturn(books.size()));
+    }
+}
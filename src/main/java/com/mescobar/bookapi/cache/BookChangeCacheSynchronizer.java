@@ -0,0 +1,186 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookChangesProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.ChangeCheckpoint;
+import com.mescobar.bookapi.repository.BookRepository;
+import com.mescobar.bookapi.repository.ChangeCheckpointRepository;
+import com.mongodb.MongoException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the BOOKS cache coherent with writes that bypass the API by following the change stream of the books
+ * collection. Every node follows it and drops its local copies of updated and deleted books, while a single node, the
+ * one holding the lease of the checkpoint, updates Redis for all of them: updates of books it has cached locally are
+ * refreshed in both tiers and other updates and deletes evict. Inserts only clear the negative cache of each node.
+ * The lease holder checkpoints the position in the stream after each batch, and a node resumes from that checkpoint
+ * whenever it starts or its role changes, so that a new lease holder replays what the previous one may have missed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "book-api.changes", name = "enabled", matchIfMissing = true)
+public class BookChangeCacheSynchronizer implements InitializingBean, DisposableBean {
+
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final BookRepository bookRepository;
+    private final ChangeCheckpointRepository checkpointRepository;
+    private final BookCache bookCache;
+    private final MissingBookCache missingBookCache;
+    private final BookMapper bookMapper;
+    private final BookChangesProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private Disposable subscription;
+
+    @Override
+    public void afterPropertiesSet() {
+        Duration renewal = properties.leaseDuration().dividedBy(3);
+        subscription = Flux.interval(Duration.ZERO, renewal)
+                .onBackpressureDrop()
+                .concatMap(tick -> renewLease(renewal))
+                .distinctUntilChanged()
+                .doOnNext(leader -> log.info("Following the books change stream as {}", leader ? "the lease holder" : "a replica"))
+                .switchMap(leader -> synchronize(leader)
+                        .doOnError(e -> log.warn("Books change stream failed, resubscribing", e))
+                        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                        .repeatWhen(completed -> completed.delayElements(Duration.ofSeconds(1))))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Takes or renews the lease, completing with false rather than an error when that fails, so that a node that
+     * cannot reach Mongo steps down before its lease expires elsewhere.
+     */
+    Mono<Boolean> renewLease(Duration timeout) {
+        return checkpointRepository.acquireLease(properties.checkpointId(), nodeId, properties.leaseDuration())
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Failed to renew the lease of the books change stream", e);
+                    return Mono.just(false);
+                });
+    }
+
+    Flux<Void> synchronize(boolean leader) {
+        return checkpointRepository.findById(properties.checkpointId())
+                .mapNotNull(ChangeCheckpoint::getResumeToken)
+                .map(token -> bookRepository.watch(token).onErrorResume(this::isHistoryLost, e -> restart(token, leader)))
+                .defaultIfEmpty(Flux.defer(() -> bookRepository.watch(null)))
+                .flatMapMany(changes -> changes)
+                .bufferTimeout(properties.batchSize(), properties.batchWindow())
+                .concatMap(batch -> leader
+                        ? apply(batch).then(checkpoint(batch.get(batch.size() - 1)))
+                        : Mono.fromRunnable(() -> evictLocal(batch)));
+    }
+
+    private Mono<Void> checkpoint(BookChange last) {
+        Mono<Boolean> saved = last.operation() == BookChange.Operation.INVALIDATE
+                // an invalidated stream cannot be resumed after its last event, so the next one starts from now
+                ? checkpointRepository.clearResumeToken(properties.checkpointId(), nodeId)
+                : checkpointRepository.saveResumeToken(properties.checkpointId(), nodeId, last.resumeToken());
+        return saved
+                .doOnNext(held -> {
+                    if (!held) {
+                        log.warn("Lost the lease of the books change stream, leaving the checkpoint to the new holder");
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to checkpoint the books change stream", e);
+                    return Mono.empty();
+                });
+    }
+
+    private Flux<BookChange> restart(String token, boolean leader) {
+        log.warn("Books change stream can no longer resume after {}, clearing the cache and starting over", token);
+        Mono<Void> clear = leader
+                ? checkpointRepository.clearResumeToken(properties.checkpointId(), nodeId).then(bookCache.clear())
+                : Mono.fromRunnable(bookCache::clearLocal);
+        return clear.thenMany(bookRepository.watch(null));
+    }
+
+    /**
+     * Drops the local copies of changed books on a node that does not hold the lease, which leaves Redis to the lease
+     * holder and reloads the books from there.
+     */
+    private void evictLocal(List<BookChange> batch) {
+        List<String> changed = new ArrayList<>();
+        for (BookChange change : batch) {
+            switch (change.operation()) {
+                case INVALIDATE -> {
+                    bookCache.clearLocal();
+                    return;
+                }
+                case INSERT -> missingBookCache.invalidate(change.id());
+                case UPDATE, DELETE -> changed.add(change.id());
+            }
+        }
+        log.trace("Evicting {} changed books locally", changed.size());
+        bookCache.evictLocal(changed);
+    }
+
+    private Mono<Void> apply(List<BookChange> batch) {
+        Map<String, BookChange> latest = new LinkedHashMap<>();
+        boolean invalidated = false;
+        for (BookChange change : batch) {
+            switch (change.operation()) {
+                case INVALIDATE -> invalidated = true;
+                case INSERT -> missingBookCache.invalidate(change.id());
+                case UPDATE, DELETE -> {
+                    latest.remove(change.id());
+                    latest.put(change.id(), change);
+                }
+            }
+        }
+        if (invalidated) {
+            return bookCache.clear();
+        }
+        List<BookResponse> refreshed = new ArrayList<>();
+        List<String> evicted = new ArrayList<>();
+        latest.forEach((id, change) -> {
+            if (change.operation() == BookChange.Operation.UPDATE && change.book() != null && bookCache.isCachedLocally(id)) {
+                refreshed.add(bookMapper.toBookResponse(change.book()));
+            } else {
+                evicted.add(id);
+            }
+        });
+        log.trace("Applying {} book changes: {} refreshed, {} evicted", batch.size(), refreshed.size(), evicted.size());
+        return Mono.when(bookCache.putAll(refreshed), bookCache.evictAll(evicted));
+    }
+
+    private boolean isHistoryLost(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException e
+                    && (e.getCode() == CHANGE_STREAM_HISTORY_LOST || e.getCode() == CHANGE_STREAM_FATAL_ERROR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
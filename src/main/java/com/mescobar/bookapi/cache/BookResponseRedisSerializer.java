@@ -0,0 +1,229 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+public class BookResponseRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte VERSION_1 = 0x01;
+    static final byte VERSION_2 = 0x02;
+    /**
+     * Number of leading bytes that always covers the book version of a {@link #VERSION_2} value.
+     */
+    public static final int PEEK_LENGTH = 12;
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+    private static final int ID = 1;
+    private static final int TITLE = 1 << 1;
+    private static final int AUTHOR = 1 << 2;
+    private static final int YEAR = 1 << 3;
+    private static final int BOOK_VERSION = 1 << 4;
+
+    private final RedisSerializer<Object> jsonSerializer;
+    private final RedisSerializer<Object> jdkSerializer;
+
+    public BookResponseRedisSerializer(ClassLoader classLoader) {
+        this(new GenericJackson2JsonRedisSerializer(), new JdkSerializationRedisSerializer(classLoader));
+    }
+
+    BookResponseRedisSerializer(RedisSerializer<Object> jsonSerializer, RedisSerializer<Object> jdkSerializer) {
+        this.jsonSerializer = jsonSerializer;
+        this.jdkSerializer = jdkSerializer;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof BookResponse bookResponse)) {
+            return jsonSerializer.serialize(value);
+        }
+        byte[] id = utf8(bookResponse.id());
+        byte[] title = utf8(bookResponse.title());
+        byte[] author = utf8(bookResponse.author());
+        Integer year = bookResponse.year();
+        Long version = bookResponse.version();
+        int zigZagYear = year == null ? 0 : (year << 1) ^ (year >> 31);
+        int flags = (id != null ? ID : 0) | (title != null ? TITLE : 0) | (author != null ? AUTHOR : 0)
+                | (year != null ? YEAR : 0) | (version != null ? BOOK_VERSION : 0);
+
+        Writer writer = new Writer(2 + (version != null ? varLongSize(version) : 0) + size(id) + size(title)
+                + size(author) + (year != null ? varIntSize(zigZagYear) : 0));
+        writer.writeByte(VERSION_2);
+        writer.writeByte(flags);
+        if (version != null) {
+            writer.writeVarLong(version);
+        }
+        writer.writeBytes(id);
+        writer.writeBytes(title);
+        writer.writeBytes(author);
+        if (year != null) {
+            writer.writeVarInt(zigZagYear);
+        }
+        return writer.buffer;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return switch (bytes[0]) {
+            case VERSION_1, VERSION_2 -> readBook(bytes);
+            case JDK_STREAM_MAGIC -> jdkSerializer.deserialize(bytes);
+            default -> jsonSerializer.deserialize(bytes);
+        };
+    }
+
+    /**
+     * Reads the book version from the first {@link #PEEK_LENGTH} bytes of a cached value without decoding
+     * the rest of it, or returns {@code null} when the value carries no version.
+     */
+    public static Long peekVersion(byte[] prefix) {
+        if (prefix == null || prefix.length < 2 || prefix[0] != VERSION_2 || (prefix[1] & BOOK_VERSION) == 0) {
+            return null;
+        }
+        try {
+            return new Reader(prefix, 2).readVarLong();
+        } catch (SerializationException e) {
+            return null;
+        }
+    }
+
+    private static BookResponse readBook(byte[] bytes) {
+        Reader reader = new Reader(bytes, 1);
+        int flags = reader.readByte();
+        Long version = bytes[0] == VERSION_2 && (flags & BOOK_VERSION) != 0 ? reader.readVarLong() : null;
+        String id = (flags & ID) != 0 ? reader.readString() : null;
+        String title = (flags & TITLE) != 0 ? reader.readString() : null;
+        String author = (flags & AUTHOR) != 0 ? reader.readString() : null;
+        Integer year = null;
+        if ((flags & YEAR) != 0) {
+            int zigZag = reader.readVarInt();
+            year = (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+        return new BookResponse(id, title, author, year, version);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int size(byte[] value) {
+        return value == null ? 0 : varIntSize(value.length) + value.length;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] value) {
+            if (value == null) {
+                return;
+            }
+            writeVarInt(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readByte() {
+            checkAvailable(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in cached book");
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in cached book");
+        }
+
+        String readString() {
+            int length = readVarInt();
+            checkAvailable(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private void checkAvailable(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("Truncated cached book");
+            }
+        }
+    }
+}
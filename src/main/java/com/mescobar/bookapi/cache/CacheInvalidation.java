@@ -0,0 +1,35 @@
+package com.mescobar.bookapi.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+public record CacheInvalidation(String origin, String cacheName, List<String> keys) {
+
+    private static final String SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = "\u001F";
+    private static final char KEYS = 'K';
+    private static final char CLEAR = 'C';
+
+    public static CacheInvalidation clear(String origin, String cacheName) {
+        return new CacheInvalidation(origin, cacheName, List.of());
+    }
+
+    public boolean isClear() {
+        return keys.isEmpty();
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + cacheName + SEPARATOR + (isClear() ? String.valueOf(CLEAR) : KEYS + String.join(KEY_SEPARATOR, keys));
+    }
+
+    public static CacheInvalidation decode(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cache invalidation message: " + message);
+        }
+        if (parts[2].charAt(0) == CLEAR) {
+            return clear(parts[0], parts[1]);
+        }
+        return new CacheInvalidation(parts[0], parts[1], Arrays.asList(parts[2].substring(1).split(KEY_SEPARATOR, -1)));
+    }
+}
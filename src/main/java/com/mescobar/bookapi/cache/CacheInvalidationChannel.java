@@ -0,0 +1,59 @@
+package com.mescobar.bookapi.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+@Slf4j
+public class CacheInvalidationChannel {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationChannel(ReactiveStringRedisTemplate redisTemplate,
+            ReactiveRedisMessageListenerContainer listenerContainer, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.channel = channel;
+    }
+
+    public void publishEvict(String cacheName, Collection<?> keys) {
+        if (!keys.isEmpty()) {
+            publish(new CacheInvalidation(nodeId, cacheName, keys.stream().map(Object::toString).toList()));
+        }
+    }
+
+    public void publishClear(String cacheName) {
+        publish(CacheInvalidation.clear(nodeId, cacheName));
+    }
+
+    public Flux<CacheInvalidation> listen() {
+        return listenerContainer.receive(ChannelTopic.of(channel))
+                .map(ReactiveSubscription.Message::getMessage)
+                .<CacheInvalidation>handle((message, sink) -> {
+                    try {
+                        sink.next(CacheInvalidation.decode(message));
+                    } catch (IllegalArgumentException e) {
+                        log.warn(e.getMessage());
+                    }
+                })
+                .filter(invalidation -> !nodeId.equals(invalidation.origin()))
+                .doOnError(e -> log.warn("Cache invalidation subscription on {} failed, resubscribing", channel, e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        redisTemplate.convertAndSend(channel, invalidation.encode())
+                .subscribe(null, e -> log.warn("Failed to publish cache invalidation {}", invalidation, e));
+    }
+}
@@ -0,0 +1,32 @@
+package com.mescobar.bookapi.cache;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service while {@link BookCacheWarmer} preloads the cache, and up otherwise, including when warm-up is
+ * disabled. Part of the readiness group, so that traffic waits for the warm-up without holding up startup.
+ */
+@Component
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private volatile boolean warming;
+    private volatile int warmed;
+
+    void started() {
+        warming = true;
+    }
+
+    void finished(int warmed) {
+        this.warmed = warmed;
+        warming = false;
+    }
+
+    @Override
+    public Health health() {
+        return warming
+                ? Health.outOfService().withDetail("warming", true).build()
+                : Health.up().withDetail("warmed", warmed).build();
+    }
+}
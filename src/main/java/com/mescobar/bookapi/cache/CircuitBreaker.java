@@ -0,0 +1,122 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. It opens once at least {@code minimumCalls} of the last {@code windowSize} outcomes
+ * were recorded and {@code failureRateThreshold} of them failed, rejects every call for {@code openDuration}, then
+ * lets one probe call through: closing again if it succeeds, reopening if it fails. A cancelled call records no
+ * outcome, and a cancelled probe lets the next call probe instead.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final Ticker ticker;
+    private final boolean[] failed;
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(double failureRateThreshold, int minimumCalls, int windowSize, Duration openDuration,
+            Ticker ticker) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openNanos = openDuration.toNanos();
+        this.ticker = ticker;
+        this.failed = new boolean[windowSize];
+    }
+
+    synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (ticker.read() - openedAt < openNanos) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                yield true;
+            }
+            case HALF_OPEN -> {
+                if (probing) {
+                    yield false;
+                }
+                probing = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> close();
+            case OPEN -> {
+            }
+        }
+    }
+
+    synchronized void onFailure() {
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+            }
+        }
+    }
+
+    synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = ticker.read();
+        probing = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probing = false;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
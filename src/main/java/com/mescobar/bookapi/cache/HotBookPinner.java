@@ -0,0 +1,86 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Pins the hottest books of the {@link HotBookSketch} in process so that skewed reads stop reaching Redis, where
+ * every hot id lands on the same shard. The pinned set is reloaded from Mongo every refresh interval; writes and
+ * invalidations reach pinned books in between, and a book written or evicted while the reload reads it is left as
+ * the write made it rather than pinned from a read that may predate it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "book-api.cache.pinning", name = "enabled", matchIfMissing = true)
+public class HotBookPinner implements InitializingBean, DisposableBean {
+
+    private final HotBookSketch sketch;
+    private final BookRepository bookRepository;
+    private final BookCache bookCache;
+    private final BookMapper bookMapper;
+    private final BookCacheProperties.Pinning pinning;
+    private Disposable subscription;
+
+    public HotBookPinner(HotBookSketch sketch, BookRepository bookRepository, BookCache bookCache,
+            BookMapper bookMapper, BookCacheProperties bookCacheProperties) {
+        this.sketch = sketch;
+        this.bookRepository = bookRepository;
+        this.bookCache = bookCache;
+        this.bookMapper = bookMapper;
+        this.pinning = bookCacheProperties.pinning();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = Flux.interval(pinning.refreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    Mono<Integer> refresh() {
+        sketch.trim();
+        long threshold = (long) Math.ceil(pinning.minShare() * sketch.total());
+        List<String> hot = sketch.top(pinning.capacity()).entrySet().stream()
+                .filter(entry -> entry.getValue() >= Math.max(threshold, 1))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (hot.isEmpty()) {
+            bookCache.pin(Map.of(), Map.of());
+            return Mono.just(0);
+        }
+        Map<Object, Long> generations = bookCache.generations(hot);
+        return bookRepository.findAllById(hot)
+                .map(bookMapper::toBookResponse)
+                .collectMap(BookResponse::id, Function.identity())
+                .map(books -> {
+                    bookCache.pin(books, generations);
+                    return books.size();
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to refresh {} pinned books, keeping the current ones", hot.size(), e);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,146 @@
+package com.mescobar.bookapi.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate access frequencies of book ids: a count-min sketch fed with a random sample of reads, plus a bounded
+ * set of candidate ids whose estimates are the heaviest seen so far. Recording a read never trims the candidates, it
+ * only stops admitting new ones once they are full; {@link #trim()} and {@link #decay()} make room again and are left
+ * to the background tasks that read the sketch.
+ */
+public class HotBookSketch {
+
+    private static final int DEPTH = 4;
+
+    private final AtomicLongArray[] rows = new AtomicLongArray[DEPTH];
+    private final int mask;
+    private final int capacity;
+    private final double sampleRate;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    public HotBookSketch(int capacity, double sampleRate) {
+        if (capacity <= 0 || sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Invalid hot book sketch capacity %d or sample rate %s".formatted(capacity, sampleRate));
+        }
+        int width = Integer.highestOneBit(Math.max(capacity, 64) * 8 - 1) << 1;
+        for (int i = 0; i < DEPTH; i++) {
+            rows[i] = new AtomicLongArray(width);
+        }
+        this.mask = width - 1;
+        this.capacity = capacity;
+        this.sampleRate = sampleRate;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public double sampleRate() {
+        return sampleRate;
+    }
+
+    public void record(String id) {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        int hash = spread(id.hashCode());
+        int step = spread(hash) | 1;
+        for (int i = 0; i < DEPTH; i++) {
+            rows[i].incrementAndGet((hash + i * step) & mask);
+        }
+        // hot ids are nearly always candidates already, and a lookup does not contend like an insert
+        if (!candidates.contains(id) && candidates.size() < 2 * capacity) {
+            candidates.add(id);
+        }
+    }
+
+    public long estimate(String id) {
+        int hash = spread(id.hashCode());
+        int step = spread(hash) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            estimate = Math.min(estimate, rows[i].get((hash + i * step) & mask));
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the sampled count of every recorded id, which any single row of the sketch sums to.
+     */
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < rows[0].length(); i++) {
+            total += rows[0].get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns up to {@code limit} of the hottest ids with their estimated sampled counts, hottest first.
+     */
+    public Map<String, Long> top(int limit) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        candidates.stream()
+                .map(id -> Map.entry(id, estimate(id)))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    /**
+     * Halves every counter so that ids which stopped being read cool down.
+     */
+    public void decay() {
+        for (AtomicLongArray row : rows) {
+            for (int i = 0; i < row.length(); i++) {
+                row.updateAndGet(i, count -> count >>> 1);
+            }
+        }
+        candidates.removeIf(id -> estimate(id) == 0);
+        trim();
+    }
+
+    /**
+     * Drops all but the {@code capacity} hottest candidates, estimating each once and keeping the hottest in a
+     * bounded heap, so that new ids can be admitted again.
+     */
+    public void trim() {
+        if (candidates.size() <= capacity || !trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            PriorityQueue<Map.Entry<String, Long>> hottest = new PriorityQueue<>(capacity + 1, Map.Entry.comparingByValue());
+            List<String> coldest = new ArrayList<>();
+            for (String id : candidates) {
+                hottest.add(Map.entry(id, estimate(id)));
+                if (hottest.size() > capacity) {
+                    coldest.add(hottest.poll().getKey());
+                }
+            }
+            coldest.forEach(candidates::remove);
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically persists the hottest ids of the {@link HotBookSketch} so that a freshly started node knows which books
+ * to warm up. Each node replaces a sorted set of its own with its estimated reads, and registers it in a set of nodes
+ * scored by when it last did; reading sums the sets of the nodes seen within the time to live with
+ * {@code ZUNIONSTORE}, so that nodes add up their reads instead of overwriting each other's counts. Every key shares
+ * the hash tag of the configured key, since a Redis Cluster only unions keys of one slot.
+ */
+@Slf4j
+@Component
+public class HotBookStore implements InitializingBean, DisposableBean {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final HotBookSketch sketch;
+    private final BookCacheProperties.HotSet hotSet;
+    private final String key;
+    private final String nodesKey;
+    private final String nodeKey;
+    private Disposable subscription;
+
+    public HotBookStore(ReactiveStringRedisTemplate redisTemplate, HotBookSketch sketch,
+            BookCacheProperties bookCacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.sketch = sketch;
+        this.hotSet = bookCacheProperties.hotSet();
+        this.key = hashTagged(hotSet.key());
+        this.nodesKey = key + ":nodes";
+        this.nodeKey = key + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Wraps {@code key} in a hash tag unless it already holds one.
+     */
+    static String hashTagged(String key) {
+        int open = key.indexOf('{');
+        int close = open < 0 ? -1 : key.indexOf('}', open + 1);
+        return close > open + 1 ? key : "{" + key + "}";
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = Flux.interval(hotSet.persistInterval())
+                .concatMap(tick -> persist())
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Merges the hot books of every live node into the shared sorted set and returns up to {@code limit} of them,
+     * hottest first.
+     */
+    public Mono<List<String>> hottest(int limit) {
+        ReactiveZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        double since = System.currentTimeMillis() - hotSet.timeToLive().toMillis();
+        return zSet.rangeByScore(nodesKey, Range.rightUnbounded(Range.Bound.inclusive(since)))
+                .collectList()
+                .flatMap(nodes -> nodes.isEmpty()
+                        ? Mono.just(List.<String>of())
+                        : zSet.unionAndStore(nodes.get(0), nodes.subList(1, nodes.size()), key)
+                                .then(redisTemplate.expire(key, hotSet.timeToLive()))
+                                .then(zSet.reverseRange(key, Range.closed(0L, (long) limit - 1)).collectList()));
+    }
+
+    Mono<Void> persist() {
+        Map<String, Long> top = sketch.top(Math.min(sketch.capacity(), hotSet.capacity()));
+        sketch.decay();
+        if (top.isEmpty()) {
+            return Mono.empty();
+        }
+        // scaled back to reads, so that nodes sampling at different rates add up
+        Set<TypedTuple<String>> tuples = top.entrySet().stream()
+                .map(entry -> new DefaultTypedTuple<>(entry.getKey(), entry.getValue() / sketch.sampleRate()))
+                .collect(Collectors.toSet());
+        long now = System.currentTimeMillis();
+        ReactiveZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        return redisTemplate.delete(nodeKey)
+                .then(zSet.addAll(nodeKey, tuples))
+                .then(redisTemplate.expire(nodeKey, hotSet.timeToLive()))
+                .then(zSet.add(nodesKey, nodeKey, now))
+                .then(zSet.removeRangeByScore(nodesKey, Range.closed(0.0, (double) now - hotSet.timeToLive().toMillis())))
+                .then(redisTemplate.expire(nodesKey, hotSet.timeToLive()))
+                .doOnSuccess(ignored -> log.debug("Persisted {} hot books", top.size()))
+                .onErrorResume(e -> {
+                    log.warn("Failed to persist {} hot books", top.size(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
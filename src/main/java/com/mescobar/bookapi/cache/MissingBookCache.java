@@ -0,0 +1,43 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.BookCacheProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+@Component
+public class MissingBookCache {
+
+    private final Cache<String, Boolean> missing;
+
+    public MissingBookCache(BookCacheProperties bookCacheProperties, MeterRegistry meterRegistry) {
+        BookCacheProperties.Negative negative = bookCacheProperties.negative();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(negative.maximumSize())
+                .expireAfterWrite(negative.timeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, CachingConfig.BOOKS, "tier", "negative");
+    }
+
+    public boolean isMissing(String id) {
+        return missing.getIfPresent(id) != null;
+    }
+
+    public void markMissing(String id) {
+        missing.put(id, Boolean.TRUE);
+    }
+
+    public void invalidate(String id) {
+        missing.invalidate(id);
+    }
+
+    public void invalidateAll(Collection<String> ids) {
+        missing.invalidateAll(ids);
+    }
+}
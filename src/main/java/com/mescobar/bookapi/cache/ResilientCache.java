@@ -0,0 +1,326 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mescobar.bookapi.config.BookCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Fails open around a remote cache. Reads that fail, or do not complete within the timeout, are treated as misses,
+ * and once the circuit breaker opens the remote cache is bypassed entirely, so callers fall through to the loader
+ * instead of waiting on an unhealthy Redis. Puts and evictions are queued and applied in order off the calling
+ * thread; they are dropped while the circuit is open or the queue is full.
+ */
+@Slf4j
+public class ResilientCache implements Cache {
+
+    enum Operation {
+        READ, WRITE
+    }
+
+    enum Reason {
+        OPEN, TIMEOUT, ERROR
+    }
+
+    private final Cache delegate;
+    private final Duration timeout;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor writeBehind;
+    private final Map<Operation, Map<Reason, Counter>> bypasses = new EnumMap<>(Operation.class);
+    private final Counter droppedWrites;
+
+    public ResilientCache(Cache delegate, BookCacheProperties.Resilience resilience, Executor writeBehind,
+            MeterRegistry meterRegistry) {
+        this(delegate, resilience, writeBehind, meterRegistry, Ticker.systemTicker());
+    }
+
+    ResilientCache(Cache delegate, BookCacheProperties.Resilience resilience, Executor writeBehind,
+            MeterRegistry meterRegistry, Ticker ticker) {
+        this.delegate = delegate;
+        this.timeout = resilience.timeout();
+        this.circuitBreaker = new CircuitBreaker(resilience.failureRateThreshold(), resilience.minimumCalls(),
+                resilience.slidingWindowSize(), resilience.openDuration(), ticker);
+        this.writeBehind = writeBehind;
+        for (Operation operation : Operation.values()) {
+            Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+            for (Reason reason : Reason.values()) {
+                counters.put(reason, Counter.builder("cache.bypasses")
+                        .tag("cache", getName())
+                        .tag("tier", "l2")
+                        .tag("operation", operation.name().toLowerCase())
+                        .tag("reason", reason.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            bypasses.put(operation, counters);
+        }
+        this.droppedWrites = Counter.builder("cache.writes.dropped")
+                .tag("cache", getName())
+                .tag("tier", "l2")
+                .register(meterRegistry);
+        Gauge.builder("cache.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("0 closed, 1 open, 2 half open")
+                .tag("cache", getName())
+                .tag("tier", "l2")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache behind {@code cache} when it is guarded by a {@code ResilientCache}, or {@code cache} itself.
+     */
+    public static Cache unwrap(Cache cache) {
+        return cache instanceof ResilientCache resilientCache ? resilientCache.delegate : cache;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    /**
+     * Synchronous reads are bounded by the client's own command timeout rather than {@code timeout}.
+     */
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!tryAcquire(Operation.READ)) {
+            return null;
+        }
+        try {
+            ValueWrapper wrapper = delegate.get(key);
+            onSuccess();
+            return wrapper;
+        } catch (RuntimeException e) {
+            onFailure(Operation.READ, e);
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [%s]: %s".formatted(type.getName(), value));
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        if (!tryAcquire(Operation.READ)) {
+            return null;
+        }
+        CompletableFuture<?> lookup;
+        try {
+            lookup = delegate.retrieve(key);
+        } catch (RuntimeException e) {
+            onFailure(Operation.READ, e);
+            return null;
+        }
+        if (lookup == null) {
+            onSuccess();
+            return null;
+        }
+        return lookup.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).handle((result, ex) -> {
+            if (ex != null) {
+                onFailure(Operation.READ, ex);
+                return null;
+            }
+            onSuccess();
+            return result;
+        });
+    }
+
+    /**
+     * Looks the key up under the timeout and loads on a miss, so the loader's own latency does not count against
+     * Redis. Loaded values are written back behind the caller.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        CompletableFuture<?> lookup = retrieve(key);
+        if (lookup == null) {
+            return load(key, valueLoader);
+        }
+        return lookup.thenCompose(result -> {
+            Object value = result instanceof ValueWrapper wrapper ? wrapper.get() : result;
+            return value != null ? CompletableFuture.completedFuture((T) value) : load(key, valueLoader);
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        writeBehind(() -> delegate.put(key, value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        writeBehind(() -> delegate.evict(key));
+    }
+
+    @Override
+    public void clear() {
+        if (!tryAcquire(Operation.WRITE)) {
+            return;
+        }
+        try {
+            delegate.clear();
+            onSuccess();
+        } catch (RuntimeException e) {
+            onFailure(Operation.WRITE, e);
+        }
+    }
+
+    /**
+     * Runs a direct read against the remote store under the same timeout and circuit breaker, completing empty when
+     * it is bypassed or fails.
+     */
+    public <T> Mono<T> read(Mono<T> call) {
+        return guard(Operation.READ, call.timeout(timeout));
+    }
+
+    /**
+     * Runs a direct write against the remote store under the circuit breaker, completing with whether it was applied:
+     * false when it was bypassed or failed. Batched writes are left to the client's command timeout.
+     */
+    public Mono<Boolean> write(Mono<Void> call) {
+        return guard(Operation.WRITE, call.thenReturn(true)).defaultIfEmpty(false);
+    }
+
+    /**
+     * Runs a direct invalidation against the remote store under the timeout even while the circuit is open, since a
+     * skipped invalidation leaves a stale value to be served once the store is back. Its outcome is counted but does
+     * not move the circuit breaker, which keeps probing with regular calls. Completes with whether it was applied.
+     */
+    public Mono<Boolean> invalidate(Mono<Void> call) {
+        return call.timeout(timeout)
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    countBypass(Operation.WRITE, e);
+                    return Mono.just(false);
+                });
+    }
+
+    private <T> Mono<T> guard(Operation operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire(operation)) {
+                return Mono.empty();
+            }
+            return call
+                    .doOnSuccess(ignored -> onSuccess())
+                    // a client that goes away must not leave a half-open probe taken for good
+                    .doOnCancel(circuitBreaker::onCancel)
+                    .onErrorResume(e -> {
+                        onFailure(operation, e);
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    private <T> CompletableFuture<T> load(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return valueLoader.get().thenApply(loaded -> {
+            if (loaded != null) {
+                put(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    private void writeBehind(Runnable write) {
+        try {
+            writeBehind.execute(() -> {
+                if (!tryAcquire(Operation.WRITE)) {
+                    return;
+                }
+                try {
+                    write.run();
+                    onSuccess();
+                } catch (RuntimeException e) {
+                    onFailure(Operation.WRITE, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            droppedWrites.increment();
+        }
+    }
+
+    private boolean tryAcquire(Operation operation) {
+        if (circuitBreaker.tryAcquire()) {
+            return true;
+        }
+        bypasses.get(operation).get(Reason.OPEN).increment();
+        return false;
+    }
+
+    private void onSuccess() {
+        CircuitBreaker.State before = circuitBreaker.state();
+        circuitBreaker.onSuccess();
+        if (before == CircuitBreaker.State.HALF_OPEN && circuitBreaker.state() == CircuitBreaker.State.CLOSED) {
+            log.info("Remote cache {} recovered, no longer bypassing it", getName());
+        }
+    }
+
+    private void onFailure(Operation operation, Throwable failure) {
+        Throwable cause = countBypass(operation, failure);
+        CircuitBreaker.State before = circuitBreaker.state();
+        circuitBreaker.onFailure();
+        if (before != CircuitBreaker.State.OPEN && circuitBreaker.state() == CircuitBreaker.State.OPEN) {
+            log.warn("Bypassing remote cache {} after repeated failures", getName(), cause);
+        } else {
+            log.debug("Remote cache {} {} failed", getName(), operation.name().toLowerCase(), cause);
+        }
+    }
+
+    private Throwable countBypass(Operation operation, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        boolean timedOut = cause instanceof TimeoutException;
+        bypasses.get(operation).get(timedOut ? Reason.TIMEOUT : Reason.ERROR).increment();
+        return cause;
+    }
+}
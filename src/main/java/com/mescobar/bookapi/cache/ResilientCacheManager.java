@@ -0,0 +1,68 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards every cache of a remote cache manager with a {@link ResilientCache}. Writes of all caches share one
+ * bounded queue drained by a single thread, which keeps the puts and evictions of a key in order.
+ */
+public class ResilientCacheManager implements CacheManager, DisposableBean {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final CacheManager remoteCacheManager;
+    private final BookCacheProperties.Resilience resilience;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor writeBehind;
+    private final Map<String, ResilientCache> caches = new ConcurrentHashMap<>();
+
+    public ResilientCacheManager(CacheManager remoteCacheManager, BookCacheProperties.Resilience resilience,
+            MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.resilience = resilience;
+        this.meterRegistry = meterRegistry;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-write-behind-");
+        threadFactory.setDaemon(true);
+        this.writeBehind = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(resilience.writeBehindCapacity()), threadFactory);
+        Gauge.builder("cache.writes.queued", writeBehind, executor -> executor.getQueue().size())
+                .tag("tier", "l2")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, ignored -> new ResilientCache(remote, resilience, writeBehind, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Gives queued writes a few seconds to reach the remote cache.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        writeBehind.shutdown();
+        writeBehind.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,458 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * A Caffeine tier in front of a remote cache, with a small set of pinned entries in front of both: the hottest keys,
+ * replaced wholesale by {@link #pin(Map)} and kept out of the local tier's eviction and expiry. Writes and
+ * invalidations reach pinned entries exactly as they reach the local tier.
+ * <p>
+ * Every write or invalidation of a key moves its generation forward. A local fill from a remote read is undone when
+ * the generation moved while the read was in flight, so a value read before an invalidation cannot outlive it.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final String TIER_TAG = "tier";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteEvictions;
+    private final Counter coalescedLoads;
+    private final Counter earlyRefreshes;
+    private final Counter pinnedHits;
+    private final Timer remoteLatency;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Object, Object> pinned = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Freshness> freshness;
+    private final Duration timeToLive;
+    private final double earlyRefreshBeta;
+    private final Ticker ticker;
+    private final Executor refreshExecutor;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+
+    public TwoLevelCache(com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote,
+            CacheInvalidationChannel invalidationChannel, MeterRegistry meterRegistry) {
+        this(local, remote, invalidationChannel, meterRegistry, Duration.ZERO, 0, Runnable::run);
+    }
+
+    /**
+     * Early refreshes write the reloaded value back to the remote cache on {@code refreshExecutor}, which should be
+     * bounded and dedicated to them because the remote write may block.
+     */
+    public TwoLevelCache(com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote,
+            CacheInvalidationChannel invalidationChannel, MeterRegistry meterRegistry, Duration timeToLive,
+            double earlyRefreshBeta, Executor refreshExecutor) {
+        this(local, remote, invalidationChannel, meterRegistry, timeToLive, earlyRefreshBeta, refreshExecutor,
+                Ticker.systemTicker());
+    }
+
+    TwoLevelCache(com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote,
+            CacheInvalidationChannel invalidationChannel, MeterRegistry meterRegistry, Duration timeToLive,
+            double earlyRefreshBeta, Executor refreshExecutor, Ticker ticker) {
+        this.local = local;
+        this.remote = remote;
+        this.invalidationChannel = invalidationChannel;
+        this.timeToLive = timeToLive;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.ticker = ticker;
+        this.refreshExecutor = refreshExecutor;
+        this.freshness = Caffeine.newBuilder()
+                .maximumSize(local.policy().eviction().map(eviction -> eviction.getMaximum()).orElse(10_000L))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, remote.getName(), TIER_TAG, "l1");
+        this.remoteHits = remoteCounter(meterRegistry, "cache.gets", "result", "hit");
+        this.remoteMisses = remoteCounter(meterRegistry, "cache.gets", "result", "miss");
+        this.remoteEvictions = remoteCounter(meterRegistry, "cache.evictions");
+        this.coalescedLoads = remoteCounter(meterRegistry, "cache.loads.coalesced");
+        this.earlyRefreshes = remoteCounter(meterRegistry, "cache.refreshes.early");
+        this.remoteLatency = Timer.builder("cache.gets.latency")
+                .tag("cache", getName())
+                .tag(TIER_TAG, "l2")
+                .register(meterRegistry);
+        this.pinnedHits = Counter.builder("cache.gets")
+                .tag("result", "hit")
+                .tag("cache", getName())
+                .tag(TIER_TAG, "pinned")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", pinned, Map::size)
+                .tag("cache", getName())
+                .tag(TIER_TAG, "pinned")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getLocalCache() {
+        return local;
+    }
+
+    public Cache getRemoteCache() {
+        return remote;
+    }
+
+    /**
+     * Returns the value held in process, pinned or in the local tier, without going to the remote tier.
+     */
+    public Object getLocal(Object key) {
+        Object value = pinned.get(key);
+        if (value != null) {
+            pinnedHits.increment();
+            return value;
+        }
+        return local.getIfPresent(key);
+    }
+
+    /**
+     * Replaces the pinned entries with {@code entries}.
+     */
+    public void pin(Map<?, ?> entries) {
+        pinned.keySet().retainAll(entries.keySet());
+        pinned.putAll(entries);
+    }
+
+    /**
+     * Returns the current generation of each of {@code keys}, to be taken before loading the values to
+     * {@link #pin(Map, Map)}.
+     */
+    public Map<Object, Long> generations(Collection<?> keys) {
+        Map<Object, Long> generations = new HashMap<>();
+        keys.forEach(key -> generations.put(key, generation(key)));
+        return generations;
+    }
+
+    /**
+     * Replaces the pinned entries with {@code entries}, leaving out the keys written or invalidated since their
+     * {@code generations} were taken: a write already reached a pinned value, and a value loaded before an eviction
+     * must not outlive it. The next pin picks those keys up again.
+     */
+    public void pin(Map<?, ?> entries, Map<?, Long> generations) {
+        pinned.keySet().retainAll(entries.keySet());
+        entries.forEach((key, value) -> {
+            Long generation = generations.get(key);
+            if (generation != null && generation(key) == generation) {
+                pinned.put(key, value);
+                // checked after the put, like a local fill, so a racing invalidation either sees it or undoes it here
+                if (generation(key) != generation) {
+                    pinned.remove(key, value);
+                }
+            }
+        });
+    }
+
+    public Set<Object> getPinnedKeys() {
+        return Collections.unmodifiableSet(pinned.keySet());
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = getLocal(key);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        long generation = generation(key);
+        long start = ticker.read();
+        ValueWrapper wrapper = remote.get(key);
+        remoteLatency.record(ticker.read() - start, TimeUnit.NANOSECONDS);
+        return recordRemoteLookup(key, wrapper, generation);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [%s]: %s".formatted(type.getName(), value));
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = pinned.get(key);
+        if (value != null) {
+            pinnedHits.increment();
+            return (T) value;
+        }
+        long generation = generation(key);
+        Object loaded = local.get(key, k -> remote.get(k, valueLoader));
+        discardIfInvalidated(key, loaded, generation);
+        return (T) loaded;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        Object value = getLocal(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        long generation = generation(key);
+        long start = ticker.read();
+        CompletableFuture<?> future = remote.retrieve(key);
+        if (future == null) {
+            remoteMisses.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        return future.whenComplete((result, ex) -> remoteLatency.record(ticker.read() - start, TimeUnit.NANOSECONDS))
+                .thenApply(result -> recordRemoteLookup(key,
+                result == null || result instanceof ValueWrapper ? (ValueWrapper) result : new SimpleValueWrapper(result),
+                generation));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        Object pinnedValue = pinned.get(key);
+        if (pinnedValue != null) {
+            pinnedHits.increment();
+            return CompletableFuture.completedFuture((T) pinnedValue);
+        }
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            refreshIfDue(key, valueLoader);
+            return CompletableFuture.completedFuture((T) value);
+        }
+        return (CompletableFuture<T>) coalesce(key, () -> {
+            long generation = generation(key);
+            AtomicBoolean loaderInvoked = new AtomicBoolean();
+            return remote.retrieve(key, () -> {
+                loaderInvoked.set(true);
+                return timedLoad(key, valueLoader);
+            }).thenApply(loaded -> {
+                if (loaderInvoked.get()) {
+                    remoteMisses.increment();
+                } else {
+                    remoteHits.increment();
+                    refreshIfDue(key, valueLoader);
+                }
+                if (loaded != null) {
+                    putLocalIfCurrent(key, loaded, generation);
+                }
+                return loaded;
+            });
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        invalidated(key);
+        if (value != null) {
+            local.put(key, value);
+        } else {
+            local.invalidate(key);
+        }
+        pinned.computeIfPresent(key, (k, current) -> value);
+        freshness.invalidate(key);
+        invalidationChannel.publishEvict(getName(), List.of(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        remoteEvictions.increment();
+        invalidated(key);
+        local.invalidate(key);
+        pinned.remove(key);
+        freshness.invalidate(key);
+        invalidationChannel.publishEvict(getName(), List.of(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clears.incrementAndGet();
+        local.invalidateAll();
+        pinned.clear();
+        freshness.invalidateAll();
+        invalidationChannel.publishClear(getName());
+    }
+
+    public void putLocal(Object key, Object value) {
+        invalidated(key);
+        local.put(key, value);
+        pinned.computeIfPresent(key, (k, current) -> value);
+    }
+
+    public void evictLocal(Object key) {
+        invalidated(key);
+        local.invalidate(key);
+        pinned.remove(key);
+        freshness.invalidate(key);
+    }
+
+    public void clearLocal() {
+        clears.incrementAndGet();
+        local.invalidateAll();
+        pinned.clear();
+        freshness.invalidateAll();
+    }
+
+    private CompletableFuture<?> coalesce(Object key, Supplier<CompletableFuture<?>> loader) {
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return existing.copy();
+        }
+        CompletableFuture<?> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException ex) {
+            load = CompletableFuture.failedFuture(ex);
+        }
+        load.whenComplete((loaded, ex) -> {
+            inFlight.remove(key, promise);
+            if (ex != null) {
+                promise.completeExceptionally(ex);
+            } else {
+                promise.complete(loaded);
+            }
+        });
+        return promise.copy();
+    }
+
+    private <T> CompletableFuture<T> timedLoad(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        long start = ticker.read();
+        return valueLoader.get().thenApply(loaded -> {
+            if (loaded != null && isEarlyRefreshEnabled()) {
+                long now = ticker.read();
+                freshness.put(key, new Freshness(now - start, now + timeToLive.toNanos()));
+            }
+            return loaded;
+        });
+    }
+
+    private <T> void refreshIfDue(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        Freshness entry = freshness.getIfPresent(key);
+        if (entry == null || !entry.isDue(ticker.read(), earlyRefreshBeta) || inFlight.containsKey(key)) {
+            return;
+        }
+        earlyRefreshes.increment();
+        long generation = generation(key);
+        coalesce(key, () -> timedLoad(key, valueLoader).thenCompose(loaded -> writeBack(key, loaded, generation)));
+    }
+
+    /**
+     * Writes a refreshed value to both tiers unless the key was written or invalidated since the refresh started, in
+     * which case the refreshed value may already be stale. A refresh the executor has no room for is dropped.
+     */
+    private <T> CompletableFuture<T> writeBack(Object key, T loaded, long generation) {
+        if (loaded == null || generation(key) != generation) {
+            return CompletableFuture.completedFuture(loaded);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (generation(key) == generation) {
+                    remote.put(key, loaded);
+                    putLocalIfCurrent(key, loaded, generation);
+                    pinned.computeIfPresent(key, (k, current) -> loaded);
+                    invalidationChannel.publishEvict(getName(), List.of(key));
+                }
+                return loaded;
+            }, refreshExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(loaded);
+        }
+    }
+
+    private long generation(Object key) {
+        return generations.get(stripe(key)) + clears.get();
+    }
+
+    private void invalidated(Object key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Fills the local tier with a value read from the remote tier when the read started at {@code generation}. The
+     * generation is checked after the put, so an invalidation racing with it either sees the value or undoes it here.
+     */
+    private void putLocalIfCurrent(Object key, Object value, long generation) {
+        local.put(key, value);
+        discardIfInvalidated(key, value, generation);
+    }
+
+    private void discardIfInvalidated(Object key, Object value, long generation) {
+        if (value != null && generation(key) != generation) {
+            local.asMap().remove(key, value);
+        }
+    }
+
+    private boolean isEarlyRefreshEnabled() {
+        return earlyRefreshBeta > 0 && !timeToLive.isZero() && !timeToLive.isNegative();
+    }
+
+    private ValueWrapper recordRemoteLookup(Object key, ValueWrapper wrapper, long generation) {
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (wrapper.get() != null) {
+            putLocalIfCurrent(key, wrapper.get(), generation);
+        }
+        return wrapper;
+    }
+
+    private record Freshness(long loadNanos, long expiresAt) {
+
+        boolean isDue(long now, double beta) {
+            return now - loadNanos * beta * Math.log(1 - ThreadLocalRandom.current().nextDouble()) >= expiresAt;
+        }
+    }
+
+    private Counter remoteCounter(MeterRegistry meterRegistry, String name, String... tags) {
+        return Counter.builder(name)
+                .tags(tags)
+                .tag("cache", getName())
+                .tag(TIER_TAG, "l2")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds a {@link TwoLevelCache} in front of each cache of a remote cache manager and applies the invalidations other
+ * nodes publish. Early refreshes of all caches write back on one small pool of their own, so a slow remote write
+ * neither blocks the caller nor the shared common pool; refreshes it has no room for are skipped.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, InitializingBean, DisposableBean {
+
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+    private final CacheManager remoteCacheManager;
+    private final Supplier<Caffeine<Object, Object>> localCacheBuilder;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final MeterRegistry meterRegistry;
+    private final double earlyRefreshBeta;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor;
+    private Disposable invalidationSubscription;
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, Supplier<Caffeine<Object, Object>> localCacheBuilder,
+            CacheInvalidationChannel invalidationChannel, MeterRegistry meterRegistry, double earlyRefreshBeta) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localCacheBuilder = localCacheBuilder;
+        this.invalidationChannel = invalidationChannel;
+        this.meterRegistry = meterRegistry;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        this.refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), threadFactory);
+    }
+
+    @Override
+    public TwoLevelCache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        invalidationSubscription = invalidationChannel.listen().subscribe(this::apply);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+        refreshExecutor.shutdownNow();
+        if (remoteCacheManager instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    private void apply(CacheInvalidation invalidation) {
+        TwoLevelCache cache = caches.get(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        log.trace("Applying {}", invalidation);
+        if (invalidation.isClear()) {
+            cache.clearLocal();
+        } else {
+            invalidation.keys().forEach(cache::evictLocal);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalArgumentException("No remote cache named " + name);
+        }
+        return new TwoLevelCache(localCacheBuilder.get().recordStats().build(), remote, invalidationChannel, meterRegistry,
+                timeToLive(remote), earlyRefreshBeta, refreshExecutor);
+    }
+
+    private static Duration timeToLive(Cache remote) {
+        if (ResilientCache.unwrap(remote) instanceof RedisCache redisCache) {
+            return redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(remote.getName(), null);
+        }
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+
+/**
+ * Stamps {@code Book.lastModified} when a book is inserted or saved. Partial updates stamp it themselves, since
+ * auditing only sees whole entities.
+ */
+@Configuration
+@EnableReactiveMongoAuditing
+public class AuditingConfig {
+
+    @Configuration
+    @Profile("blocking")
+    @EnableMongoAuditing
+    static class BlockingAuditingConfig {
+    }
+}
@@ -0,0 +1,32 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@Profile("blocking")
+public class BlockingConfig {
+
+    public static final String BOOK_LOAD_SCHEDULER = "bookLoadScheduler";
+
+    /**
+     * Cache misses of the blocking controller are loaded here rather than on the application task executor, whose
+     * threads wait for the load and could otherwise all end up waiting for each other.
+     */
+    @Bean(name = BOOK_LOAD_SCHEDULER, destroyMethod = "dispose")
+    public Scheduler bookLoadScheduler(BookBlockingProperties properties) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("book-load-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.loadThreads(), properties.loadThreads(), 0,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.loadQueueCapacity()), threadFactory);
+        return Schedulers.fromExecutorService(executor, "book-load");
+    }
+}
@@ -0,0 +1,12 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Sizing of the pool the blocking profile loads missed books on: {@code loadThreads} threads behind a queue of
+ * {@code loadQueueCapacity} loads, past which a read is answered with 503.
+ */
+@ConfigurationProperties(prefix = "book-api.blocking")
+public record BookBlockingProperties(@DefaultValue("64") int loadThreads, @DefaultValue("1000") int loadQueueCapacity) {
+}
@@ -0,0 +1,8 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "book-api.bulk")
+public record BookBulkProperties(@DefaultValue("500") int batchSize) {
+}
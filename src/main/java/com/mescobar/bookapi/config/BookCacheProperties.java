@@ -0,0 +1,76 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "book-api.cache")
+public record BookCacheProperties(
+        @DefaultValue Local local,
+        @DefaultValue Negative negative,
+        @DefaultValue("book-api:cache-invalidation") String invalidationChannel,
+        @DefaultValue("binary") Serializer serializer,
+        @DefaultValue("1.0") double earlyRefreshBeta,
+        @DefaultValue HotSet hotSet,
+        @DefaultValue WarmUp warmUp,
+        @DefaultValue Resilience resilience,
+        @DefaultValue Pinning pinning) {
+
+    public enum Serializer {
+        BINARY, JSON, JDK
+    }
+
+    public record Local(
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration expireAfterWrite) {
+    }
+
+    public record Negative(
+            @DefaultValue("100000") long maximumSize,
+            @DefaultValue("30s") Duration timeToLive) {
+    }
+
+    public record HotSet(
+            @DefaultValue("10000") int capacity,
+            @DefaultValue("0.1") double sampleRate,
+            @DefaultValue("1m") Duration persistInterval,
+            @DefaultValue("book-api:hot-books") String key,
+            @DefaultValue("1d") Duration timeToLive) {
+    }
+
+    public record WarmUp(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("10000") int limit,
+            @DefaultValue("500") int batchSize,
+            @DefaultValue("4") int concurrency,
+            @DefaultValue("30s") Duration timeBudget) {
+    }
+
+    /**
+     * Guards the Redis tier: reads give up after {@code timeout}, and once {@code failureRateThreshold} of the last
+     * {@code slidingWindowSize} calls (at least {@code minimumCalls}) failed, Redis is bypassed for
+     * {@code openDuration} before a single probe call is let through. Writes are queued, up to
+     * {@code writeBehindCapacity}, and applied in order off the request path.
+     */
+    public record Resilience(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("50ms") Duration timeout,
+            @DefaultValue("0.5") double failureRateThreshold,
+            @DefaultValue("20") int minimumCalls,
+            @DefaultValue("100") int slidingWindowSize,
+            @DefaultValue("10s") Duration openDuration,
+            @DefaultValue("10000") int writeBehindCapacity) {
+    }
+
+    /**
+     * Every {@code refreshInterval}, up to {@code capacity} of the hottest ids that each take at least
+     * {@code minShare} of the sampled reads are reloaded from Mongo and pinned in process, in front of the local tier.
+     */
+    public record Pinning(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("256") int capacity,
+            @DefaultValue("1s") Duration refreshInterval,
+            @DefaultValue("0.001") double minShare) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Following the books change stream: every node drops its local copies of changed books, and the node holding the
+ * lease of checkpoint {@code checkpointId} also updates Redis and moves the checkpoint. The lease is renewed every
+ * third of {@code leaseDuration}; another node takes over once it expires.
+ */
+@ConfigurationProperties(prefix = "book-api.changes")
+public record BookChangesProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("book-cache") String checkpointId,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("100ms") Duration batchWindow,
+        @DefaultValue("30s") Duration leaseDuration) {
+}
@@ -0,0 +1,41 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Pool, timeout and queueing limits of the Mongo and Redis clients. Redis pooling and the command timeout are Boot's
+ * own {@code spring.data.redis.*} settings; this section covers what Boot does not expose.
+ */
+@ConfigurationProperties(prefix = "book-api.clients")
+public record BookClientProperties(
+        @DefaultValue Mongo mongo,
+        @DefaultValue Redis redis) {
+
+    /**
+     * The driver has no bound on the number of waiting operations, only on how long each one waits for a connection:
+     * {@code waitQueueTimeout}.
+     */
+    public record Mongo(
+            @DefaultValue("0") int minPoolSize,
+            @DefaultValue("100") int maxPoolSize,
+            @DefaultValue("2") int maxConnecting,
+            @DefaultValue("2s") Duration waitQueueTimeout,
+            @DefaultValue("5m") Duration maxConnectionIdleTime,
+            @DefaultValue("5s") Duration connectTimeout,
+            @DefaultValue("10s") Duration readTimeout,
+            @DefaultValue("5s") Duration serverSelectionTimeout) {
+    }
+
+    /**
+     * {@code 0} threads keeps Lettuce's default of one per core. Commands beyond {@code requestQueueSize}, or issued
+     * while disconnected, fail at once instead of queueing.
+     */
+    public record Redis(
+            @DefaultValue("0") int ioThreads,
+            @DefaultValue("0") int computationThreads,
+            @DefaultValue("10000") int requestQueueSize) {
+    }
+}
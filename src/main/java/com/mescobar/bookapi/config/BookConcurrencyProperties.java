@@ -0,0 +1,29 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-endpoint limits on concurrently served requests. A request is counted against the most specific matching
+ * endpoint until its response completes, and is rejected with 503 and {@code Retry-After} once the limit is reached.
+ */
+@ConfigurationProperties(prefix = "book-api.concurrency")
+public record BookConcurrencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue Map<String, Endpoint> endpoints) {
+
+    /**
+     * An empty {@code methods} set matches every method.
+     */
+    public record Endpoint(
+            String pattern,
+            @DefaultValue Set<HttpMethod> methods,
+            int limit) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Sizing of the raw catalog export: {@code batchSize} documents per cursor round trip, {@code booksPerBuffer} NDJSON
+ * lines per response buffer.
+ */
+@ConfigurationProperties(prefix = "book-api.export")
+public record BookExportProperties(@DefaultValue("1000") int batchSize, @DefaultValue("64") int booksPerBuffer) {
+}
@@ -0,0 +1,17 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Catalog import: rows are parsed and validated in batches of {@code batchSize} on up to {@code parallelism} cores
+ * (0 for all of them), unordered imports keep up to {@code writeConcurrency} bulk inserts in flight, and the report
+ * details at most {@code maxReportedRejections} rejected rows.
+ */
+@ConfigurationProperties(prefix = "book-api.import")
+public record BookImportProperties(
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("4") int writeConcurrency,
+        @DefaultValue("1000") int maxReportedRejections) {
+}
@@ -0,0 +1,23 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Asynchronous creates: books are appended to memory-mapped segments of {@code segmentSize} under {@code directory},
+ * forced to disk every {@code syncInterval}, and drained to Mongo in batches of up to {@code drainBatchSize} every
+ * {@code drainInterval}.
+ */
+@ConfigurationProperties(prefix = "book-api.journal")
+public record BookJournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("journal") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("5ms") Duration syncInterval,
+        @DefaultValue("500") int drainBatchSize,
+        @DefaultValue("100ms") Duration drainInterval) {
+}
@@ -0,0 +1,56 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-client request budgets. A client is identified by its {@code apiKeyHeader} when the key is one of
+ * {@code apiKeys}, and by its address otherwise, so that made-up keys neither escape the limit nor fill the
+ * tracked clients. Up to {@code maxClients} clients are tracked per budget. With {@code forwardedHeaders}, the address
+ * is taken from the {@code Forwarded} and {@code X-Forwarded-*} headers for the whole application; only turn it on
+ * behind a proxy that overwrites them, since clients could otherwise pick a new address per request.
+ * A request is counted against the budget of the most specific matching pattern and is rejected with 429 once the
+ * client has used it up.
+ */
+@ConfigurationProperties(prefix = "book-api.rate-limit")
+public record BookRateLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("X-API-Key") String apiKeyHeader,
+        @DefaultValue Set<String> apiKeys,
+        @DefaultValue("false") boolean forwardedHeaders,
+        @DefaultValue("100000") long maxClients,
+        @DefaultValue Redis redis,
+        @DefaultValue Map<String, Budget> budgets) {
+
+    /**
+     * {@code limit} requests per {@code period}, in bursts of up to {@code burst} requests ({@code 0} for
+     * {@code limit}). An empty {@code methods} set matches every method.
+     */
+    public record Budget(
+            List<String> patterns,
+            @DefaultValue Set<HttpMethod> methods,
+            int limit,
+            @DefaultValue("1s") Duration period,
+            @DefaultValue("0") int burst) {
+
+        public int capacity() {
+            return burst > 0 ? burst : limit;
+        }
+    }
+
+    /**
+     * Cluster-wide budgets, checked in Redis under {@code keyPrefix} once the local budget allows a request. A Redis
+     * call that fails or takes longer than {@code timeout} falls back to the local decision.
+     */
+    public record Redis(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("book-api:rate-limit:") String keyPrefix,
+            @DefaultValue("5ms") Duration timeout) {
+    }
+}
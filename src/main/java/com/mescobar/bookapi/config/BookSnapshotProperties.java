@@ -0,0 +1,26 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Catalog snapshots: every {@code interval} the books changed since the previous snapshot are written under
+ * {@code directory}. The {@code _id} range is read in up to {@code parallelism} partitions (0 for one per core),
+ * {@code batchSize} documents per cursor round trip, and written in zstd-compressed row groups of
+ * {@code rowGroupSize} books. An incremental snapshot reads from {@code overlap} before the end of the previous one,
+ * to catch writes stamped before that end but committed after it was read.
+ */
+@ConfigurationProperties(prefix = "book-api.snapshot")
+public record BookSnapshotProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("snapshots") Path directory,
+        @DefaultValue("24h") Duration interval,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("4096") int rowGroupSize,
+        @DefaultValue("3") int compressionLevel,
+        @DefaultValue("1m") Duration overlap) {
+}
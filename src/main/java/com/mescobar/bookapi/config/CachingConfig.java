@@ -1,10 +1,110 @@
 package com.mescobar.bookapi.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.cache.BookResponseRedisSerializer;
+import com.mescobar.bookapi.cache.CacheInvalidationChannel;
+import com.mescobar.bookapi.cache.HotBookSketch;
+import com.mescobar.bookapi.cache.ResilientCacheManager;
+import com.mescobar.bookapi.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 @Configuration
 public class CachingConfig {
     public static final String BOOKS = "BOOKS";
+
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties) {
+        CacheProperties.Redis redisProperties = cacheProperties.getRedis();
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(SerializationPair.fromSerializer(
+                        new JdkSerializationRedisSerializer(getClass().getClassLoader())));
+        if (redisProperties.getTimeToLive() != null) {
+            config = config.entryTtl(redisProperties.getTimeToLive());
+        }
+        if (redisProperties.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redisProperties.getKeyPrefix());
+        }
+        if (!redisProperties.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redisProperties.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        return config;
+    }
+
+    @Bean
+    public RedisSerializer<Object> booksCacheValueSerializer(BookCacheProperties bookCacheProperties) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        return switch (bookCacheProperties.serializer()) {
+            case BINARY -> new BookResponseRedisSerializer(classLoader);
+            case JSON -> new GenericJackson2JsonRedisSerializer();
+            case JDK -> new JdkSerializationRedisSerializer(classLoader);
+        };
+    }
+
+    @Bean
+    public HotBookSketch hotBookSketch(BookCacheProperties bookCacheProperties) {
+        BookCacheProperties.HotSet hotSet = bookCacheProperties.hotSet();
+        return new HotBookSketch(hotSet.capacity(), hotSet.sampleRate());
+    }
+
+    @Bean
+    public ReactiveRedisMessageListenerContainer cacheInvalidationListenerContainer(
+            ReactiveRedisConnectionFactory connectionFactory) {
+        return new ReactiveRedisMessageListenerContainer(connectionFactory);
+    }
+
+    @Bean
+    public CacheInvalidationChannel cacheInvalidationChannel(ReactiveStringRedisTemplate redisTemplate,
+            ReactiveRedisMessageListenerContainer cacheInvalidationListenerContainer,
+            BookCacheProperties bookCacheProperties) {
+        return new CacheInvalidationChannel(redisTemplate, cacheInvalidationListenerContainer,
+                bookCacheProperties.invalidationChannel());
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+            RedisCacheConfiguration redisCacheConfiguration,
+            RedisSerializer<Object> booksCacheValueSerializer,
+            CacheInvalidationChannel cacheInvalidationChannel,
+            BookCacheProperties bookCacheProperties,
+            MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(redisCacheConfiguration)
+                .withCacheConfiguration(BOOKS, redisCacheConfiguration
+                        .serializeValuesWith(SerializationPair.fromSerializer(booksCacheValueSerializer)))
+                .build();
+        redisCacheManager.initializeCaches();
+        BookCacheProperties.Resilience resilience = bookCacheProperties.resilience();
+        CacheManager remoteCacheManager = resilience.enabled()
+                ? new ResilientCacheManager(redisCacheManager, resilience, meterRegistry)
+                : redisCacheManager;
+        BookCacheProperties.Local local = bookCacheProperties.local();
+        return new TwoLevelCacheManager(remoteCacheManager,
+                () -> Caffeine.newBuilder()
+                        .maximumSize(local.maximumSize())
+                        .expireAfterWrite(local.expireAfterWrite()),
+                cacheInvalidationChannel,
+                meterRegistry,
+                bookCacheProperties.earlyRefreshBeta());
+    }
 }
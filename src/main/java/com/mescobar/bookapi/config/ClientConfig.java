@@ -0,0 +1,114 @@
+package com.mescobar.bookapi.config;
+
+import io.lettuce.core.ClientOptions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link BookClientProperties} to the Mongo and Redis clients Boot creates, and publishes the configured
+ * limits next to the pool and command metrics Boot already records for both clients.
+ */
+@Configuration
+public class ClientConfig {
+
+    private static final String CLIENT_TAG = "client";
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientTuning(BookClientProperties clientProperties) {
+        BookClientProperties.Mongo mongo = clientProperties.mongo();
+        return settings -> settings
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(mongo.minPoolSize())
+                        .maxSize(mongo.maxPoolSize())
+                        .maxConnecting(mongo.maxConnecting())
+                        .maxWaitTime(mongo.waitQueueTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(mongo.maxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(Math.toIntExact(mongo.connectTimeout().toMillis()), TimeUnit.MILLISECONDS)
+                        .readTimeout(Math.toIntExact(mongo.readTimeout().toMillis()), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(mongo.serverSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public ClientResourcesBuilderCustomizer redisClientResourcesTuning(BookClientProperties clientProperties) {
+        BookClientProperties.Redis redis = clientProperties.redis();
+        return resources -> {
+            if (redis.ioThreads() > 0) {
+                resources.ioThreadPoolSize(redis.ioThreads());
+            }
+            if (redis.computationThreads() > 0) {
+                resources.computationThreadPoolSize(redis.computationThreads());
+            }
+        };
+    }
+
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer redisClientTuning(BookClientProperties clientProperties) {
+        int requestQueueSize = clientProperties.redis().requestQueueSize();
+        // keeps the options Boot derived from spring.data.redis.*, such as the connect timeout and timeout options
+        return configuration -> configuration.clientOptions(configuration.build().getClientOptions()
+                .orElseGet(ClientOptions::create)
+                .mutate()
+                .requestQueueSize(requestQueueSize)
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build());
+    }
+
+    @Bean
+    public CommonsObjectPool2Metrics redisConnectionPoolMetrics() {
+        return new CommonsObjectPool2Metrics();
+    }
+
+    @Bean
+    public MeterBinder clientLimitMetrics(BookClientProperties clientProperties, RedisProperties redisProperties) {
+        BookClientProperties.Mongo mongo = clientProperties.mongo();
+        RedisProperties.Pool redisPool = redisProperties.getLettuce().getPool();
+        return registry -> {
+            poolLimit(registry, "mongo", "max", mongo.maxPoolSize());
+            poolLimit(registry, "mongo", "min", mongo.minPoolSize());
+            poolLimit(registry, "mongo", "connecting", mongo.maxConnecting());
+            timeout(registry, "mongo", "wait-queue", mongo.waitQueueTimeout());
+            timeout(registry, "mongo", "connect", mongo.connectTimeout());
+            timeout(registry, "mongo", "read", mongo.readTimeout());
+            timeout(registry, "mongo", "server-selection", mongo.serverSelectionTimeout());
+            if (!Boolean.FALSE.equals(redisPool.getEnabled())) {
+                poolLimit(registry, "redis", "max", redisPool.getMaxActive());
+                poolLimit(registry, "redis", "min", redisPool.getMinIdle());
+                timeout(registry, "redis", "wait-queue", redisPool.getMaxWait());
+            }
+            poolLimit(registry, "redis", "request-queue", clientProperties.redis().requestQueueSize());
+            timeout(registry, "redis", "command", redisProperties.getTimeout());
+            timeout(registry, "redis", "connect", redisProperties.getConnectTimeout());
+        };
+    }
+
+    private static void poolLimit(MeterRegistry registry, String client, String limit, int value) {
+        Gauge.builder("book.client.pool.limit", () -> value)
+                .tag(CLIENT_TAG, client)
+                .tag("limit", limit)
+                .register(registry);
+    }
+
+    private static void timeout(MeterRegistry registry, String client, String timeout, Duration value) {
+        if (value == null || value.isNegative()) {
+            return;
+        }
+        TimeGauge.builder("book.client.timeout", value::toMillis, TimeUnit.MILLISECONDS)
+                .tag(CLIENT_TAG, client)
+                .tag("timeout", timeout)
+                .register(registry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.mescobar.bookapi.config;
+
+import com.mescobar.bookapi.controller.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "book-api.concurrency", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(BookConcurrencyProperties concurrencyProperties,
+            MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitFilter(concurrencyProperties, meterRegistry);
+    }
+}
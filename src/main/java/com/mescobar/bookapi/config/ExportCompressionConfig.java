@@ -0,0 +1,23 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Compresses the catalog export with gzip, or zstd when the client accepts it. Unlike {@code server.compression},
+ * which applies to every response of a media type, this leaves out the other NDJSON streams: the change feed would
+ * hold events back in the compressor, and pages and searches are too small to gain from it.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "book-api.export.compression", name = "enabled", matchIfMissing = true)
+public class ExportCompressionConfig {
+
+    public static final String EXPORT_PATH = "/api/books/_export";
+
+    @Bean
+    public NettyServerCustomizer exportCompression() {
+        return server -> server.compress((request, response) -> EXPORT_PATH.equals(request.fullPath()));
+    }
+}
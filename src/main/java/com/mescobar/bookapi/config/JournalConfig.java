@@ -0,0 +1,20 @@
+package com.mescobar.bookapi.config;
+
+import com.mescobar.bookapi.journal.BookJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@ConditionalOnProperty(prefix = "book-api.journal", name = "enabled")
+public class JournalConfig {
+
+    @Bean
+    public BookJournal bookJournal(BookJournalProperties journalProperties, MeterRegistry meterRegistry)
+            throws IOException {
+        return new BookJournal(journalProperties, meterRegistry);
+    }
+}
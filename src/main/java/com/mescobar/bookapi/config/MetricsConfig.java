@@ -0,0 +1,24 @@
+package com.mescobar.bookapi.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.regex.Pattern;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final Pattern OBJECT_ID_SEGMENT = Pattern.compile("/[0-9a-fA-F]{24}(?=/|$)");
+
+    @Bean
+    public NettyServerCustomizer nettyServerMetricsCustomizer() {
+        return httpServer -> httpServer.metrics(true, MetricsConfig::uriTag);
+    }
+
+    static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        return OBJECT_ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
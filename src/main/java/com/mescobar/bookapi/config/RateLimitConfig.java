@@ -0,0 +1,34 @@
+package com.mescobar.bookapi.config;
+
+import com.mescobar.bookapi.controller.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.web.server.adapter.ForwardedHeaderTransformer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "book-api.rate-limit", name = "enabled")
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(BookRateLimitProperties rateLimitProperties,
+            ObjectProvider<ReactiveStringRedisTemplate> redisTemplate, MeterRegistry meterRegistry) {
+        return new RateLimitFilter(rateLimitProperties,
+                rateLimitProperties.redis().enabled() ? redisTemplate.getObject() : null, meterRegistry);
+    }
+
+    /**
+     * Applied to every request before the filters, so the rate limit keys a proxied client by its own address. It
+     * also rewrites the host and scheme the application sees.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "book-api.rate-limit", name = "forwarded-headers")
+    public ForwardedHeaderTransformer forwardedHeaderTransformer() {
+        return new ForwardedHeaderTransformer();
+    }
+}
@@ -0,0 +1,256 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.config.BookExportProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookChangeResponse;
+import com.mescobar.bookapi.controller.dto.BookImportReport;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.controller.dto.HotBookResponse;
+import com.mescobar.bookapi.controller.dto.MultiGetBookRequest;
+import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import com.mescobar.bookapi.journal.BookJournal;
+import com.mescobar.bookapi.mapper.BookCsvReader;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.mapper.RawBookTranscoder;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookCursor;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.BookImportService;
+import com.mescobar.bookapi.service.BookService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.bson.types.ObjectId;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The endpoints and response mapping the reactive and blocking book APIs share: writes, the streaming endpoints and
+ * the bulk ones. Subclasses serve the reads, and perform single-book writes through {@link #save}, {@link #update}
+ * and {@link #delete}.
+ */
+public abstract class AbstractBookController {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    protected final BookService bookService;
+    protected final BookBulkService bookBulkService;
+    protected final BookImportService bookImportService;
+    protected final BookMapper bookMapper;
+    protected final BookCache bookCache;
+    protected final BookExportProperties exportProperties;
+    protected final Optional<BookJournal> bookJournal;
+
+    protected AbstractBookController(BookService bookService, BookBulkService bookBulkService,
+            BookImportService bookImportService, BookMapper bookMapper, BookCache bookCache,
+            BookExportProperties exportProperties, Optional<BookJournal> bookJournal) {
+        this.bookService = bookService;
+        this.bookBulkService = bookBulkService;
+        this.bookImportService = bookImportService;
+        this.bookMapper = bookMapper;
+        this.bookCache = bookCache;
+        this.exportProperties = exportProperties;
+        this.bookJournal = bookJournal;
+    }
+
+    protected abstract Mono<Book> save(Book book);
+
+    protected abstract Mono<Book> update(String id, Book patch);
+
+    protected abstract Mono<Book> delete(String id);
+
+    @Operation(
+            summary = "Follow book changes",
+            description = "This endpoint is used to stream every book insert, update and delete as it happens ..."
+    )
+    @GetMapping(path = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookChangeResponse> getChanges(@RequestParam(required = false) String resumeAfter) {
+        return bookService.getChanges(resumeAfter).map(bookMapper::toBookChangeResponse);
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BookChangeResponse>> getChangeEvents(@RequestParam(required = false) String resumeAfter,
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return bookService.getChanges(lastEventId != null ? lastEventId : resumeAfter)
+                .map(change -> ServerSentEvent.builder(bookMapper.toBookChangeResponse(change))
+                        .id(change.resumeToken())
+                        .event(change.operation().name())
+                        .build());
+    }
+
+    @Operation(
+            summary = "Export all books",
+            description = "This endpoint is used to stream the whole catalog as NDJSON, transcoded straight from the stored documents ..."
+    )
+    @GetMapping(path = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> exportBooks(ServerHttpResponse response) {
+        return RawBookTranscoder.toNdjson(bookService.exportBooks(), response.bufferFactory(),
+                exportProperties.booksPerBuffer());
+    }
+
+    @Operation(
+            summary = "Get the hottest books",
+            description = "This endpoint is used to list the most read books with their estimated hits and hit rates, and whether they are pinned in process ..."
+    )
+    @GetMapping("/_hot")
+    public Mono<List<HotBookResponse>> getHotBooks(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > HotBookResponse.MAX_LIMIT) {
+            return Mono.error(new InvalidBookQueryException("Limit must be between 1 and %d.".formatted(HotBookResponse.MAX_LIMIT)));
+        }
+        return Mono.fromSupplier(() -> bookCache.hottest(limit));
+    }
+
+    @Operation(
+            summary = "Create a book",
+            description = "This endpoint is used to create a specific book ..."
+    )
+    @CachePut(cacheNames = CachingConfig.BOOKS, key = "#result.id")
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping
+    public Mono<BookResponse> createBook(@Valid @RequestBody CreateBookRequest createBookRequest) {
+        return save(bookMapper.toBook(createBookRequest)).map(bookMapper::toBookResponse);
+    }
+
+    @Operation(
+            summary = "Create a book asynchronously",
+            description = "With Prefer: respond-async and the journal enabled, the book is acknowledged with its id once journaled, before it reaches the database ..."
+    )
+    @PostMapping(headers = RespondAsync.PREFER_HEADER)
+    public Mono<ResponseEntity<BookResponse>> createBookAsync(@Valid @RequestBody CreateBookRequest createBookRequest,
+            @RequestHeader(RespondAsync.PREFER_HEADER) String prefer) {
+        if (bookJournal.isEmpty() || !RespondAsync.requested(prefer)) {
+            // called on this, createBook would bypass its @CachePut
+            return save(bookMapper.toBook(createBookRequest))
+                    .map(bookMapper::toBookResponse)
+                    .flatMap(book -> bookCache.putAll(List.of(book)).thenReturn(book))
+                    .map(book -> ResponseEntity.status(HttpStatus.CREATED).body(book));
+        }
+        Book book = bookMapper.toBook(createBookRequest);
+        book.setId(new ObjectId().toHexString());
+        return bookJournal.get().append(book).thenReturn(RespondAsync.accepted(bookMapper.toBookResponse(book)));
+    }
+
+    @Operation(
+            summary = "Update a book",
+            description = "This endpoint is used to update a specific book ..."
+    )
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<BookResponse>> updateBook(@PathVariable String id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody UpdateBookRequest updateBookRequest) {
+        Book patch = bookMapper.toBook(updateBookRequest);
+        patch.setVersion(BookETag.expectedVersion(id, ifMatch));
+        return update(id, patch)
+                .map(bookMapper::toBookResponse)
+                .flatMap(response -> bookCache.putAll(List.of(response)).thenReturn(response))
+                .map(response -> BookETag.ok(response.version()).body(response));
+    }
+
+    @Operation(
+            summary = "Delete a book",
+            description = "This endpoint is used to delete a specific book ..."
+    )
+    @CacheEvict(cacheNames = CachingConfig.BOOKS, key = "#id")
+    @DeleteMapping("/{id}")
+    public Mono<BookResponse> deleteBook(@PathVariable String id) {
+        return delete(id).map(bookMapper::toBookResponse);
+    }
+
+    @Operation(
+            summary = "Get books by id",
+            description = "This endpoint is used to get many books in one call, returning one result per requested id in request order ..."
+    )
+    @PostMapping(path = "/_mget", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkItemResponse> getBooksById(@Valid @RequestBody MultiGetBookRequest multiGetBookRequest) {
+        multiGetBookRequest.ids().forEach(bookCache::recordAccess);
+        return bookBulkService.getBooks(multiGetBookRequest.ids());
+    }
+
+    @Operation(
+            summary = "Create books in bulk",
+            description = "This endpoint is used to create a stream of books, returning one result per line ..."
+    )
+    @PostMapping(path = "/_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkItemResponse> createBooks(@RequestBody Flux<DataBuffer> content) {
+        return bookBulkService.createBooks(content);
+    }
+
+    @Operation(
+            summary = "Update books in bulk",
+            description = "This endpoint is used to update a stream of books, returning one result per line ..."
+    )
+    @PatchMapping(path = "/_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkItemResponse> updateBooks(@RequestBody Flux<DataBuffer> content) {
+        return bookBulkService.updateBooks(content);
+    }
+
+    @Operation(
+            summary = "Delete books in bulk",
+            description = "This endpoint is used to delete a stream of books, returning one result per line ..."
+    )
+    @DeleteMapping(path = "/_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkItemResponse> deleteBooks(@RequestBody Flux<DataBuffer> content) {
+        return bookBulkService.deleteBooks(content);
+    }
+
+    @Operation(
+            summary = "Import a catalog",
+            description = "This endpoint is used to import a CSV or NDJSON catalog, returning how many rows were accepted and why the others were rejected ..."
+    )
+    @PostMapping(path = "/_import", consumes = {BookCsvReader.MEDIA_TYPE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<BookImportReport> importBooks(@RequestBody Flux<DataBuffer> content,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(defaultValue = "false") boolean ordered) {
+        BookImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? BookImportService.Format.NDJSON
+                : BookImportService.Format.CSV;
+        return bookImportService.importBooks(content, format, ordered);
+    }
+
+    /**
+     * Answers a page with the cursor of the next one when the page is full.
+     */
+    protected ResponseEntity<Flux<BookResponse>> page(BookPageRequest pageRequest, List<Book> books) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (books.size() == pageRequest.limit()) {
+            BookCursor next = BookCursor.of(pageRequest.sort(), books.get(books.size() - 1));
+            response.header(NEXT_CURSOR_HEADER, next.encode());
+        }
+        return response.body(Flux.fromIterable(books).map(bookMapper::toBookResponse));
+    }
+
+    /**
+     * Answers a book, or 304 when {@code If-None-Match} already holds its version.
+     */
+    protected static ResponseEntity<BookResponse> conditionally(String ifNoneMatch, BookResponse book) {
+        return BookETag.matches(ifNoneMatch, book.version())
+                ? BookETag.notModified(book.version())
+                : BookETag.ok(book.version()).body(book);
+    }
+}
@@ -0,0 +1,149 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.config.BlockingConfig;
+import com.mescobar.bookapi.config.BookExportProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.journal.BookJournal;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.service.BlockingBookService;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.BookImportService;
+import com.mescobar.bookapi.service.BookService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The book API of the {@code blocking} profile. Handler methods that return plain values are invoked by WebFlux on
+ * the application task executor, which runs on virtual threads when {@code spring.threads.virtual.enabled} is set on
+ * Java 21 and on a platform thread pool otherwise. Cache misses are loaded on a bounded pool of their own, since the
+ * cache may call its loader on a Redis thread. Writes, the bulk, export and change feed endpoints are shared with the
+ * reactive API.
+ */
+@RestController
+@RequestMapping("/api/books")
+@Profile("blocking")
+public class BlockingBookController extends AbstractBookController {
+
+    private final BlockingBookService blockingBookService;
+    private final Scheduler blockingScheduler;
+    private final Scheduler loadScheduler;
+
+    public BlockingBookController(BlockingBookService blockingBookService, BookService bookService,
+            BookBulkService bookBulkService, BookImportService bookImportService, BookMapper bookMapper, BookCache bookCache,
+            BookExportProperties exportProperties, Optional<BookJournal> bookJournal,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor,
+            @Qualifier(BlockingConfig.BOOK_LOAD_SCHEDULER) Scheduler loadScheduler) {
+        super(bookService, bookBulkService, bookImportService, bookMapper, bookCache, exportProperties, bookJournal);
+        this.blockingBookService = blockingBookService;
+        this.blockingScheduler = Schedulers.fromExecutor(taskExecutor);
+        this.loadScheduler = loadScheduler;
+    }
+
+    @Operation(
+            summary = "Get all books",
+            description = "This endpoint is used to get all books, or a single page of them when any paging parameter is given ..."
+    )
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<BookResponse>> getBook(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) List<String> fields) {
+        if (after == null && limit == null && sort == null && fields == null) {
+            return ResponseEntity.ok(Flux.fromStream(blockingBookService::getBooks)
+                    .subscribeOn(blockingScheduler)
+                    .map(bookMapper::toBookResponse));
+        }
+        BookPageRequest pageRequest = BookPageRequest.of(after, limit, sort, fields);
+        return page(pageRequest, blockingBookService.getBooks(pageRequest));
+    }
+
+    @Operation(
+            summary = "Search books",
+            description = "This endpoint is used to search books by title or author prefix, year range or title text ..."
+    )
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<BookResponse>> searchBooks(@RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Integer limit) {
+        BookSearchRequest searchRequest = BookSearchRequest.of(title, author, yearFrom, yearTo, text, limit);
+        List<Book> books = blockingBookService.searchBooks(searchRequest);
+        return ResponseEntity.ok(Flux.fromIterable(books).map(bookMapper::toBookResponse));
+    }
+
+    @Operation(
+            summary = "Get a book",
+            description = "This endpoint is used to get a specific book ..."
+    )
+    @GetMapping("/{id}")
+    public ResponseEntity<BookResponse> getBook(@PathVariable String id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        bookCache.recordAccess(id);
+        if (ifNoneMatch != null) {
+            // only waits for Redis, under the read timeout of the resilient cache
+            Long cachedVersion = bookCache.version(id).block();
+            if (BookETag.matches(ifNoneMatch, cachedVersion)) {
+                return BookETag.notModified(cachedVersion);
+            }
+        }
+        BookResponse book = bookCache.get(id, () -> Mono
+                        .fromCallable(() -> bookMapper.toBookResponse(blockingBookService.validateAndGetBookById(id)))
+                        .subscribeOn(loadScheduler)
+                        .onErrorMap(RejectedExecutionException.class, e ->
+                                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many books loading", e)))
+                .block();
+        return conditionally(ifNoneMatch, book);
+    }
+
+    @Override
+    protected Mono<Book> save(Book book) {
+        return offload(() -> blockingBookService.saveBook(book));
+    }
+
+    @Override
+    protected Mono<Book> update(String id, Book patch) {
+        return offload(() -> blockingBookService.updateBook(id, patch));
+    }
+
+    @Override
+    protected Mono<Book> delete(String id) {
+        return offload(() -> blockingBookService.deleteBook(id));
+    }
+
+    /**
+     * Shared handlers return publishers and run on the event loop, so they hand their blocking work to the task
+     * executor. None of its threads waits for this work, unlike loads, so it cannot starve the pool.
+     */
+    private <T> Mono<T> offload(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(blockingScheduler);
+    }
+}
@@ -1,94 +1,109 @@
 package com.mescobar.bookapi.controller;
 
-import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.config.BookExportProperties;
 import com.mescobar.bookapi.controller.dto.BookResponse;
-import com.mescobar.bookapi.controller.dto.CreateBookRequest;
-import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
+import com.mescobar.bookapi.journal.BookJournal;
 import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.BookImportService;
 import com.mescobar.bookapi.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
-import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-@RequiredArgsConstructor
+import java.util.List;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/books")
-public class BookController {
+@Profile("!blocking")
+public class BookController extends AbstractBookController {
 
-    private final BookService bookService;
-    private final BookMapper bookMapper;
+    public BookController(BookService bookService, BookBulkService bookBulkService, BookImportService bookImportService,
+            BookMapper bookMapper, BookCache bookCache, BookExportProperties exportProperties,
+            Optional<BookJournal> bookJournal) {
+        super(bookService, bookBulkService, bookImportService, bookMapper, bookCache, exportProperties, bookJournal);
+    }
 
     @Operation(
             summary = "Get all books",
-            description = "This endpoint is used to get all books ..."
+            description = "This endpoint is used to get all books, or a single page of them when any paging parameter is given ..."
     )
     @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<BookResponse> getBook() {
-        return bookService.getBooks().map(bookMapper::toBookResponse);
+    public Mono<ResponseEntity<Flux<BookResponse>>> getBook(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) List<String> fields) {
+        if (after == null && limit == null && sort == null && fields == null) {
+            return Mono.just(ResponseEntity.ok(bookService.getBooks().map(bookMapper::toBookResponse)));
+        }
+        BookPageRequest pageRequest = BookPageRequest.of(after, limit, sort, fields);
+        return bookService.getBooks(pageRequest)
+                .collectList()
+                .map(books -> page(pageRequest, books));
+    }
+
+    @Operation(
+            summary = "Search books",
+            description = "This endpoint is used to search books by title or author prefix, year range or title text ..."
+    )
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookResponse> searchBooks(@RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Integer limit) {
+        BookSearchRequest searchRequest = BookSearchRequest.of(title, author, yearFrom, yearTo, text, limit);
+        return bookService.searchBooks(searchRequest).map(bookMapper::toBookResponse);
     }
 
     @Operation(
             summary = "Get a book",
             description = "This endpoint is used to get a specific book ..."
     )
-    @Cacheable(cacheNames = CachingConfig.BOOKS, key = "#id")
     @GetMapping("/{id}")
-    public Mono<BookResponse> getBook(@PathVariable String id) {
-        return bookService.validateAndGetBookById(id).map(bookMapper::toBookResponse);
+    public Mono<ResponseEntity<BookResponse>> getBook(@PathVariable String id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        bookCache.recordAccess(id);
+        Mono<ResponseEntity<BookResponse>> book = bookCache
+                .get(id, () -> bookService.validateAndGetBookById(id).map(bookMapper::toBookResponse))
+                .map(response -> conditionally(ifNoneMatch, response));
+        if (ifNoneMatch == null) {
+            return book;
+        }
+        return bookCache.version(id)
+                .filter(version -> BookETag.matches(ifNoneMatch, version))
+                .map(BookETag::<BookResponse>notModified)
+                .switchIfEmpty(book);
     }
 
-    @Operation(
-            summary = "Create a book",
-            description = "This endpoint is used to create a specific book ..."
-    )
-    @CachePut(cacheNames = CachingConfig.BOOKS, key = "#result.id")
-    @ResponseStatus(HttpStatus.CREATED)
-    @PostMapping
-    public Mono<BookResponse> createBook(@Valid @RequestBody CreateBookRequest createBookRequest) {
-        return bookService.saveBook(bookMapper.toBook(createBookRequest)).map(bookMapper::toBookResponse);
+    @Override
+    protected Mono<Book> save(Book book) {
+        return bookService.saveBook(book);
     }
 
-    @Operation(
-            summary = "Update a book",
-            description = "This endpoint is used to update a specific book ..."
-    )
-    @CachePut(cacheNames = CachingConfig.BOOKS, key = "#id")
-    @PatchMapping("/{id}")
-    public Mono<BookResponse> updateBook(@PathVariable String id,
-            @RequestBody UpdateBookRequest updateBookRequest) {
-        return bookService.validateAndGetBookById(id)
-                .doOnSuccess(book -> {
-                    bookMapper.updateBookFromUpdateBookRequest(updateBookRequest, book);
-                    bookService.saveBook(book).subscribe();
-                })
-                .map(bookMapper::toBookResponse);
+    @Override
+    protected Mono<Book> update(String id, Book patch) {
+        return bookService.updateBook(id, patch);
     }
 
-    @Operation(
-            summary = "Delete a book",
-            description = "This endpoint is used to delete a specific book ..."
-    )
-    @CacheEvict(cacheNames = CachingConfig.BOOKS, key = "#id")
-    @DeleteMapping("/{id}")
-    public Mono<BookResponse> deleteBook(@PathVariable String id) {
-        return bookService.validateAndGetBookById(id)
-                .doOnSuccess(book -> bookService.deleteBook(book).subscribe())
-                .map(bookMapper::toBookResponse);
+    @Override
+    protected Mono<Book> delete(String id) {
+        return bookService.deleteBook(id);
     }
 }
@@ -0,0 +1,70 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+final class BookETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private BookETag() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} header against the current version of a book.
+     */
+    static boolean matches(String ifNoneMatch, Long version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        String current = of(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals(ANY) || stripWeak(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header requires, or {@code null} when any version is accepted.
+     * Weak or malformed tags can never match strongly, so they fail the precondition.
+     */
+    static Long expectedVersion(String id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new BookVersionMismatchException(id);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new BookVersionMismatchException(id);
+        }
+    }
+
+    static ResponseEntity.BodyBuilder ok(Long version) {
+        return withVersion(ResponseEntity.ok(), version);
+    }
+
+    static <T> ResponseEntity<T> notModified(long version) {
+        return withVersion(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).build();
+    }
+
+    private static ResponseEntity.BodyBuilder withVersion(ResponseEntity.BodyBuilder builder, Long version) {
+        return version == null ? builder : builder.eTag(of(version));
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
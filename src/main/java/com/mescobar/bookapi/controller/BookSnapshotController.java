@@ -0,0 +1,70 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.controller.dto.BookSnapshotResponse;
+import com.mescobar.bookapi.exception.BookSnapshotNotFoundException;
+import com.mescobar.bookapi.snapshot.BookSnapshotter;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Catalog snapshots, shared by the reactive and the blocking profiles. Downloads honour {@code Range} requests and
+ * are sent with zero-copy file transfers where the server supports them.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/books/_snapshots")
+@ConditionalOnProperty(prefix = "book-api.snapshot", name = "enabled")
+public class BookSnapshotController {
+
+    private final BookSnapshotter bookSnapshotter;
+
+    @Operation(
+            summary = "Get catalog snapshots",
+            description = "This endpoint is used to list the catalog snapshots that can be downloaded, oldest first ..."
+    )
+    @GetMapping
+    public Mono<List<BookSnapshotResponse>> getSnapshots() {
+        return bookSnapshotter.list();
+    }
+
+    @Operation(
+            summary = "Create a catalog snapshot",
+            description = "This endpoint is used to write a full snapshot, or one of the books changed since the latest snapshot ..."
+    )
+    @PostMapping
+    public Mono<ResponseEntity<BookSnapshotResponse>> createSnapshot(
+            @RequestParam(defaultValue = "false") boolean incremental) {
+        return bookSnapshotter.export(incremental)
+                .map(snapshot -> ResponseEntity.created(URI.create("/api/books/_snapshots/" + snapshot.name()))
+                        .body(snapshot));
+    }
+
+    @Operation(
+            summary = "Download a catalog snapshot",
+            description = "This endpoint is used to download a snapshot file, whole or by byte range ..."
+    )
+    @GetMapping(path = "/{name}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Resource> getSnapshot(@PathVariable String name) {
+        Resource file = bookSnapshotter.resolve(name)
+                .map(FileSystemResource::new)
+                .orElseThrow(() -> new BookSnapshotNotFoundException(name));
+        return ResponseEntity.ok()
+                .eTag(name)
+                .body(file);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.config.BookConcurrencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds load per endpoint: a request holds a permit of the most specific matching endpoint until its response
+ * completes, streams included, and is answered with 503 and {@code Retry-After} when no permit is left.
+ */
+public class ConcurrencyLimitFilter implements WebFilter, Ordered {
+
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final List<Limit> limits;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(BookConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.limits = properties.endpoints().entrySet().stream()
+                .map(endpoint -> new Limit(endpoint.getKey(), endpoint.getValue(), meterRegistry))
+                .sorted(Comparator.comparing(Limit::pattern, PathPattern.SPECIFICITY_COMPARATOR))
+                .toList();
+        long retryAfterMillis = properties.retryAfter().toMillis();
+        this.retryAfterSeconds = Long.toString(Math.max(1, (retryAfterMillis + 999) / 1000));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Limit limit = find(exchange.getRequest());
+        if (limit == null) {
+            return chain.filter(exchange);
+        }
+        if (!limit.tryAcquire()) {
+            limit.rejected.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return response.setComplete();
+        }
+        return chain.filter(exchange).doFinally(signal -> limit.release());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private Limit find(ServerHttpRequest request) {
+        for (Limit limit : limits) {
+            if (limit.matches(request)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    private static final class Limit {
+
+        private final PathPattern pattern;
+        private final Set<HttpMethod> methods;
+        private final int maximum;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rejected;
+
+        Limit(String name, BookConcurrencyProperties.Endpoint endpoint, MeterRegistry meterRegistry) {
+            this.pattern = PathPatternParser.defaultInstance.parse(endpoint.pattern());
+            this.methods = endpoint.methods();
+            this.maximum = endpoint.limit();
+            Gauge.builder("book.concurrency.in.flight", inFlight, AtomicInteger::get)
+                    .tag(ENDPOINT_TAG, name)
+                    .register(meterRegistry);
+            Gauge.builder("book.concurrency.limit", () -> maximum)
+                    .tag(ENDPOINT_TAG, name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("book.concurrency.rejected")
+                    .tag(ENDPOINT_TAG, name)
+                    .register(meterRegistry);
+        }
+
+        PathPattern pattern() {
+            return pattern;
+        }
+
+        boolean matches(ServerHttpRequest request) {
+            return (methods.isEmpty() || methods.contains(request.getMethod()))
+                    && pattern.matches(request.getPath().pathWithinApplication());
+        }
+
+        boolean tryAcquire() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current >= maximum) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
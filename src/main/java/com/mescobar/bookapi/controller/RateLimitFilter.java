@@ -0,0 +1,214 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.config.BookRateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits each client per budget with {@link TokenBuckets}, answering 429 with {@code Retry-After} once a budget
+ * is used up. Every limited response carries the {@code RateLimit-*} headers of the IETF draft. With Redis enabled, a
+ * request the local bucket allows is also checked against a cluster-wide bucket kept by a Lua script on Redis time.
+ */
+@Slf4j
+public class RateLimitFilter implements WebFilter, Ordered {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    private static final String BUDGET_TAG = "budget";
+    private static final String UNKNOWN_CLIENT = "unknown";
+    private static final long NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /**
+     * The same algorithm as {@link TokenBuckets#tryAcquire} in microseconds; {@code string.format} keeps the arrival
+     * time exact where {@code tostring} would round it.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RedisScript.of("""
+            local interval = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local arrival = tonumber(redis.call('GET', KEYS[1])) or now
+            local next = math.max(arrival, now) + interval
+            local wait = next - now
+            if wait > tolerance then
+                return {0, 0, arrival - now, wait - tolerance}
+            end
+            redis.call('SET', KEYS[1], string.format('%.0f', next), 'PX', math.ceil(wait / 1000))
+            return {1, math.floor((tolerance - wait) / interval), wait, 0}
+            """, List.class);
+
+    private final List<Route> routes;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final BookRateLimitProperties.Redis redis;
+    private final Counter redisErrors;
+
+    /**
+     * {@code redisTemplate} is only used when Redis is enabled and may be null otherwise.
+     */
+    public RateLimitFilter(BookRateLimitProperties properties, ReactiveStringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry) {
+        this.routes = properties.budgets().entrySet().stream()
+                .flatMap(budget -> {
+                    Budget shared = new Budget(budget.getKey(), budget.getValue(), properties.maxClients(), meterRegistry);
+                    return budget.getValue().patterns().stream()
+                            .map(pattern -> new Route(PathPatternParser.defaultInstance.parse(pattern),
+                                    budget.getValue().methods(), shared));
+                })
+                .sorted(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR))
+                .toList();
+        this.apiKeyHeader = properties.apiKeyHeader();
+        this.apiKeys = properties.apiKeys();
+        this.redis = properties.redis();
+        this.redisTemplate = redis.enabled() ? redisTemplate : null;
+        this.redisErrors = Counter.builder("book.rate.limit.redis.errors")
+                .description("Cluster-wide rate limit checks that fell back to the local decision")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Budget budget = find(request);
+        if (budget == null) {
+            return chain.filter(exchange);
+        }
+        Object client = client(request);
+        TokenBuckets.Decision local = budget.buckets.tryAcquire(client, System.nanoTime());
+        if (!local.allowed() || redisTemplate == null) {
+            return apply(budget, local, exchange, chain);
+        }
+        return acquireShared(budget, client)
+                .timeout(redis.timeout())
+                .onErrorResume(e -> {
+                    redisErrors.increment();
+                    log.debug("Falling back to the local rate limit of {}", budget.name, e);
+                    return Mono.just(local);
+                })
+                .flatMap(decision -> apply(budget, decision, exchange, chain));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    private Budget find(ServerHttpRequest request) {
+        for (Route route : routes) {
+            if (route.matches(request)) {
+                return route.budget();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The API key when it is a known one, or else the client address as an {@link InetAddress}, which identifies the
+     * client without formatting a string on every request.
+     */
+    private Object client(ServerHttpRequest request) {
+        String apiKey = request.getHeaders().getFirst(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return apiKey;
+        }
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return UNKNOWN_CLIENT;
+        }
+        return address.getAddress() == null ? address.getHostString() : address.getAddress();
+    }
+
+    private static String clientKey(Object client) {
+        return client instanceof InetAddress address ? "ip:" + address.getHostAddress() : "key:" + client;
+    }
+
+    private Mono<TokenBuckets.Decision> acquireShared(Budget budget, Object client) {
+        return redisTemplate.execute(SCRIPT, List.of(redis.keyPrefix() + budget.name + ":" + clientKey(client)),
+                        List.of(Long.toString(budget.intervalMicros), Long.toString(budget.toleranceMicros)))
+                .next()
+                .map(result -> new TokenBuckets.Decision(((Number) result.get(0)).longValue() == 1,
+                        ((Number) result.get(1)).longValue(),
+                        ((Number) result.get(2)).longValue() * NANOS_PER_MICRO,
+                        ((Number) result.get(3)).longValue() * NANOS_PER_MICRO));
+    }
+
+    private Mono<Void> apply(Budget budget, TokenBuckets.Decision decision, ServerWebExchange exchange,
+            WebFilterChain chain) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(LIMIT_HEADER, budget.limitHeader);
+        headers.set(REMAINING_HEADER, Long.toString(decision.remaining()));
+        headers.set(RESET_HEADER, Long.toString(seconds(decision.resetNanos())));
+        if (decision.allowed()) {
+            return chain.filter(exchange);
+        }
+        budget.rejected.increment();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds(decision.retryAfterNanos()))));
+        return response.setComplete();
+    }
+
+    private static long seconds(long nanos) {
+        return (Math.max(0, nanos) + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private record Route(PathPattern pattern, Set<HttpMethod> methods, Budget budget) {
+
+        boolean matches(ServerHttpRequest request) {
+            return (methods.isEmpty() || methods.contains(request.getMethod()))
+                    && pattern.matches(request.getPath().pathWithinApplication());
+        }
+    }
+
+    private static final class Budget {
+
+        private final String name;
+        private final TokenBuckets buckets;
+        private final String limitHeader;
+        private final long intervalMicros;
+        private final long toleranceMicros;
+        private final Counter rejected;
+
+        Budget(String name, BookRateLimitProperties.Budget budget, long maxClients, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.buckets = new TokenBuckets(budget.limit(), budget.period(), budget.capacity(), maxClients);
+            this.limitHeader = Integer.toString(budget.capacity());
+            this.intervalMicros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(buckets.emissionInterval()));
+            this.toleranceMicros = intervalMicros * budget.capacity();
+            Gauge.builder("book.rate.limit.clients", buckets, TokenBuckets::size)
+                    .description("Clients with a partly used budget")
+                    .tag(BUDGET_TAG, name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("book.rate.limit.rejected")
+                    .tag(BUDGET_TAG, name)
+                    .register(meterRegistry);
+        }
+    }
+}
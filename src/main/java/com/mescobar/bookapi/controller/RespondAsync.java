@@ -0,0 +1,44 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+
+/**
+ * The {@code Prefer: respond-async} preference of RFC 7240, which asks for a create to be acknowledged before it
+ * reaches the database.
+ */
+final class RespondAsync {
+
+    static final String PREFER_HEADER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private RespondAsync() {
+    }
+
+    /**
+     * Whether {@code prefer}, the comma-separated preferences of every {@code Prefer} header, holds
+     * {@code respond-async} among others such as {@code wait=5}.
+     */
+    static boolean requested(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            String token = preference.split("[;=]", 2)[0].trim();
+            if (token.equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity<BookResponse> accepted(BookResponse book) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/books/" + book.id()))
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(book);
+    }
+}
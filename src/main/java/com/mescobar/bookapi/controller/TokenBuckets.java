@@ -0,0 +1,65 @@
+package com.mescobar.bookapi.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by client, kept with the generic cell rate algorithm: a bucket is only the theoretical arrival
+ * time of the next request, moved forward by compare-and-set, so a decision takes no lock. Beyond {@code maxKeys}
+ * clients the least valuable buckets are evicted, which at worst hands an idle client a full bucket again.
+ */
+public final class TokenBuckets {
+
+    /**
+     * Whether a request may proceed, how many more could follow at once, and the time until the bucket is full again
+     * and, when rejected, until the next request would be allowed.
+     */
+    public record Decision(boolean allowed, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    private final long emissionInterval;
+    private final long tolerance;
+    private final Cache<Object, AtomicLong> buckets;
+
+    public TokenBuckets(int limit, Duration period, int capacity, long maxKeys) {
+        this.emissionInterval = Math.max(1, period.toNanos() / limit);
+        this.tolerance = emissionInterval * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key} at {@code now}, a {@link System#nanoTime()} reading. Keys are
+     * compared with {@code equals}, so any value object identifying a client will do.
+     */
+    public Decision tryAcquire(Object key, long now) {
+        AtomicLong bucket = buckets.get(key, ignored -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + emissionInterval;
+            long wait = next - now;
+            if (wait > tolerance) {
+                return new Decision(false, 0, arrival - now, wait - tolerance);
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return new Decision(true, (tolerance - wait) / emissionInterval, wait, 0);
+            }
+        }
+    }
+
+    long emissionInterval() {
+        return emissionInterval;
+    }
+
+    long tolerance() {
+        return tolerance;
+    }
+
+    long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,8 @@
+package com.mescobar.bookapi.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mescobar.bookapi.model.BookChange;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookChangeResponse(BookChange.Operation operation, String id, BookResponse book, String resumeToken) {
+}
@@ -0,0 +1,14 @@
+package com.mescobar.bookapi.controller.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import. {@code rejections} details the first rejected rows by line number, up to the
+ * configured limit, while {@code rejected} counts all of them. {@code complete} is false when an ordered import
+ * stopped at a failed write and left the rest of the file unread.
+ */
+public record BookImportReport(long accepted, long rejected, List<Rejection> rejections, boolean complete) {
+
+    public record Rejection(long line, String reason) {
+    }
+}
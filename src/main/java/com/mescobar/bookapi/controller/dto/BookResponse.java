@@ -1,6 +1,9 @@
 package com.mescobar.bookapi.controller.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.io.Serializable;
 
-public record BookResponse(String id, String title, String author, Integer year) implements Serializable {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookResponse(String id, String title, String author, Integer year, Long version) implements Serializable {
 }
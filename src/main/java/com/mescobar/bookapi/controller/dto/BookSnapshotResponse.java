@@ -0,0 +1,10 @@
+package com.mescobar.bookapi.controller.dto;
+
+import java.time.Instant;
+
+/**
+ * A catalog snapshot: the books modified after {@code since}, or all of them for a full snapshot, as of
+ * {@code upTo}. {@code size} is the file size in bytes.
+ */
+public record BookSnapshotResponse(String name, boolean incremental, Instant since, Instant upTo, long books, long size) {
+}
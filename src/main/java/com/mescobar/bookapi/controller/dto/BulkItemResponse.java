@@ -0,0 +1,19 @@
+package com.mescobar.bookapi.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResponse(long index, String id, Status status, BookResponse book, String error) {
+
+    public enum Status {
+        FOUND, CREATED, UPDATED, DELETED, NOT_FOUND, INVALID, FAILED
+    }
+
+    public static BulkItemResponse success(long index, Status status, BookResponse book) {
+        return new BulkItemResponse(index, book.id(), status, book, null);
+    }
+
+    public static BulkItemResponse failure(long index, String id, Status status, String error) {
+        return new BulkItemResponse(index, id, status, null, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.mescobar.bookapi.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+public record BulkUpdateBookRequest(
+        @Schema(example = "65a0f1c2e4b0a1b2c3d4e5f6") @NotBlank String id,
+        String title,
+        String author,
+        Integer year) {
+}
@@ -0,0 +1,10 @@
+package com.mescobar.bookapi.controller.dto;
+
+/**
+ * A frequently read book: {@code hits} is its estimated number of reads and {@code hitRate} its share of all reads,
+ * both over the sketch's decaying window.
+ */
+public record HotBookResponse(String id, long hits, double hitRate, boolean pinned) {
+
+    public static final int MAX_LIMIT = 1000;
+}
@@ -0,0 +1,16 @@
+package com.mescobar.bookapi.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record MultiGetBookRequest(
+        @ArraySchema(schema = @Schema(example = "65a0f1c2e4b0a1b2c3d4e5f6"))
+        @NotEmpty @Size(max = MultiGetBookRequest.MAX_IDS) List<@NotBlank String> ids) {
+
+    public static final int MAX_IDS = 1000;
+}
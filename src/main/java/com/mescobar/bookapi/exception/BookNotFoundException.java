@@ -7,6 +7,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class BookNotFoundException extends RuntimeException{
 
     public BookNotFoundException(String id) {
-        super("Book with id %s not found.".formatted(id));
+        super("Book with id %s not found.".formatted(id), null, false, false);
     }
 }
@@ -0,0 +1,12 @@
+package com.mescobar.bookapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BookSnapshotNotFoundException extends RuntimeException {
+
+    public BookSnapshotNotFoundException(String name) {
+        super("Snapshot %s not found.".formatted(name), null, false, false);
+    }
+}
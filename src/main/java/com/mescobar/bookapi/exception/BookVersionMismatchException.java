@@ -0,0 +1,12 @@
+package com.mescobar.bookapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class BookVersionMismatchException extends RuntimeException {
+
+    public BookVersionMismatchException(String id) {
+        super("Book with id %s is not at the expected version.".formatted(id), null, false, false);
+    }
+}
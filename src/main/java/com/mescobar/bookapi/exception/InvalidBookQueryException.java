@@ -0,0 +1,12 @@
+package com.mescobar.bookapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBookQueryException extends RuntimeException {
+
+    public InvalidBookQueryException(String message) {
+        super(message);
+    }
+}
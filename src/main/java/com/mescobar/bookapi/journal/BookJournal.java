@@ -0,0 +1,399 @@
+package com.mescobar.bookapi.journal;
+
+import com.mescobar.bookapi.config.BookJournalProperties;
+import com.mescobar.bookapi.model.Book;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log of books accepted for asynchronous creation.
+ * Appends go to memory-mapped segment files and complete once a periodic force has made them durable, so concurrent
+ * appends share one fsync. A force that fails is retried by the next one with its appends still waiting: their
+ * records are written and will be drained, so failing them would have clients retry and create the books twice.
+ * The checkpoint is the position up to which records are known to be in Mongo: the drainer
+ * reads from it and moves it forward with {@link #commit(Batch)}, and on open everything after it is replayed. A torn
+ * record at the tail, left by a crash mid-append, is discarded.
+ * <p>
+ * A record is {@code [length][crc32][payload]}; a zero length ends the records of a segment.
+ */
+@Slf4j
+public class BookJournal implements Closeable {
+
+    static final String CHECKPOINT_FILE = "checkpoint";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int HEADER_BYTES = 8;
+    private static final int NULL_LENGTH = -1;
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    /**
+     * Books read from the checkpoint on, and the position to commit once they are in Mongo.
+     */
+    public record Batch(List<Book> books, long end) {
+
+        public boolean isEmpty() {
+            return books.isEmpty();
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final Object lock = new Object();
+    private final List<MonoSink<Void>> unsynced = new ArrayList<>();
+    private final List<MappedByteBuffer> rolled = new ArrayList<>();
+    private final AtomicLong lag = new AtomicLong();
+    private final ScheduledExecutorService syncer;
+    private final Consumer<MappedByteBuffer> force;
+    private final Timer syncTimer;
+    private long writePosition;
+    private boolean closed;
+    private volatile long syncedPosition;
+    private volatile long checkpoint;
+
+    public BookJournal(BookJournalProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this(properties, meterRegistry, MappedByteBuffer::force);
+    }
+
+    BookJournal(BookJournalProperties properties, MeterRegistry meterRegistry, Consumer<MappedByteBuffer> force)
+            throws IOException {
+        this.force = force;
+        this.directory = properties.directory();
+        this.segmentSize = Math.toIntExact(properties.segmentSize().toBytes());
+        Files.createDirectories(directory);
+        this.checkpoint = readCheckpoint();
+        openSegments();
+        recover();
+
+        this.syncTimer = Timer.builder("book.journal.sync")
+                .description("Time to force appended books to disk")
+                .register(meterRegistry);
+        Gauge.builder("book.journal.lag", lag, AtomicLong::get)
+                .description("Books journaled but not yet drained to Mongo")
+                .register(meterRegistry);
+        Gauge.builder("book.journal.lag.bytes", this, journal -> journal.syncedPosition - journal.checkpoint)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("book-journal-sync-");
+        threadFactory.setDaemon(true);
+        this.syncer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long interval = properties.syncInterval().toNanos();
+        syncer.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Appends {@code book}, which must carry its pre-assigned id, completing once it is on disk. Completion is
+     * published on the parallel scheduler, since one fsync completes every append it covers and the sync thread would
+     * otherwise run all of their callers' work in turn.
+     */
+    public Mono<Void> append(Book book) {
+        return Mono.<Void>create(sink -> {
+            try {
+                byte[] payload = encode(book);
+                synchronized (lock) {
+                    if (closed) {
+                        throw new IllegalStateException("Book journal is closed");
+                    }
+                    write(payload);
+                    unsynced.add(sink);
+                }
+            } catch (IOException | RuntimeException e) {
+                sink.error(e);
+            }
+        }).publishOn(Schedulers.parallel());
+    }
+
+    /**
+     * Reads up to {@code max} durable books from the checkpoint on, without moving it.
+     */
+    public Batch read(int max) {
+        long position = checkpoint;
+        long limit = syncedPosition;
+        List<Book> books = new ArrayList<>();
+        while (books.size() < max && position < limit) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(position);
+            MappedByteBuffer buffer = segment.getValue();
+            int offset = (int) (position - segment.getKey());
+            int length = offset + HEADER_BYTES > segmentSize ? 0 : buffer.getInt(offset);
+            if (length == 0) {
+                position = segment.getKey() + segmentSize;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            books.add(decode(payload));
+            position += HEADER_BYTES + length;
+        }
+        return new Batch(books, position);
+    }
+
+    /**
+     * Moves the checkpoint past {@code batch} and deletes the segments that are fully drained.
+     */
+    public void commit(Batch batch) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, batch.end()));
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = batch.end();
+        lag.addAndGet(-batch.books().size());
+
+        for (Long base : segments.headMap(segments.lastKey()).keySet()) {
+            if (base + segmentSize <= checkpoint) {
+                segments.remove(base);
+                Files.deleteIfExists(segmentPath(base));
+            }
+        }
+    }
+
+    public long lag() {
+        return lag.get();
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        syncer.shutdown();
+        try {
+            syncer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+    }
+
+    /**
+     * Forces everything appended so far and acknowledges the appends it covers.
+     */
+    void sync() {
+        List<MonoSink<Void>> sinks;
+        List<MappedByteBuffer> buffers;
+        long position;
+        synchronized (lock) {
+            if (writePosition == syncedPosition) {
+                return;
+            }
+            sinks = new ArrayList<>(unsynced);
+            unsynced.clear();
+            buffers = new ArrayList<>(rolled);
+            rolled.clear();
+            buffers.add(segments.lastEntry().getValue());
+            position = writePosition;
+        }
+        try {
+            syncTimer.record(() -> buffers.forEach(force));
+            syncedPosition = position;
+            sinks.forEach(MonoSink::success);
+        } catch (RuntimeException e) {
+            log.error("Failed to force {} journaled books to disk, retrying", sinks.size(), e);
+            synchronized (lock) {
+                rolled.addAll(0, buffers.subList(0, buffers.size() - 1));
+                unsynced.addAll(0, sinks);
+            }
+        }
+    }
+
+    private void write(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Book of %d bytes does not fit a journal segment".formatted(size));
+        }
+        Map.Entry<Long, MappedByteBuffer> segment = segments.lastEntry();
+        int offset = (int) (writePosition - segment.getKey());
+        if (offset + size > segmentSize) {
+            rolled.add(segment.getValue());
+            long base = segment.getKey() + segmentSize;
+            segments.put(base, map(base));
+            segment = segments.lastEntry();
+            offset = 0;
+            writePosition = base;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        MappedByteBuffer buffer = segment.getValue();
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        buffer.put(offset + HEADER_BYTES, payload);
+        // the length goes last so a record is only visible once it is complete
+        buffer.putInt(offset, payload.length);
+        writePosition += size;
+        lag.incrementAndGet();
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        return Files.exists(file) ? ByteBuffer.wrap(Files.readAllBytes(file)).getLong() : 0;
+    }
+
+    private void openSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                if (base + segmentSize <= checkpoint) {
+                    Files.delete(file);
+                } else {
+                    segments.put(base, map(base));
+                }
+            }
+        }
+        if (segments.isEmpty() || segments.firstKey() > checkpoint) {
+            segments.put(checkpoint, map(checkpoint));
+        }
+    }
+
+    /**
+     * Scans from the checkpoint to the last complete record, which becomes the write position.
+     */
+    private void recover() {
+        long position = checkpoint;
+        long records = 0;
+        while (true) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(position);
+            int offset = (int) (position - segment.getKey());
+            int length = validLength(segment.getValue(), offset);
+            if (length > 0) {
+                position += HEADER_BYTES + length;
+                records++;
+                continue;
+            }
+            Long next = segments.higherKey(segment.getKey());
+            if (length < 0) {
+                log.warn("Discarding torn journal record at {}", position);
+                MappedByteBuffer buffer = segment.getValue();
+                for (int i = offset; i < segmentSize; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+            }
+            if (next == null) {
+                break;
+            }
+            position = next;
+        }
+        writePosition = position;
+        syncedPosition = position;
+        lag.set(records);
+        if (records > 0) {
+            log.info("Replaying {} journaled books from position {}", records, checkpoint);
+        }
+    }
+
+    /**
+     * Returns the payload length of a complete record at {@code offset}, 0 at the end of the records, or -1 when
+     * the record is torn.
+     */
+    private int validLength(MappedByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > segmentSize) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || offset + HEADER_BYTES + length > segmentSize) {
+            return -1;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES) ? length : -1;
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(base), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve("%020d%s".formatted(base, SEGMENT_SUFFIX));
+    }
+
+    static byte[] encode(Book book) {
+        byte[] title = bytes(book.getTitle());
+        byte[] author = bytes(book.getAuthor());
+        ByteBuffer buffer = ByteBuffer.allocate(12 + Integer.BYTES * 3 + length(title) + length(author));
+        buffer.put(new ObjectId(book.getId()).toByteArray());
+        buffer.putInt(book.getYear() == null ? NO_YEAR : book.getYear());
+        put(buffer, title);
+        put(buffer, author);
+        return buffer.array();
+    }
+
+    static Book decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte[] id = new byte[12];
+        buffer.get(id);
+        int year = buffer.getInt();
+        return Book.builder()
+                .id(new ObjectId(id).toHexString())
+                .year(year == NO_YEAR ? null : year)
+                .title(string(buffer))
+                .author(string(buffer))
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes == null ? NULL_LENGTH : bytes.length);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
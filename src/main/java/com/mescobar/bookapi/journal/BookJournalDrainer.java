@@ -0,0 +1,136 @@
+package com.mescobar.bookapi.journal;
+
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookJournalProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.FailedJournalBook;
+import com.mescobar.bookapi.repository.BookRepository;
+import com.mescobar.bookapi.repository.FailedJournalBookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the {@link BookJournal} to Mongo with one unordered bulk insert per batch, moving the checkpoint forward
+ * only once the insert has completed. A batch that fails as a whole is retried on the next tick; books rejected as
+ * duplicates were inserted before a crash or restart cut the previous commit short and count as drained. Books
+ * rejected for any other reason were already acknowledged, so they are dead-lettered to {@link FailedJournalBook}
+ * before the checkpoint moves past them, and the batch is retried if that fails too.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "book-api.journal", name = "enabled")
+public class BookJournalDrainer implements InitializingBean, DisposableBean {
+
+    private static final String DUPLICATE_KEY = "E11000";
+
+    private final BookJournal journal;
+    private final BookRepository bookRepository;
+    private final FailedJournalBookRepository failedJournalBookRepository;
+    private final BookCache bookCache;
+    private final MissingBookCache missingBookCache;
+    private final BookMapper bookMapper;
+    private final BookJournalProperties properties;
+    private final Counter inserted;
+    private final Counter duplicates;
+    private final Counter rejected;
+    private Disposable subscription;
+
+    public BookJournalDrainer(BookJournal journal, BookRepository bookRepository,
+            FailedJournalBookRepository failedJournalBookRepository, BookCache bookCache,
+            MissingBookCache missingBookCache, BookMapper bookMapper, BookJournalProperties properties,
+            MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.bookRepository = bookRepository;
+        this.failedJournalBookRepository = failedJournalBookRepository;
+        this.bookCache = bookCache;
+        this.missingBookCache = missingBookCache;
+        this.bookMapper = bookMapper;
+        this.properties = properties;
+        this.inserted = drained(meterRegistry, "inserted");
+        this.duplicates = drained(meterRegistry, "duplicate");
+        this.rejected = drained(meterRegistry, "rejected");
+    }
+
+    private static Counter drained(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("book.journal.drained")
+                .description("Journaled books drained to Mongo")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = Flux.interval(properties.drainInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> drain().onErrorResume(e -> {
+                    log.warn("Failed to drain {} journaled books, retrying", journal.lag(), e);
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Drains batches until the journal has no more durable books.
+     */
+    Mono<Void> drain() {
+        return Mono.fromCallable(() -> journal.read(properties.drainBatchSize()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(batch -> !batch.isEmpty())
+                .flatMap(batch -> bookRepository.bulkInsert(batch.books())
+                        .flatMap(errors -> apply(batch, errors))
+                        .then(Mono.defer(this::drain)));
+    }
+
+    private Mono<Void> apply(BookJournal.Batch batch, Map<Integer, String> errors) {
+        List<BookResponse> created = new ArrayList<>(batch.books().size());
+        List<FailedJournalBook> failed = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < batch.books().size(); i++) {
+            Book book = batch.books().get(i);
+            String error = errors.get(i);
+            if (error == null) {
+                created.add(bookMapper.toBookResponse(book));
+            } else if (error.contains(DUPLICATE_KEY)) {
+                duplicates.increment();
+            } else {
+                log.warn("Dead-lettering journaled book {}: {}", book.getId(), error);
+                failed.add(new FailedJournalBook(book.getId(), book, error, now));
+            }
+        }
+        return failedJournalBookRepository.saveAll(failed)
+                .then(Mono.fromCallable(() -> {
+                    journal.commit(batch);
+                    return batch;
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .then(Mono.defer(() -> {
+                    inserted.increment(created.size());
+                    rejected.increment(failed.size());
+                    missingBookCache.invalidateAll(created.stream().map(BookResponse::id).toList());
+                    return bookCache.putAll(created);
+                }));
+    }
+}
@@ -0,0 +1,101 @@
+package com.mescobar.bookapi.mapper;
+
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.exception.InvalidBookImportException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads {@link CreateBookRequest}s from CSV rows laid out by a header row naming the {@code title}, {@code author}
+ * and optional {@code year} columns, in any order. Fields may be quoted as in RFC 4180, but a quoted field cannot
+ * span lines. Unknown columns are ignored.
+ */
+public final class BookCsvReader {
+
+    public static final String MEDIA_TYPE = "text/csv";
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final int columns;
+    private final int title;
+    private final int author;
+    private final int year;
+
+    private BookCsvReader(int columns, int title, int author, int year) {
+        this.columns = columns;
+        this.title = title;
+        this.author = author;
+        this.year = year;
+    }
+
+    public static BookCsvReader fromHeader(String header) {
+        List<String> names;
+        try {
+            names = split(!header.isEmpty() && header.charAt(0) == BYTE_ORDER_MARK ? header.substring(1) : header)
+                    .stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidBookImportException("Invalid CSV header: " + e.getMessage());
+        }
+        if (!names.contains("title") || !names.contains("author")) {
+            throw new InvalidBookImportException("CSV header must name the title and author columns.");
+        }
+        return new BookCsvReader(names.size(), names.indexOf("title"), names.indexOf("author"), names.indexOf("year"));
+    }
+
+    /**
+     * Reads one row, throwing {@link IllegalArgumentException} with the reason when it cannot be read.
+     */
+    public CreateBookRequest read(String row) {
+        List<String> fields = split(row);
+        if (fields.size() != columns) {
+            throw new IllegalArgumentException("expected %d fields but found %d".formatted(columns, fields.size()));
+        }
+        return new CreateBookRequest(fields.get(title), fields.get(author), year < 0 ? null : parseYear(fields.get(year)));
+    }
+
+    private static Integer parseYear(String field) {
+        if (field.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("year: must be a whole number");
+        }
+    }
+
+    static List<String> split(String row) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,14 +1,23 @@
 package com.mescobar.bookapi.mapper;
 
+import com.mescobar.bookapi.controller.dto.BookChangeResponse;
 import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkUpdateBookRequest;
 import com.mescobar.bookapi.controller.dto.CreateBookRequest;
 import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
 import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
 
 public interface BookMapper {
     Book toBook(CreateBookRequest createBookRequest);
 
+    Book toBook(UpdateBookRequest updateBookRequest);
+
+    Book toBook(BulkUpdateBookRequest bulkUpdateBookRequest);
+
     void updateBookFromUpdateBookRequest(UpdateBookRequest updateBookRequest, Book book);
 
     BookResponse toBookResponse(Book book);
+
+    BookChangeResponse toBookChangeResponse(BookChange bookChange);
 }
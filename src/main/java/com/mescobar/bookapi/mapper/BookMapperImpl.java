@@ -1,9 +1,12 @@
 package com.mescobar.bookapi.mapper;
 
+import com.mescobar.bookapi.controller.dto.BookChangeResponse;
 import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkUpdateBookRequest;
 import com.mescobar.bookapi.controller.dto.CreateBookRequest;
 import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
 import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -21,6 +24,31 @@ public class BookMapperImpl implements BookMapper{
                 .build();
     }
 
+    @Override
+    public Book toBook(UpdateBookRequest updateBookRequest) {
+        if (updateBookRequest == null) {
+            return null;
+        }
+        return Book.builder()
+                .title(updateBookRequest.title())
+                .author(updateBookRequest.author())
+                .year(updateBookRequest.year())
+                .build();
+    }
+
+    @Override
+    public Book toBook(BulkUpdateBookRequest bulkUpdateBookRequest) {
+        if (bulkUpdateBookRequest == null) {
+            return null;
+        }
+        return Book.builder()
+                .id(bulkUpdateBookRequest.id())
+                .title(bulkUpdateBookRequest.title())
+                .author(bulkUpdateBookRequest.author())
+                .year(bulkUpdateBookRequest.year())
+                .build();
+    }
+
     @Override
     public void updateBookFromUpdateBookRequest(UpdateBookRequest updateBookRequest, Book book) {
         if (updateBookRequest == null) {
@@ -42,6 +70,15 @@ public class BookMapperImpl implements BookMapper{
         if (book == null) {
             return null;
         }
-        return new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getYear());
+        return new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getYear(), book.getVersion());
+    }
+
+    @Override
+    public BookChangeResponse toBookChangeResponse(BookChange bookChange) {
+        if (bookChange == null) {
+            return null;
+        }
+        return new BookChangeResponse(bookChange.operation(), bookChange.id(), toBookResponse(bookChange.book()),
+                bookChange.resumeToken());
     }
 }
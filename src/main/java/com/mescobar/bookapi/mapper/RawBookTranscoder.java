@@ -0,0 +1,240 @@
+package com.mescobar.bookapi.mapper;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.types.Decimal128;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes books straight from their raw BSON bytes as NDJSON lines shaped like {@link BookResponse}, without decoding
+ * them into entities or DTOs first. Strings are copied byte for byte apart from JSON escapes, and fields are emitted
+ * in {@code BookResponse} order with missing or null values left out, so the output matches the Jackson encoding.
+ * Numbers stored as doubles or decimals, as shells and other drivers write them, are truncated to whole numbers the
+ * way the entity mapping converts them.
+ */
+public final class RawBookTranscoder {
+
+    /**
+     * The stored fields a book line is built from, to be used as the projection of the export query.
+     */
+    public static final List<String> FIELDS = List.of("_id", "title", "author", "year", "version");
+
+    private static final int FIELD_COUNT = FIELDS.size();
+    private static final byte[][] NAMES = new byte[FIELD_COUNT][];
+    private static final byte[][] KEYS = new byte[FIELD_COUNT][];
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ESCAPE_HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int ESTIMATED_LINE_SIZE = 128;
+    private static final int OBJECT_ID_SIZE = 12;
+
+    static {
+        String[] keys = {"id", "title", "author", "year", "version"};
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            NAMES[i] = FIELDS.get(i).getBytes(StandardCharsets.UTF_8);
+            KEYS[i] = ("\"" + keys[i] + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private RawBookTranscoder() {
+    }
+
+    /**
+     * Packs {@code booksPerBuffer} lines into each buffer taken from {@code bufferFactory}, which on Netty hands out
+     * pooled buffers that are released once written to the connection.
+     */
+    public static Flux<DataBuffer> toNdjson(Flux<RawBsonDocument> books, DataBufferFactory bufferFactory,
+            int booksPerBuffer) {
+        return books.buffer(booksPerBuffer).map(batch -> write(batch, bufferFactory));
+    }
+
+    public static DataBuffer write(List<RawBsonDocument> books, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(books.size() * ESTIMATED_LINE_SIZE);
+        try {
+            for (RawBsonDocument book : books) {
+                write(book, buffer);
+            }
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    public static void write(RawBsonDocument book, DataBuffer out) {
+        ByteBuffer bson = book.getByteBuffer().asNIO();
+        byte[] bytes = bson.array();
+        int start = bson.arrayOffset() + bson.position();
+        int end = start + readInt32(bytes, start) - 1;
+        int[] values = new int[FIELD_COUNT];
+        byte[] types = new byte[FIELD_COUNT];
+
+        int position = start + 4;
+        while (position < end && bytes[position] != 0) {
+            byte type = bytes[position];
+            int nameStart = position + 1;
+            int nameEnd = nameStart;
+            while (bytes[nameEnd] != 0) {
+                nameEnd++;
+            }
+            int value = nameEnd + 1;
+            int field = field(bytes, nameStart, nameEnd);
+            if (field >= 0) {
+                values[field] = value;
+                types[field] = type;
+            }
+            position = value + valueSize(bytes, value, type);
+        }
+
+        out.write((byte) '{');
+        boolean first = true;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            byte type = types[field];
+            if (type == 0 || type == BsonType.NULL.getValue()) {
+                continue;
+            }
+            if (!first) {
+                out.write((byte) ',');
+            }
+            first = false;
+            out.write(KEYS[field]);
+            writeValue(bytes, values[field], type, FIELDS.get(field), out);
+        }
+        out.write((byte) '}');
+        out.write((byte) '\n');
+    }
+
+    private static int field(byte[] bytes, int nameStart, int nameEnd) {
+        int length = nameEnd - nameStart;
+        for (int field = 0; field < NAMES.length; field++) {
+            byte[] name = NAMES[field];
+            if (name.length == length && equals(bytes, nameStart, name)) {
+                return field;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean equals(byte[] bytes, int offset, byte[] name) {
+        for (int i = 0; i < name.length; i++) {
+            if (bytes[offset + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int valueSize(byte[] bytes, int value, byte type) {
+        return switch (bsonType(type)) {
+            case DOUBLE, DATE_TIME, TIMESTAMP, INT64 -> 8;
+            case STRING, JAVASCRIPT, SYMBOL -> 4 + readInt32(bytes, value);
+            case DOCUMENT, ARRAY, JAVASCRIPT_WITH_SCOPE -> readInt32(bytes, value);
+            case BINARY -> 5 + readInt32(bytes, value);
+            case OBJECT_ID -> OBJECT_ID_SIZE;
+            case BOOLEAN -> 1;
+            case INT32 -> 4;
+            case DECIMAL128 -> 16;
+            case NULL, UNDEFINED, MIN_KEY, MAX_KEY -> 0;
+            default -> throw new IllegalStateException("Unsupported BSON type 0x%02x in a book".formatted(type));
+        };
+    }
+
+    private static void writeValue(byte[] bytes, int value, byte type, String field, DataBuffer out) {
+        switch (bsonType(type)) {
+            case STRING -> writeString(bytes, value + 4, readInt32(bytes, value) - 1, out);
+            case OBJECT_ID -> writeObjectId(bytes, value, out);
+            case INT32 -> writeLong(readInt32(bytes, value), out);
+            case INT64 -> writeLong(readInt64(bytes, value), out);
+            case DOUBLE -> writeLong((long) Double.longBitsToDouble(readInt64(bytes, value)), out);
+            case DECIMAL128 -> writeLong(Decimal128.fromIEEE754BIDEncoding(readInt64(bytes, value + 8), readInt64(bytes, value))
+                    .bigDecimalValue().longValue(), out);
+            default -> throw new IllegalStateException("Cannot export BSON type 0x%02x of book field %s"
+                    .formatted(type, field));
+        }
+    }
+
+    private static void writeString(byte[] bytes, int offset, int length, DataBuffer out) {
+        out.write((byte) '"');
+        int run = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int b = bytes[i] & 0xFF;
+            if (b >= 0x20 && b != '"' && b != '\\') {
+                continue;
+            }
+            out.write(bytes, run, i - run);
+            run = i + 1;
+            out.write((byte) '\\');
+            switch (b) {
+                case '"', '\\' -> out.write((byte) b);
+                case '\b' -> out.write((byte) 'b');
+                case '\t' -> out.write((byte) 't');
+                case '\n' -> out.write((byte) 'n');
+                case '\f' -> out.write((byte) 'f');
+                case '\r' -> out.write((byte) 'r');
+                default -> {
+                    out.write((byte) 'u');
+                    out.write((byte) '0');
+                    out.write((byte) '0');
+                    out.write(ESCAPE_HEX[b >> 4]);
+                    out.write(ESCAPE_HEX[b & 0xF]);
+                }
+            }
+        }
+        out.write(bytes, run, end - run);
+        out.write((byte) '"');
+    }
+
+    private static void writeObjectId(byte[] bytes, int offset, DataBuffer out) {
+        out.write((byte) '"');
+        for (int i = offset; i < offset + OBJECT_ID_SIZE; i++) {
+            out.write(HEX[(bytes[i] >> 4) & 0xF]);
+            out.write(HEX[bytes[i] & 0xF]);
+        }
+        out.write((byte) '"');
+    }
+
+    private static void writeLong(long value, DataBuffer out) {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            out.write((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.write((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static BsonType bsonType(byte type) {
+        BsonType bsonType = BsonType.findByValue(type);
+        if (bsonType == null) {
+            throw new IllegalStateException("Unknown BSON type 0x%02x in a book".formatted(type));
+        }
+        return bsonType;
+    }
+
+    private static int readInt32(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    private static long readInt64(byte[] bytes, int offset) {
+        return (readInt32(bytes, offset) & 0xFFFFFFFFL) | (long) readInt32(bytes, offset + 4) << 32;
+    }
+}
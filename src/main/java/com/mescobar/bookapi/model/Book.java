@@ -5,19 +5,42 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Document(collection = "books")
+@CompoundIndex(name = Book.TITLE_ID_INDEX, def = "{'title': 1, '_id': 1}")
+@CompoundIndex(name = "author_id", def = "{'author': 1, '_id': 1}")
+@CompoundIndex(name = Book.YEAR_ID_INDEX, def = "{'year': 1, '_id': 1}")
+@CompoundIndex(name = Book.AUTHOR_YEAR_INDEX, def = "{'author': 1, 'year': 1}")
 public class Book {
 
+    public static final String TITLE_ID_INDEX = "title_id";
+    public static final String YEAR_ID_INDEX = "year_id";
+    public static final String AUTHOR_YEAR_INDEX = "author_year";
+
     @Id
     private String id;
 
+    @TextIndexed
     private String title;
     private String author;
     private Integer year;
+
+    @Version
+    private Long version;
+
+    @LastModifiedDate
+    @Indexed
+    private Instant lastModified;
 }
@@ -0,0 +1,33 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.regex.Pattern;
+
+/**
+ * A single write to the books collection as seen by its change stream. {@code book} is the document after the
+ * change, or {@code null} for deletes and for updates whose document is already gone.
+ */
+public record BookChange(Operation operation, String id, Book book, String resumeToken) {
+
+    private static final String TOKEN_DATA = "_data";
+    private static final Pattern TOKEN = Pattern.compile("[0-9A-Fa-f]+");
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE, INVALIDATE
+    }
+
+    public static String encodeResumeToken(BsonValue token) {
+        return token.asDocument().getString(TOKEN_DATA).getValue();
+    }
+
+    public static BsonDocument decodeResumeToken(String token) {
+        if (!TOKEN.matcher(token).matches()) {
+            throw new InvalidBookQueryException("Invalid resume token.");
+        }
+        return new BsonDocument(TOKEN_DATA, new BsonString(token));
+    }
+}
@@ -0,0 +1,39 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record BookCursor(BookSort sort, String id, Object value) {
+
+    private static final char SEPARATOR = '\n';
+    private static final char NULL_VALUE = '-';
+    private static final char PRESENT_VALUE = '=';
+
+    public static BookCursor of(BookSort sort, Book book) {
+        return new BookCursor(sort, book.getId(), sort == BookSort.ID ? null : sort.valueOf(book));
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + id + SEPARATOR + (value == null ? NULL_VALUE : PRESENT_VALUE + value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0 || second == raw.length() - 1) {
+                throw new InvalidBookQueryException("Invalid cursor.");
+            }
+            BookSort sort = BookSort.valueOf(raw.substring(0, first));
+            String id = raw.substring(first + 1, second);
+            String value = raw.substring(second + 1);
+            return new BookCursor(sort, id, value.charAt(0) == NULL_VALUE ? null : sort.parse(value.substring(1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidBookQueryException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public record BookPageRequest(BookCursor after, int limit, BookSort sort, Set<String> fields) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "title", "author", "year");
+
+    public static BookPageRequest of(String after, Integer limit, String sort, Collection<String> fields) {
+        BookSort bookSort = BookSort.fromParameter(sort);
+        BookCursor cursor = after == null ? null : BookCursor.decode(after);
+        if (cursor != null && cursor.sort() != bookSort) {
+            throw new InvalidBookQueryException("Cursor was issued for sort '%s'.".formatted(cursor.sort().getProperty()));
+        }
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new InvalidBookQueryException("Limit must be between 1 and %d.".formatted(MAX_LIMIT));
+        }
+        Set<String> projection = new LinkedHashSet<>();
+        if (fields != null) {
+            for (String field : fields) {
+                if (!PROJECTABLE_FIELDS.contains(field)) {
+                    throw new InvalidBookQueryException("Unknown field '%s'.".formatted(field));
+                }
+                projection.add(field);
+            }
+        }
+        return new BookPageRequest(cursor, pageSize, bookSort, Set.copyOf(projection));
+    }
+}
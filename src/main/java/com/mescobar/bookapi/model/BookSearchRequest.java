@@ -0,0 +1,43 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+
+public record BookSearchRequest(String title, String author, Integer yearFrom, Integer yearTo, String text, int limit) {
+
+    public static BookSearchRequest of(String title, String author, Integer yearFrom, Integer yearTo, String text,
+            Integer limit) {
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new InvalidBookQueryException("yearFrom must not be greater than yearTo.");
+        }
+        int size = limit == null ? BookPageRequest.DEFAULT_LIMIT : limit;
+        if (size < 1 || size > BookPageRequest.MAX_LIMIT) {
+            throw new InvalidBookQueryException("Limit must be between 1 and %d.".formatted(BookPageRequest.MAX_LIMIT));
+        }
+        return new BookSearchRequest(trimToNull(title), trimToNull(author), yearFrom, yearTo, trimToNull(text), size);
+    }
+
+    public boolean hasYearRange() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    public boolean isIndexed() {
+        return text != null || indexHint() != null;
+    }
+
+    public String indexHint() {
+        if (text != null) {
+            return null;
+        }
+        if (author != null) {
+            return Book.AUTHOR_YEAR_INDEX;
+        }
+        if (title != null) {
+            return Book.TITLE_ID_INDEX;
+        }
+        return hasYearRange() ? Book.YEAR_ID_INDEX : null;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,40 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public enum BookSort {
+    ID("id", Book::getId, value -> value),
+    TITLE("title", Book::getTitle, value -> value),
+    AUTHOR("author", Book::getAuthor, value -> value),
+    YEAR("year", Book::getYear, Integer::valueOf);
+
+    private final String property;
+    private final Function<Book, Object> extractor;
+    private final Function<String, Object> parser;
+
+    public Object valueOf(Book book) {
+        return extractor.apply(book);
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static BookSort fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        for (BookSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new InvalidBookQueryException("Unsupported sort '%s'.".formatted(value));
+    }
+}
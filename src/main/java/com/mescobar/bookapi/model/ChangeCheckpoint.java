@@ -0,0 +1,25 @@
+package com.mescobar.bookapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "change_checkpoints")
+public class ChangeCheckpoint {
+
+    @Id
+    private String id;
+
+    private String resumeToken;
+    private Instant updatedAt;
+
+    private String owner;
+    private Instant leaseExpiresAt;
+}
@@ -0,0 +1,27 @@
+package com.mescobar.bookapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A journaled book that Mongo refused for a reason other than a duplicate id, kept with the refusal so that a book
+ * acknowledged to its client is never dropped silently.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "book_journal_failures")
+public class FailedJournalBook {
+
+    @Id
+    private String id;
+
+    private Book book;
+    private String error;
+    private Instant failedAt;
+}
@@ -0,0 +1,65 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Synchronous counterpart of {@link BookRepository} on the blocking Mongo driver, used by the {@code blocking} profile.
+ */
+@RequiredArgsConstructor
+@Repository
+@Profile("blocking")
+public class BlockingBookRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public Stream<Book> streamAll() {
+        return mongoTemplate.stream(new Query(), Book.class);
+    }
+
+    public List<Book> findPage(BookPageRequest pageRequest) {
+        return mongoTemplate.find(BookQueries.page(pageRequest), Book.class);
+    }
+
+    public List<Book> search(BookSearchRequest searchRequest) {
+        return mongoTemplate.find(BookQueries.search(searchRequest), Book.class);
+    }
+
+    public Optional<Book> findById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Book.class));
+    }
+
+    public boolean existsById(String id) {
+        return mongoTemplate.exists(BookQueries.byIdAndVersion(id, null), Book.class);
+    }
+
+    public Book save(Book book) {
+        return mongoTemplate.save(book);
+    }
+
+    public Optional<Book> findAndUpdate(String id, Book patch) {
+        Query query = BookQueries.byIdAndVersion(id, patch.getVersion());
+        Update update = BookQueries.update(patch);
+        if (update.getUpdateObject().isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findOne(query, Book.class));
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Book.class));
+    }
+
+    public Optional<Book> findAndDelete(String id) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(BookQueries.byIdAndVersion(id, null), Book.class));
+    }
+}
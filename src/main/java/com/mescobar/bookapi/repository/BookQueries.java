@@ -0,0 +1,138 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookCursor;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.model.BookSort;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Queries and updates shared by the reactive and the blocking book repositories.
+ */
+final class BookQueries {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    private static final String YEAR = "year";
+    private static final String VERSION = "version";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final Pattern REGEX_META = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    private BookQueries() {
+    }
+
+    static Query page(BookPageRequest pageRequest) {
+        BookSort sort = pageRequest.sort();
+        Query query = new Query()
+                .with(sort == BookSort.ID ? Sort.by(ID) : Sort.by(sort.getProperty(), ID))
+                .limit(pageRequest.limit());
+        if (pageRequest.after() != null) {
+            query.addCriteria(after(pageRequest.after()));
+        }
+        if (!pageRequest.fields().isEmpty()) {
+            pageRequest.fields().forEach(query.fields()::include);
+            query.fields().include(sort.getProperty());
+        }
+        return query;
+    }
+
+    static Query search(BookSearchRequest searchRequest) {
+        Query query = searchRequest.text() == null
+                ? new Query().withHint(searchRequest.indexHint())
+                : TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(searchRequest.text()));
+        if (searchRequest.author() != null) {
+            query.addCriteria(where(AUTHOR).regex(prefix(searchRequest.author())));
+        }
+        if (searchRequest.title() != null) {
+            query.addCriteria(where(TITLE).regex(prefix(searchRequest.title())));
+        }
+        if (searchRequest.hasYearRange()) {
+            Criteria year = where(YEAR);
+            if (searchRequest.yearFrom() != null) {
+                year.gte(searchRequest.yearFrom());
+            }
+            if (searchRequest.yearTo() != null) {
+                year.lte(searchRequest.yearTo());
+            }
+            query.addCriteria(year);
+        }
+        return query.limit(searchRequest.limit());
+    }
+
+    static Query byIdAndVersion(String id, Long version) {
+        Criteria criteria = where(ID).is(id);
+        if (version != null) {
+            criteria.and(VERSION).is(version);
+        }
+        return query(criteria);
+    }
+
+    /**
+     * Sets the non-null fields of {@code patch}, bumps the version and stamps the modification time, or returns an
+     * empty update when there is nothing to set.
+     */
+    static Update update(Book patch) {
+        Update update = new Update();
+        if (patch.getTitle() != null) {
+            update.set(TITLE, patch.getTitle());
+        }
+        if (patch.getAuthor() != null) {
+            update.set(AUTHOR, patch.getAuthor());
+        }
+        if (patch.getYear() != null) {
+            update.set(YEAR, patch.getYear());
+        }
+        return update.getUpdateObject().isEmpty() ? update : update.inc(VERSION, 1).currentDate(LAST_MODIFIED);
+    }
+
+    /**
+     * Books with an id in {@code [from, to)}, either bound being open when null, in id order and optionally only those
+     * modified after {@code modifiedAfter}.
+     */
+    static Query range(String from, String to, Instant modifiedAfter) {
+        Criteria id = where(ID);
+        if (from != null) {
+            id.gte(from);
+        }
+        if (to != null) {
+            id.lt(to);
+        }
+        Query query = from == null && to == null ? new Query() : query(id);
+        if (modifiedAfter != null) {
+            query.addCriteria(where(LAST_MODIFIED).gt(modifiedAfter));
+        }
+        return query.with(Sort.by(ID));
+    }
+
+    static String prefix(String value) {
+        return "^" + REGEX_META.matcher(value).replaceAll("\\\\$0");
+    }
+
+    private static Criteria after(BookCursor cursor) {
+        if (cursor.sort() == BookSort.ID) {
+            return where(ID).gt(cursor.id());
+        }
+        String property = cursor.sort().getProperty();
+        if (cursor.value() == null) {
+            return new Criteria().orOperator(
+                    where(property).is(null).and(ID).gt(cursor.id()),
+                    where(property).ne(null));
+        }
+        return new Criteria().orOperator(
+                where(property).gt(cursor.value()),
+                where(property).is(cursor.value()).and(ID).gt(cursor.id()));
+    }
+}
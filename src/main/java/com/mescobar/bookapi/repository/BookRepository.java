@@ -2,6 +2,11 @@ package com.mescobar.bookapi.repository;
 
 import com.mescobar.bookapi.model.Book;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
 
-public interface BookRepository extends ReactiveMongoRepository<Book, String> {
+public interface BookRepository extends ReactiveMongoRepository<Book, String>, BookRepositoryCustom {
+
+    Mono<Book> findFirstByOrderByIdAsc();
+
+    Mono<Book> findFirstByOrderByIdDesc();
 }
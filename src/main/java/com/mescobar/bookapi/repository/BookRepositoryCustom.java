@@ -0,0 +1,37 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import org.bson.RawBsonDocument;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public interface BookRepositoryCustom {
+    Flux<Book> findPage(BookPageRequest pageRequest);
+
+    Flux<Book> search(BookSearchRequest searchRequest);
+
+    Mono<Book> findAndUpdate(String id, Book patch);
+
+    Mono<Book> findAndDelete(String id);
+
+    Mono<Map<Integer, String>> bulkInsert(List<Book> books);
+
+    Mono<Map<Integer, String>> bulkInsert(List<Book> books, boolean ordered);
+
+    Mono<Map<Integer, String>> bulkUpdate(List<Book> patches);
+
+    Flux<BookChange> watch(String resumeAfter);
+
+    Flux<RawBsonDocument> exportRaw(int batchSize);
+
+    Flux<Book> findRange(String from, String to, Instant modifiedAfter, int batchSize);
+
+    Mono<Instant> currentTime();
+}
@@ -0,0 +1,184 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.mapper.RawBookTranscoder;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.FullDocument;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Book> findPage(BookPageRequest pageRequest) {
+        return mongoTemplate.find(BookQueries.page(pageRequest), Book.class);
+    }
+
+    @Override
+    public Flux<Book> search(BookSearchRequest searchRequest) {
+        return mongoTemplate.find(BookQueries.search(searchRequest), Book.class);
+    }
+
+    @Override
+    public Mono<Book> findAndUpdate(String id, Book patch) {
+        Query query = BookQueries.byIdAndVersion(id, patch.getVersion());
+        Update update = BookQueries.update(patch);
+        if (update.getUpdateObject().isEmpty()) {
+            return mongoTemplate.findOne(query, Book.class);
+        }
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Book.class);
+    }
+
+    @Override
+    public Mono<Book> findAndDelete(String id) {
+        return mongoTemplate.findAndRemove(BookQueries.byIdAndVersion(id, null), Book.class);
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> bulkInsert(List<Book> books) {
+        return bulkInsert(books, false);
+    }
+
+    /**
+     * An ordered insert stops at the first failed document, so the error map then holds a single position and the
+     * documents after it were not written. Bulk operations skip the template's version initialization, so new books
+     * start at version 0 here as they do through {@code save}.
+     */
+    @Override
+    public Mono<Map<Integer, String>> bulkInsert(List<Book> books, boolean ordered) {
+        if (books.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        for (Book book : books) {
+            if (book.getVersion() == null) {
+                book.setVersion(0L);
+            }
+        }
+        BulkOperations.BulkMode mode = ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED;
+        return execute(mongoTemplate.bulkOps(mode, Book.class).insert(books), null);
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> bulkUpdate(List<Book> patches) {
+        ReactiveBulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class);
+        List<Integer> positions = new ArrayList<>(patches.size());
+        for (int i = 0; i < patches.size(); i++) {
+            Update update = BookQueries.update(patches.get(i));
+            if (!update.getUpdateObject().isEmpty()) {
+                operations.updateOne(BookQueries.byIdAndVersion(patches.get(i).getId(), null), update);
+                positions.add(i);
+            }
+        }
+        if (positions.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return execute(operations, positions);
+    }
+
+    @Override
+    public Flux<BookChange> watch(String resumeAfter) {
+        return mongoTemplate.changeStream(Book.class)
+                .withOptions(options -> {
+                    options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+                    if (resumeAfter != null) {
+                        options.resumeAfter(BookChange.decodeResumeToken(resumeAfter));
+                    }
+                })
+                .watchCollection(Book.class)
+                .listen()
+                .mapNotNull(BookRepositoryCustomImpl::toBookChange);
+    }
+
+    @Override
+    public Flux<RawBsonDocument> exportRaw(int batchSize) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class))
+                .flatMapMany(collection -> collection.withDocumentClass(RawBsonDocument.class)
+                        .find()
+                        .projection(Projections.include(RawBookTranscoder.FIELDS))
+                        .batchSize(batchSize));
+    }
+
+    @Override
+    public Flux<Book> findRange(String from, String to, Instant modifiedAfter, int batchSize) {
+        return mongoTemplate.find(BookQueries.range(from, to, modifiedAfter).cursorBatchSize(batchSize), Book.class);
+    }
+
+    /**
+     * The clock of the Mongo server, which stamps {@code lastModified} through {@code $currentDate}.
+     */
+    @Override
+    public Mono<Instant> currentTime() {
+        return mongoTemplate.executeCommand(new Document("hello", 1))
+                .map(result -> result.getDate("localTime").toInstant());
+    }
+
+    private static BookChange toBookChange(ChangeStreamEvent<Book> event) {
+        BookChange.Operation operation = switch (event.getOperationType()) {
+            case INSERT -> BookChange.Operation.INSERT;
+            case UPDATE, REPLACE -> BookChange.Operation.UPDATE;
+            case DELETE -> BookChange.Operation.DELETE;
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> BookChange.Operation.INVALIDATE;
+            default -> null;
+        };
+        if (operation == null) {
+            return null;
+        }
+        BsonDocument documentKey = event.getRaw() == null ? null : event.getRaw().getDocumentKey();
+        String id = documentKey == null ? null : toId(documentKey.get("_id"));
+        return new BookChange(operation, id, event.getBody(), BookChange.encodeResumeToken(event.getResumeToken()));
+    }
+
+    private static String toId(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static Mono<Map<Integer, String>> execute(ReactiveBulkOperations operations, List<Integer> positions) {
+        return operations.execute()
+                .<Map<Integer, String>>map(result -> Map.of())
+                .onErrorResume(e -> bulkWriteException(e) != null, e -> {
+                    Map<Integer, String> errors = new HashMap<>();
+                    for (BulkWriteError error : bulkWriteException(e).getWriteErrors()) {
+                        errors.put(positions == null ? error.getIndex() : positions.get(error.getIndex()), error.getMessage());
+                    }
+                    return Mono.just(errors);
+                });
+    }
+
+    private static MongoBulkWriteException bulkWriteException(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkWriteException) {
+                return bulkWriteException;
+            }
+        }
+        return null;
+    }
+}
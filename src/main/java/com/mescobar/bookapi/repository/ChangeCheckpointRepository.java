@@ -0,0 +1,8 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.model.ChangeCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ChangeCheckpointRepository extends ReactiveMongoRepository<ChangeCheckpoint, String>,
+        ChangeCheckpointRepositoryCustom {
+}
@@ -0,0 +1,29 @@
+package com.mescobar.bookapi.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * A checkpoint doubles as a lease, so that a single node at a time follows a change stream on behalf of all of them.
+ * Only the holder of the lease may move the checkpoint.
+ */
+public interface ChangeCheckpointRepositoryCustom {
+
+    /**
+     * Takes or renews the lease of checkpoint {@code id} for {@code owner}, completing with false while another owner
+     * holds an unexpired lease. Expiry is judged by the clock of the caller, so clocks must agree within a fraction of
+     * {@code duration}.
+     */
+    Mono<Boolean> acquireLease(String id, String owner, Duration duration);
+
+    /**
+     * Moves the checkpoint to {@code resumeToken}, completing with false when {@code owner} no longer holds the lease.
+     */
+    Mono<Boolean> saveResumeToken(String id, String owner, String resumeToken);
+
+    /**
+     * Drops the position of the checkpoint but keeps its lease, so that the stream starts over from now.
+     */
+    Mono<Boolean> clearResumeToken(String id, String owner);
+}
@@ -0,0 +1,60 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.model.ChangeCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class ChangeCheckpointRepositoryCustomImpl implements ChangeCheckpointRepositoryCustom {
+
+    private static final String ID = "_id";
+    private static final String RESUME_TOKEN = "resumeToken";
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String OWNER = "owner";
+    private static final String LEASE_EXPIRES_AT = "leaseExpiresAt";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Boolean> acquireLease(String id, String owner, Duration duration) {
+        Instant now = Instant.now();
+        Query query = Query.query(where(ID).is(id).orOperator(
+                where(OWNER).is(owner),
+                where(LEASE_EXPIRES_AT).lt(now),
+                where(LEASE_EXPIRES_AT).exists(false)));
+        Update update = new Update().set(OWNER, owner).set(LEASE_EXPIRES_AT, now.plus(duration));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        ChangeCheckpoint.class)
+                .map(checkpoint -> owner.equals(checkpoint.getOwner()))
+                // the upsert of a checkpoint leased by someone else collides with the existing document
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Boolean> saveResumeToken(String id, String owner, String resumeToken) {
+        return update(id, owner, new Update().set(RESUME_TOKEN, resumeToken).set(UPDATED_AT, Instant.now()));
+    }
+
+    @Override
+    public Mono<Boolean> clearResumeToken(String id, String owner) {
+        return update(id, owner, new Update().unset(RESUME_TOKEN).set(UPDATED_AT, Instant.now()));
+    }
+
+    private Mono<Boolean> update(String id, String owner, Update update) {
+        Criteria leased = where(ID).is(id).and(OWNER).is(owner);
+        return mongoTemplate.updateFirst(Query.query(leased), update, ChangeCheckpoint.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+}
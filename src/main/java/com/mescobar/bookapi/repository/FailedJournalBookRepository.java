@@ -0,0 +1,7 @@
+package com.mescobar.bookapi.repository;
+
+import com.mescobar.bookapi.model.FailedJournalBook;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface FailedJournalBookRepository extends ReactiveMongoRepository<FailedJournalBook, String> {
+}
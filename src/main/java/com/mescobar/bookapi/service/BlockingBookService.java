@@ -0,0 +1,24 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BlockingBookService {
+    Stream<Book> getBooks();
+
+    List<Book> getBooks(BookPageRequest pageRequest);
+
+    List<Book> searchBooks(BookSearchRequest searchRequest);
+
+    Book validateAndGetBookById(String id);
+
+    Book saveBook(Book book);
+
+    Book updateBook(String id, Book patch);
+
+    Book deleteBook(String id);
+}
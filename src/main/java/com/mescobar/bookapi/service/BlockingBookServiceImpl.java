@@ -0,0 +1,88 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.repository.BlockingBookRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@Service
+@Profile("blocking")
+public class BlockingBookServiceImpl implements BlockingBookService {
+    private static final String OBSERVATION_NAME = "book.service";
+    private static final String METHOD_TAG = "method";
+
+    private final BlockingBookRepository bookRepository;
+    private final MissingBookCache missingBookCache;
+    private final ObservationRegistry observationRegistry;
+
+    @Override
+    public Stream<Book> getBooks() {
+        return bookRepository.streamAll();
+    }
+
+    @Override
+    public List<Book> getBooks(BookPageRequest pageRequest) {
+        return observe("getBooksPage", () -> bookRepository.findPage(pageRequest));
+    }
+
+    @Override
+    public List<Book> searchBooks(BookSearchRequest searchRequest) {
+        if (!searchRequest.isIndexed()) {
+            throw new InvalidBookQueryException("Search requires at least one of text, title, author, yearFrom or yearTo.");
+        }
+        return observe("searchBooks", () -> bookRepository.search(searchRequest));
+    }
+
+    @Override
+    public Book validateAndGetBookById(String id) {
+        if (missingBookCache.isMissing(id)) {
+            throw new BookNotFoundException(id);
+        }
+        return observe("validateAndGetBookById", () -> bookRepository.findById(id).orElseThrow(() -> {
+            missingBookCache.markMissing(id);
+            return new BookNotFoundException(id);
+        }));
+    }
+
+    @Override
+    public Book saveBook(Book book) {
+        return observe("saveBook", () -> {
+            Book saved = bookRepository.save(book);
+            missingBookCache.invalidate(saved.getId());
+            return saved;
+        });
+    }
+
+    @Override
+    public Book updateBook(String id, Book patch) {
+        return observe("updateBook", () -> bookRepository.findAndUpdate(id, patch).orElseThrow(() ->
+                patch.getVersion() != null && bookRepository.existsById(id)
+                        ? new BookVersionMismatchException(id)
+                        : new BookNotFoundException(id)));
+    }
+
+    @Override
+    public Book deleteBook(String id) {
+        return observe("deleteBook", () -> bookRepository.findAndDelete(id).orElseThrow(() -> new BookNotFoundException(id)));
+    }
+
+    private <T> T observe(String method, Supplier<T> supplier) {
+        return Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .lowCardinalityKeyValue(METHOD_TAG, method)
+                .observe(supplier);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.controller.dto.BulkDeleteBookRequest;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.controller.dto.BulkUpdateBookRequest;
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface BookBulkService {
+    Flux<BulkItemResponse> getBooks(List<String> ids);
+
+    /**
+     * Creates the books of an NDJSON stream of {@link CreateBookRequest} lines. A line that is not valid JSON is
+     * answered as {@code INVALID} like any other invalid request, and the stream goes on.
+     */
+    Flux<BulkItemResponse> createBooks(Flux<DataBuffer> content);
+
+    /**
+     * Applies an NDJSON stream of {@link BulkUpdateBookRequest} lines, reporting malformed lines as {@code INVALID}.
+     */
+    Flux<BulkItemResponse> updateBooks(Flux<DataBuffer> content);
+
+    /**
+     * Applies an NDJSON stream of {@link BulkDeleteBookRequest} lines, reporting malformed lines as {@code INVALID}.
+     */
+    Flux<BulkItemResponse> deleteBooks(Flux<DataBuffer> content);
+}
@@ -0,0 +1,267 @@
+package com.mescobar.bookapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookBulkProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkDeleteBookRequest;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse.Status;
+import com.mescobar.bookapi.controller.dto.BulkUpdateBookRequest;
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BookBulkServiceImpl implements BookBulkService {
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final BookMapper bookMapper;
+    private final BookCache bookCache;
+    private final MissingBookCache missingBookCache;
+    private final Validator validator;
+    private final BookBulkProperties bookBulkProperties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Resolves what it can from the cache, fetches the rest with one query and backfills the cache with them, then
+     * answers every requested id in request order, misses included.
+     */
+    @Override
+    public Flux<BulkItemResponse> getBooks(List<String> ids) {
+        return bookCache.getAll(ids)
+                .flatMap(cached -> {
+                    List<String> misses = ids.stream().filter(id -> !cached.containsKey(id)).distinct().toList();
+                    if (misses.isEmpty()) {
+                        return Mono.just(cached);
+                    }
+                    return bookService.getBooksByIds(misses)
+                            .map(bookMapper::toBookResponse)
+                            .collectList()
+                            .flatMap(loaded -> {
+                                Map<String, BookResponse> books = new HashMap<>(cached);
+                                loaded.forEach(book -> books.put(book.id(), book));
+                                return bookCache.preload(loaded).thenReturn(books);
+                            });
+                })
+                .flatMapMany(books -> Flux.range(0, ids.size()).map(index -> {
+                    String id = ids.get(index);
+                    BookResponse book = books.get(id);
+                    return book != null
+                            ? BulkItemResponse.success(index, Status.FOUND, book)
+                            : BulkItemResponse.failure(index, id, Status.NOT_FOUND, null);
+                }));
+    }
+
+    @Override
+    public Flux<BulkItemResponse> createBooks(Flux<DataBuffer> content) {
+        return inBatches(content, CreateBookRequest.class, this::createBatch);
+    }
+
+    @Override
+    public Flux<BulkItemResponse> updateBooks(Flux<DataBuffer> content) {
+        return inBatches(content, BulkUpdateBookRequest.class, this::updateBatch);
+    }
+
+    @Override
+    public Flux<BulkItemResponse> deleteBooks(Flux<DataBuffer> content) {
+        return inBatches(content, BulkDeleteBookRequest.class, this::deleteBatch);
+    }
+
+    /**
+     * Reads the non-blank lines of {@code content} one by one, indexed from zero, and hands them over in batches.
+     */
+    private <T> Flux<BulkItemResponse> inBatches(Flux<DataBuffer> content, Class<T> type,
+            Function<List<Tuple2<Long, Line<T>>>, Flux<BulkItemResponse>> batchHandler) {
+        return JsonLines.lines(content)
+                .filter(text -> !text.isBlank())
+                .map(text -> read(text, type))
+                .index()
+                .buffer(bookBulkProperties.batchSize())
+                .concatMap(batchHandler, 1);
+    }
+
+    private <T> Line<T> read(String text, Class<T> type) {
+        try {
+            return new Line<>(JsonLines.read(objectMapper, text, type), null);
+        } catch (IllegalArgumentException e) {
+            return new Line<>(null, e.getMessage());
+        }
+    }
+
+    private Flux<BulkItemResponse> createBatch(List<Tuple2<Long, Line<CreateBookRequest>>> batch) {
+        BulkItemResponse[] results = new BulkItemResponse[batch.size()];
+        List<Book> books = new ArrayList<>(batch.size());
+        List<Integer> positions = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Line<CreateBookRequest> line = batch.get(i).getT2();
+            String violations = validate(line);
+            if (violations != null) {
+                results[i] = BulkItemResponse.failure(batch.get(i).getT1(), null, Status.INVALID, violations);
+                continue;
+            }
+            Book book = bookMapper.toBook(line.request());
+            book.setId(new ObjectId().toHexString());
+            books.add(book);
+            positions.add(i);
+        }
+        return bookRepository.bulkInsert(books)
+                .onErrorResume(e -> Mono.just(allFailed(books.size(), e)))
+                .flatMapMany(errors -> {
+                    List<BookResponse> created = new ArrayList<>(books.size());
+                    for (int j = 0; j < books.size(); j++) {
+                        int position = positions.get(j);
+                        long index = batch.get(position).getT1();
+                        String error = errors.get(j);
+                        if (error != null) {
+                            results[position] = BulkItemResponse.failure(index, books.get(j).getId(), Status.FAILED, error);
+                        } else {
+                            BookResponse bookResponse = bookMapper.toBookResponse(books.get(j));
+                            created.add(bookResponse);
+                            results[position] = BulkItemResponse.success(index, Status.CREATED, bookResponse);
+                        }
+                    }
+                    missingBookCache.invalidateAll(created.stream().map(BookResponse::id).toList());
+                    return bookCache.putAll(created).thenMany(Flux.fromArray(results));
+                });
+    }
+
+    private Flux<BulkItemResponse> updateBatch(List<Tuple2<Long, Line<BulkUpdateBookRequest>>> batch) {
+        BulkItemResponse[] results = new BulkItemResponse[batch.size()];
+        List<Book> patches = new ArrayList<>(batch.size());
+        List<Integer> positions = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Line<BulkUpdateBookRequest> line = batch.get(i).getT2();
+            String violations = validate(line);
+            if (violations != null) {
+                String id = line.request() == null ? null : line.request().id();
+                results[i] = BulkItemResponse.failure(batch.get(i).getT1(), id, Status.INVALID, violations);
+                continue;
+            }
+            patches.add(bookMapper.toBook(line.request()));
+            positions.add(i);
+        }
+        return bookRepository.bulkUpdate(patches)
+                .onErrorResume(e -> Mono.just(allFailed(patches.size(), e)))
+                .flatMapMany(errors -> findAllById(patches.stream().map(Book::getId).toList())
+                        .flatMapMany(found -> {
+                            List<BookResponse> updated = new ArrayList<>(patches.size());
+                            for (int j = 0; j < patches.size(); j++) {
+                                int position = positions.get(j);
+                                long index = batch.get(position).getT1();
+                                String id = patches.get(j).getId();
+                                Book book = found.get(id);
+                                if (errors.containsKey(j)) {
+                                    results[position] = BulkItemResponse.failure(index, id, Status.FAILED, errors.get(j));
+                                } else if (book == null) {
+                                    results[position] = BulkItemResponse.failure(index, id, Status.NOT_FOUND, null);
+                                } else {
+                                    BookResponse bookResponse = bookMapper.toBookResponse(book);
+                                    updated.add(bookResponse);
+                                    results[position] = BulkItemResponse.success(index, Status.UPDATED, bookResponse);
+                                }
+                            }
+                            return bookCache.putAll(updated).thenMany(Flux.fromArray(results));
+                        }));
+    }
+
+    private Flux<BulkItemResponse> deleteBatch(List<Tuple2<Long, Line<BulkDeleteBookRequest>>> batch) {
+        BulkItemResponse[] results = new BulkItemResponse[batch.size()];
+        List<String> ids = new ArrayList<>(batch.size());
+        List<Integer> positions = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Line<BulkDeleteBookRequest> line = batch.get(i).getT2();
+            String violations = validate(line);
+            if (violations != null) {
+                String id = line.request() == null ? null : line.request().id();
+                results[i] = BulkItemResponse.failure(batch.get(i).getT1(), id, Status.INVALID, violations);
+                continue;
+            }
+            ids.add(line.request().id());
+            positions.add(i);
+        }
+        return findAllById(ids)
+                .flatMap(found -> bookRepository.deleteAllById(found.keySet())
+                        .then(bookCache.evictAll(found.keySet()))
+                        .thenReturn(found))
+                .map(found -> {
+                    for (int j = 0; j < ids.size(); j++) {
+                        int position = positions.get(j);
+                        long index = batch.get(position).getT1();
+                        Book book = found.get(ids.get(j));
+                        results[position] = book == null
+                                ? BulkItemResponse.failure(index, ids.get(j), Status.NOT_FOUND, null)
+                                : BulkItemResponse.success(index, Status.DELETED, bookMapper.toBookResponse(book));
+                    }
+                    return results;
+                })
+                .onErrorResume(e -> {
+                    log.warn("Bulk delete of {} books failed", ids.size(), e);
+                    for (int j = 0; j < ids.size(); j++) {
+                        int position = positions.get(j);
+                        results[position] = BulkItemResponse.failure(batch.get(position).getT1(), ids.get(j),
+                                Status.FAILED, e.getMessage());
+                    }
+                    return Mono.just(results);
+                })
+                .flatMapMany(Flux::fromArray);
+    }
+
+    private Mono<Map<String, Book>> findAllById(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return bookRepository.findAllById(ids).collectMap(Book::getId);
+    }
+
+    /**
+     * The parse error of {@code line}, or else its constraint violations, or null when it is valid.
+     */
+    private String validate(Line<?> line) {
+        if (line.error() != null) {
+            return line.error();
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(line.request());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static Map<Integer, String> allFailed(int size, Throwable e) {
+        log.warn("Bulk write of {} books failed", size, e);
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            errors.put(i, e.getMessage());
+        }
+        return errors;
+    }
+
+    private record Line<T>(T request, String error) {
+    }
+}
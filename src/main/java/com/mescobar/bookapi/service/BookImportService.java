@@ -0,0 +1,15 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.controller.dto.BookImportReport;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface BookImportService {
+
+    enum Format {
+        CSV, NDJSON
+    }
+
+    Mono<BookImportReport> importBooks(Flux<DataBuffer> content, Format format, boolean ordered);
+}
@@ -0,0 +1,191 @@
+package com.mescobar.bookapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookImportProperties;
+import com.mescobar.bookapi.controller.dto.BookImportReport;
+import com.mescobar.bookapi.controller.dto.BookImportReport.Rejection;
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.mapper.BookCsvReader;
+import com.mescobar.bookapi.mapper.BookMapper;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a catalog streamed as CSV or NDJSON without holding it in memory: the body is split into lines as it
+ * arrives, batches of lines are parsed, validated and mapped in parallel while keeping their order, and each batch
+ * becomes one bulk insert. Ordered imports write one batch at a time and stop at the first failed write; unordered
+ * ones keep several batches in flight.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final MissingBookCache missingBookCache;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BookImportProperties importProperties;
+
+    @Override
+    public Mono<BookImportReport> importBooks(Flux<DataBuffer> content, Format format, boolean ordered) {
+        Flux<ParsedBatch> batches = JsonLines.lines(content)
+                .index((index, text) -> new Line(index + 1, text))
+                .switchOnFirst((first, lines) -> {
+                    if (!first.hasValue()) {
+                        return lines.then(Mono.empty());
+                    }
+                    if (format == Format.CSV) {
+                        BookCsvReader reader = BookCsvReader.fromHeader(first.get().text());
+                        return parse(lines.skip(1), reader::read);
+                    }
+                    return parse(lines, this::readJson);
+                });
+        Flux<WrittenBatch> written = ordered
+                ? batches.concatMap(batch -> write(batch, true)).takeUntil(WrittenBatch::stopped)
+                : batches.flatMap(batch -> write(batch, false), importProperties.writeConcurrency());
+        return written.reduceWith(() -> new Report(importProperties.maxReportedRejections()), Report::add)
+                .map(Report::toReport);
+    }
+
+    private Flux<ParsedBatch> parse(Flux<Line> lines, Function<String, CreateBookRequest> reader) {
+        int parallelism = importProperties.parallelism() > 0 ? importProperties.parallelism() : Schedulers.DEFAULT_POOL_SIZE;
+        return lines.filter(line -> !line.text().isBlank())
+                .buffer(importProperties.batchSize())
+                .flatMapSequential(batch -> Mono.fromCallable(() -> parseBatch(batch, reader))
+                        .subscribeOn(Schedulers.parallel()), parallelism, 1);
+    }
+
+    private ParsedBatch parseBatch(List<Line> batch, Function<String, CreateBookRequest> reader) {
+        List<Book> books = new ArrayList<>(batch.size());
+        List<Long> lines = new ArrayList<>(batch.size());
+        List<Rejection> rejections = new ArrayList<>();
+        for (Line line : batch) {
+            CreateBookRequest request;
+            try {
+                request = reader.apply(line.text());
+            } catch (IllegalArgumentException e) {
+                rejections.add(new Rejection(line.number(), e.getMessage()));
+                continue;
+            }
+            String violations = validate(request);
+            if (violations != null) {
+                rejections.add(new Rejection(line.number(), violations));
+                continue;
+            }
+            Book book = bookMapper.toBook(request);
+            book.setId(new ObjectId().toHexString());
+            books.add(book);
+            lines.add(line.number());
+        }
+        return new ParsedBatch(books, lines, rejections);
+    }
+
+    private CreateBookRequest readJson(String text) {
+        return JsonLines.read(objectMapper, text, CreateBookRequest.class);
+    }
+
+    private Mono<WrittenBatch> write(ParsedBatch batch, boolean ordered) {
+        if (batch.books().isEmpty()) {
+            return Mono.just(new WrittenBatch(0, batch.rejections(), false));
+        }
+        return bookRepository.bulkInsert(batch.books(), ordered)
+                .onErrorResume(e -> Mono.just(allFailed(batch.books().size(), e)))
+                .map(errors -> {
+                    List<Rejection> rejections = new ArrayList<>(batch.rejections());
+                    List<String> created = new ArrayList<>(batch.books().size());
+                    int firstFailure = ordered ? errors.keySet().stream().min(Integer::compare).orElse(-1) : -1;
+                    for (int i = 0; i < batch.books().size(); i++) {
+                        String error = errors.get(i);
+                        if (error != null) {
+                            rejections.add(new Rejection(batch.lines().get(i), error));
+                        } else if (firstFailure >= 0 && i > firstFailure) {
+                            rejections.add(new Rejection(batch.lines().get(i),
+                                    "not written, the import stopped at line " + batch.lines().get(firstFailure)));
+                        } else {
+                            created.add(batch.books().get(i).getId());
+                        }
+                    }
+                    missingBookCache.invalidateAll(created);
+                    return new WrittenBatch(created.size(), rejections, firstFailure >= 0);
+                });
+    }
+
+    private String validate(Object request) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static Map<Integer, String> allFailed(int size, Throwable e) {
+        log.warn("Import of {} books failed", size, e);
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            errors.put(i, e.getMessage());
+        }
+        return errors;
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record ParsedBatch(List<Book> books, List<Long> lines, List<Rejection> rejections) {
+    }
+
+    private record WrittenBatch(int accepted, List<Rejection> rejections, boolean stopped) {
+    }
+
+    private static final class Report {
+
+        private final int maxRejections;
+        private final List<Rejection> rejections = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        private boolean stopped;
+
+        Report(int maxRejections) {
+            this.maxRejections = maxRejections;
+        }
+
+        Report add(WrittenBatch batch) {
+            accepted += batch.accepted();
+            rejected += batch.rejections().size();
+            stopped |= batch.stopped();
+            batch.rejections().stream()
+                    .limit(Math.max(0, maxRejections - rejections.size()))
+                    .forEach(rejections::add);
+            return this;
+        }
+
+        BookImportReport toReport() {
+            rejections.sort(Comparator.comparingLong(Rejection::line));
+            return new BookImportReport(accepted, rejected, rejections, !stopped);
+        }
+    }
+}
@@ -1,15 +1,33 @@
 package com.mescobar.bookapi.service;
 
 import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import org.bson.RawBsonDocument;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 public interface BookService {
     Flux<Book> getBooks();
 
+    Flux<Book> getBooks(BookPageRequest pageRequest);
+
+    Flux<Book> searchBooks(BookSearchRequest searchRequest);
+
     Mono<Book> validateAndGetBookById(String id);
 
+    Flux<Book> getBooksByIds(Collection<String> ids);
+
     Mono<Book> saveBook(Book book);
 
-    Mono<Void> deleteBook(Book book);
+    Mono<Book> updateBook(String id, Book patch);
+
+    Mono<Book> deleteBook(String id);
+
+    Flux<BookChange> getChanges(String resumeAfter);
+
+    Flux<RawBsonDocument> exportBooks();
 }
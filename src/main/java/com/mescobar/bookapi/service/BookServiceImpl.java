@@ -1,36 +1,125 @@
 package com.mescobar.bookapi.service;
 
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookExportProperties;
 import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
 import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
 import com.mescobar.bookapi.repository.BookRepository;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
+import org.bson.RawBsonDocument;
 import org.springframework.stereotype.Service;
+import reactor.core.observability.micrometer.Micrometer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService {
+    private static final String OBSERVATION_NAME = "book.service";
+    private static final String METHOD_TAG = "method";
+
     private final BookRepository bookRepository;
+    private final MissingBookCache missingBookCache;
+    private final ObservationRegistry observationRegistry;
+    private final BookExportProperties exportProperties;
 
     @Override
     public Flux<Book> getBooks() {
-        return bookRepository.findAll();
+        return observe("getBooks", bookRepository.findAll());
+    }
+
+    @Override
+    public Flux<Book> getBooks(BookPageRequest pageRequest) {
+        return observe("getBooksPage", bookRepository.findPage(pageRequest));
+    }
+
+    @Override
+    public Flux<Book> searchBooks(BookSearchRequest searchRequest) {
+        if (!searchRequest.isIndexed()) {
+            return Flux.error(new InvalidBookQueryException(
+                    "Search requires at least one of text, title, author, yearFrom or yearTo."));
+        }
+        return observe("searchBooks", bookRepository.search(searchRequest));
     }
 
     @Override
     public Mono<Book> validateAndGetBookById(String id) {
-        return bookRepository.findById(id)
-                .switchIfEmpty(Mono.error(new BookNotFoundException(id)));
+        if (missingBookCache.isMissing(id)) {
+            return Mono.error(new BookNotFoundException(id));
+        }
+        return observe("validateAndGetBookById", bookRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> {
+                    missingBookCache.markMissing(id);
+                    return Mono.error(new BookNotFoundException(id));
+                })));
+    }
+
+    /**
+     * Fetches the books with one {@code $in} query, skipping ids already known to be missing and remembering the
+     * ones that were not found.
+     */
+    @Override
+    public Flux<Book> getBooksByIds(Collection<String> ids) {
+        List<String> candidates = ids.stream().filter(id -> !missingBookCache.isMissing(id)).distinct().toList();
+        if (candidates.isEmpty()) {
+            return Flux.empty();
+        }
+        return observe("getBooksByIds", Flux.defer(() -> {
+            Set<String> unseen = new HashSet<>(candidates);
+            return bookRepository.findAllById(candidates)
+                    .doOnNext(book -> unseen.remove(book.getId()))
+                    .doOnComplete(() -> unseen.forEach(missingBookCache::markMissing));
+        }));
     }
 
     @Override
     public Mono<Book> saveBook(Book book) {
-        return bookRepository.save(book);
+        return observe("saveBook", bookRepository.save(book)
+                .doOnNext(saved -> missingBookCache.invalidate(saved.getId())));
+    }
+
+    @Override
+    public Mono<Book> updateBook(String id, Book patch) {
+        return observe("updateBook", bookRepository.findAndUpdate(id, patch)
+                .switchIfEmpty(Mono.defer(() -> patch.getVersion() == null
+                        ? Mono.error(new BookNotFoundException(id))
+                        : bookRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                                ? new BookVersionMismatchException(id)
+                                : new BookNotFoundException(id))))));
+    }
+
+    @Override
+    public Mono<Book> deleteBook(String id) {
+        return observe("deleteBook", bookRepository.findAndDelete(id)
+                .switchIfEmpty(Mono.error(new BookNotFoundException(id))));
+    }
+
+    @Override
+    public Flux<BookChange> getChanges(String resumeAfter) {
+        return bookRepository.watch(resumeAfter);
     }
 
     @Override
-    public Mono<Void> deleteBook(Book book) {
-        return bookRepository.delete(book);
+    public Flux<RawBsonDocument> exportBooks() {
+        return observe("exportBooks", bookRepository.exportRaw(exportProperties.batchSize()));
+    }
+
+    private <T> Mono<T> observe(String method, Mono<T> mono) {
+        return mono.name(OBSERVATION_NAME).tag(METHOD_TAG, method).tap(Micrometer.observation(observationRegistry));
+    }
+
+    private <T> Flux<T> observe(String method, Flux<T> flux) {
+        return flux.name(OBSERVATION_NAME).tag(METHOD_TAG, method).tap(Micrometer.observation(observationRegistry));
     }
 }
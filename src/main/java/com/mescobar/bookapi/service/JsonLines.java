@@ -0,0 +1,41 @@
+package com.mescobar.bookapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Splits a streamed body into lines as it arrives and reads a line as one JSON object, so that a malformed line can be
+ * reported on its own instead of failing the whole stream the way a decoded {@code Flux} of objects does.
+ */
+final class JsonLines {
+
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    private JsonLines() {
+    }
+
+    static Flux<String> lines(Flux<DataBuffer> content) {
+        return LINE_DECODER.decode(content, STRING_TYPE, null, null);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code text} is not a JSON object of {@code type}
+     */
+    static <T> T read(ObjectMapper objectMapper, String text, Class<T> type) {
+        T value;
+        try {
+            value = objectMapper.readValue(text, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        return value;
+    }
+}
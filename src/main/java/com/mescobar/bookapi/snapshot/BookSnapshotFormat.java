@@ -0,0 +1,185 @@
+package com.mescobar.bookapi.snapshot;
+
+import com.github.luben.zstd.Zstd;
+import com.mescobar.bookapi.model.Book;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of a snapshot file: a fixed-size header followed by row groups of books.
+ * <p>
+ * The header is {@code [magic][flags][since][upTo][books][blocks]}, with {@code since} and {@code upTo} in epoch
+ * milliseconds and {@code since} -1 for a full snapshot. Each row group is {@code [compressed length][length]}
+ * followed by a zstd frame holding the books column by column: the count, then the 12-byte ids, versions,
+ * modification times, years, and the titles and authors as a column of lengths followed by their UTF-8 bytes.
+ * Integers are big-endian, a missing number is its type's minimum value and a missing string has length -1.
+ */
+final class BookSnapshotFormat {
+
+    static final int HEADER_BYTES = 36;
+
+    private static final int MAGIC = 0x424B5331;
+    private static final int INCREMENTAL = 1;
+    private static final int ID_BYTES = 12;
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * What a snapshot holds; {@code since} is null for a full snapshot.
+     */
+    record Header(Instant since, Instant upTo, long books, int blocks) {
+
+        boolean incremental() {
+            return since != null;
+        }
+    }
+
+    private BookSnapshotFormat() {
+    }
+
+    static ByteBuffer encodeHeader(Header header) {
+        return ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(header.incremental() ? INCREMENTAL : 0)
+                .putLong(header.incremental() ? header.since().toEpochMilli() : -1)
+                .putLong(header.upTo().toEpochMilli())
+                .putLong(header.books())
+                .putInt(header.blocks())
+                .flip();
+    }
+
+    static Header decodeHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a book snapshot");
+        }
+        boolean incremental = (buffer.getInt() & INCREMENTAL) != 0;
+        long since = buffer.getLong();
+        return new Header(incremental ? Instant.ofEpochMilli(since) : null, Instant.ofEpochMilli(buffer.getLong()),
+                buffer.getLong(), buffer.getInt());
+    }
+
+    static ByteBuffer encodeBlock(List<Book> books, int compressionLevel) {
+        List<byte[]> titles = new ArrayList<>(books.size());
+        List<byte[]> authors = new ArrayList<>(books.size());
+        int strings = 0;
+        for (Book book : books) {
+            byte[] title = bytes(book.getTitle());
+            byte[] author = bytes(book.getAuthor());
+            titles.add(title);
+            authors.add(author);
+            strings += length(title) + length(author);
+        }
+        int count = books.size();
+        ByteBuffer columns = ByteBuffer.allocate(Integer.BYTES
+                + count * (ID_BYTES + Long.BYTES * 2 + Integer.BYTES * 3) + strings);
+        columns.putInt(count);
+        books.forEach(book -> columns.put(new ObjectId(book.getId()).toByteArray()));
+        books.forEach(book -> columns.putLong(book.getVersion() == null ? Long.MIN_VALUE : book.getVersion()));
+        books.forEach(book -> columns.putLong(book.getLastModified() == null
+                ? Long.MIN_VALUE : book.getLastModified().toEpochMilli()));
+        books.forEach(book -> columns.putInt(book.getYear() == null ? Integer.MIN_VALUE : book.getYear()));
+        putStrings(columns, titles);
+        putStrings(columns, authors);
+
+        byte[] compressed = Zstd.compress(columns.array(), compressionLevel);
+        return ByteBuffer.allocate(Integer.BYTES * 2 + compressed.length)
+                .putInt(compressed.length)
+                .putInt(columns.capacity())
+                .put(compressed)
+                .flip();
+    }
+
+    static List<Book> decodeBlock(byte[] compressed, int length) {
+        ByteBuffer columns = ByteBuffer.wrap(Zstd.decompress(compressed, length));
+        int count = columns.getInt();
+        List<Book.BookBuilder> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] id = new byte[ID_BYTES];
+            columns.get(id);
+            books.add(Book.builder().id(new ObjectId(id).toHexString()));
+        }
+        for (Book.BookBuilder book : books) {
+            long version = columns.getLong();
+            book.version(version == Long.MIN_VALUE ? null : version);
+        }
+        for (Book.BookBuilder book : books) {
+            long lastModified = columns.getLong();
+            book.lastModified(lastModified == Long.MIN_VALUE ? null : Instant.ofEpochMilli(lastModified));
+        }
+        for (Book.BookBuilder book : books) {
+            int year = columns.getInt();
+            book.year(year == Integer.MIN_VALUE ? null : year);
+        }
+        List<String> titles = getStrings(columns, count);
+        List<String> authors = getStrings(columns, count);
+        for (int i = 0; i < count; i++) {
+            books.get(i).title(titles.get(i)).author(authors.get(i));
+        }
+        return books.stream().map(Book.BookBuilder::build).toList();
+    }
+
+    /**
+     * Reads a whole snapshot file; meant for tests and tooling rather than the export path.
+     */
+    static List<Book> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = decodeHeader(readFully(channel, HEADER_BYTES));
+            List<Book> books = new ArrayList<>(Math.toIntExact(header.books()));
+            for (int i = 0; i < header.blocks(); i++) {
+                ByteBuffer lengths = readFully(channel, Integer.BYTES * 2);
+                int compressed = lengths.getInt();
+                int length = lengths.getInt();
+                books.addAll(decodeBlock(readFully(channel, compressed).array(), length));
+            }
+            return books;
+        }
+    }
+
+    static ByteBuffer readFully(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated book snapshot");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void putStrings(ByteBuffer columns, List<byte[]> values) {
+        values.forEach(value -> columns.putInt(value == null ? NULL_LENGTH : value.length));
+        values.stream().filter(value -> value != null).forEach(columns::put);
+    }
+
+    private static List<String> getStrings(ByteBuffer columns, int count) {
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = columns.getInt();
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int length : lengths) {
+            if (length == NULL_LENGTH) {
+                values.add(null);
+            } else {
+                values.add(new String(columns.array(), columns.position(), length, StandardCharsets.UTF_8));
+                columns.position(columns.position() + length);
+            }
+        }
+        return values;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+}
@@ -0,0 +1,314 @@
+package com.mescobar.bookapi.snapshot;
+
+import com.mescobar.bookapi.config.BookSnapshotProperties;
+import com.mescobar.bookapi.controller.dto.BookSnapshotResponse;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Writes catalog snapshots for bulk consumers so that they do not page through the API. The {@code _id} range is
+ * split into partitions that are read and written to part files in parallel, then the parts are concatenated behind a
+ * header with zero-copy transfers and the result is moved into place atomically. An incremental snapshot holds the
+ * books modified since the {@code upTo} of the latest snapshot, read from the configured overlap earlier since
+ * {@code upTo} comes from the Mongo clock when the snapshot starts and a write stamped before it may commit after.
+ * Consumers therefore dedupe books by id and version. Deletes are not captured, so consumers reconcile them against
+ * a periodic full snapshot.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "book-api.snapshot", name = "enabled")
+public class BookSnapshotter implements InitializingBean, DisposableBean {
+
+    static final String SUFFIX = ".bks";
+
+    private static final Pattern NAME = Pattern.compile("\\d+-(full|incremental)\\" + SUFFIX);
+    private static final String PART_SUFFIX = ".part";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Ids in {@code [from, to)}, a null bound being open.
+     */
+    record Range(String from, String to) {
+    }
+
+    private record Part(Path file, long books, int blocks) {
+    }
+
+    private final BookRepository bookRepository;
+    private final BookSnapshotProperties properties;
+    private final Path directory;
+    private final Timer fullTimer;
+    private final Timer incrementalTimer;
+    private final AtomicReference<Mono<BookSnapshotResponse>> running = new AtomicReference<>();
+    private Disposable subscription;
+
+    public BookSnapshotter(BookRepository bookRepository, BookSnapshotProperties properties, MeterRegistry meterRegistry)
+            throws IOException {
+        this.bookRepository = bookRepository;
+        this.properties = properties;
+        this.directory = properties.directory();
+        Files.createDirectories(directory);
+        deleteFiles(name -> name.endsWith(PART_SUFFIX) || name.endsWith(TEMP_SUFFIX));
+        this.fullTimer = timer(meterRegistry, "full");
+        this.incrementalTimer = timer(meterRegistry, "incremental");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("book.snapshot")
+                .description("Time to write a catalog snapshot")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = Flux.interval(properties.interval())
+                .onBackpressureDrop()
+                .concatMap(tick -> export(true).onErrorResume(e -> {
+                    log.warn("Failed to write the scheduled catalog snapshot", e);
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Writes a snapshot, or joins the one already being written. An incremental snapshot is full when there is no
+     * earlier snapshot to build on. The export runs to completion even if the caller cancels.
+     */
+    public Mono<BookSnapshotResponse> export(boolean incremental) {
+        return Mono.defer(() -> {
+            Sinks.One<BookSnapshotResponse> result = Sinks.one();
+            Mono<BookSnapshotResponse> snapshot = result.asMono();
+            Mono<BookSnapshotResponse> current = running.compareAndExchange(null, snapshot);
+            if (current != null) {
+                return current;
+            }
+            write(incremental).subscribe(
+                    value -> {
+                        running.set(null);
+                        result.tryEmitValue(value);
+                    },
+                    e -> {
+                        running.set(null);
+                        result.tryEmitError(e);
+                    });
+            return snapshot;
+        });
+    }
+
+    public Mono<List<BookSnapshotResponse>> list() {
+        return Mono.fromCallable(this::snapshots).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * The file of a completed snapshot, if {@code name} is one.
+     */
+    public Optional<Path> resolve(String name) {
+        Path file = directory.resolve(name);
+        return NAME.matcher(name).matches() && Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private Mono<BookSnapshotResponse> write(boolean incremental) {
+        return Mono.fromCallable(() -> incremental ? latestUpTo() : Optional.<Instant>empty())
+                .subscribeOn(Schedulers.boundedElastic())
+                .zipWith(bookRepository.currentTime())
+                .flatMap(bounds -> {
+                    Optional<Instant> since = bounds.getT1();
+                    Instant upTo = bounds.getT2().truncatedTo(ChronoUnit.MILLIS);
+                    Instant modifiedAfter = since.map(instant -> instant.minus(properties.overlap())).orElse(null);
+                    String name = upTo.toEpochMilli() + (since.isPresent() ? "-incremental" : "-full") + SUFFIX;
+                    Timer timer = since.isPresent() ? incrementalTimer : fullTimer;
+                    Timer.Sample sample = Timer.start();
+                    return partitions()
+                            .flatMapMany(ranges -> Flux.fromIterable(ranges)
+                                    .index()
+                                    .flatMapSequential(range -> writePart(
+                                            directory.resolve(name + "." + range.getT1() + PART_SUFFIX),
+                                            range.getT2(), modifiedAfter), Math.max(1, ranges.size())))
+                            .collectList()
+                            .flatMap(parts -> Mono.fromCallable(() -> merge(name, since.orElse(null), upTo, parts))
+                                    .subscribeOn(Schedulers.boundedElastic()))
+                            .doOnSuccess(snapshot -> {
+                                sample.stop(timer);
+                                log.info("Wrote catalog snapshot {} with {} books", name, snapshot.books());
+                            })
+                            // before the snapshot is emitted, unlike doFinally
+                            .doOnTerminate(() -> deleteTemporaryFiles(name))
+                            .doOnCancel(() -> deleteTemporaryFiles(name));
+                });
+    }
+
+    private Mono<List<Range>> partitions() {
+        int count = properties.parallelism() > 0 ? properties.parallelism() : Schedulers.DEFAULT_POOL_SIZE;
+        return Mono.zip(bookRepository.findFirstByOrderByIdAsc().map(Book::getId),
+                        bookRepository.findFirstByOrderByIdDesc().map(Book::getId))
+                .map(bounds -> partitions(bounds.getT1(), bounds.getT2(), count))
+                .defaultIfEmpty(List.of());
+    }
+
+    /**
+     * Splits the ids between {@code min} and {@code max} into up to {@code count} ranges of equal width, with the
+     * outer bounds left open so books inserted meanwhile still fall in a range.
+     */
+    static List<Range> partitions(String min, String max, int count) {
+        if (!ObjectId.isValid(min) || !ObjectId.isValid(max)) {
+            return List.of(new Range(null, null));
+        }
+        BigInteger low = new BigInteger(1, new ObjectId(min).toByteArray());
+        BigInteger width = new BigInteger(1, new ObjectId(max).toByteArray()).subtract(low);
+        List<Range> ranges = new ArrayList<>(count);
+        String from = null;
+        BigInteger previous = low;
+        for (int i = 1; i < count; i++) {
+            BigInteger bound = low.add(width.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count)));
+            if (bound.compareTo(previous) > 0) {
+                String to = toObjectId(bound).toHexString();
+                ranges.add(new Range(from, to));
+                from = to;
+                previous = bound;
+            }
+        }
+        ranges.add(new Range(from, null));
+        return ranges;
+    }
+
+    private static ObjectId toObjectId(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] id = new byte[12];
+        int length = Math.min(bytes.length, id.length);
+        System.arraycopy(bytes, bytes.length - length, id, id.length - length, length);
+        return new ObjectId(id);
+    }
+
+    private Mono<Part> writePart(Path file, Range range, Instant modifiedAfter) {
+        return Mono.using(
+                () -> FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING),
+                channel -> bookRepository.findRange(range.from(), range.to(), modifiedAfter, properties.batchSize())
+                        .buffer(properties.rowGroupSize())
+                        .concatMap(books -> Mono.fromCallable(() -> {
+                            ByteBuffer block = BookSnapshotFormat.encodeBlock(books, properties.compressionLevel());
+                            while (block.hasRemaining()) {
+                                channel.write(block);
+                            }
+                            return books.size();
+                        }).subscribeOn(Schedulers.boundedElastic()), 1)
+                        .reduce(new Part(file, 0, 0), (part, books) -> new Part(file, part.books() + books,
+                                part.blocks() + 1)),
+                BookSnapshotter::close);
+    }
+
+    private BookSnapshotResponse merge(String name, Instant since, Instant upTo, List<Part> parts) throws IOException {
+        BookSnapshotFormat.Header header = new BookSnapshotFormat.Header(since, upTo,
+                parts.stream().mapToLong(Part::books).sum(), parts.stream().mapToInt(Part::blocks).sum());
+        Path temp = directory.resolve(name + TEMP_SUFFIX);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer encoded = BookSnapshotFormat.encodeHeader(header);
+            while (encoded.hasRemaining()) {
+                out.write(encoded);
+            }
+            for (Part part : parts) {
+                try (FileChannel in = FileChannel.open(part.file(), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    for (long position = 0; position < size; ) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        Path file = directory.resolve(name);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        return toResponse(name, header, Files.size(file));
+    }
+
+    private List<BookSnapshotResponse> snapshots() throws IOException {
+        List<BookSnapshotResponse> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> NAME.matcher(file.getFileName().toString()).matches()).toList()) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    BookSnapshotFormat.Header header = BookSnapshotFormat.decodeHeader(
+                            BookSnapshotFormat.readFully(channel, BookSnapshotFormat.HEADER_BYTES));
+                    snapshots.add(toResponse(file.getFileName().toString(), header, channel.size()));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable catalog snapshot {}", file, e);
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparing(BookSnapshotResponse::upTo));
+        return snapshots;
+    }
+
+    private Optional<Instant> latestUpTo() throws IOException {
+        List<BookSnapshotResponse> snapshots = snapshots();
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1).upTo());
+    }
+
+    private static BookSnapshotResponse toResponse(String name, BookSnapshotFormat.Header header, long size) {
+        return new BookSnapshotResponse(name, header.incremental(), header.since(), header.upTo(), header.books(), size);
+    }
+
+    private void deleteFiles(Predicate<String> names) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> names.test(file.getFileName().toString())).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void deleteTemporaryFiles(String name) {
+        try {
+            deleteFiles(file -> file.startsWith(name + "."));
+        } catch (IOException e) {
+            log.warn("Failed to delete the temporary files of catalog snapshot {}", name, e);
+        }
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close snapshot part", e);
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.mescobar.bookapi;
 
+import com.mescobar.bookapi.controller.BookController;
+import com.mescobar.bookapi.controller.dto.BookChangeResponse;
 import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
 import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.controller.dto.MultiGetBookRequest;
 import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
 import com.mescobar.bookapi.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.context.ImportTestcontainers;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+
+import static com.mescobar.bookapi.TestUtils.API_BOOKS_BULK_URL;
+import static com.mescobar.bookapi.TestUtils.API_BOOKS_CHANGES_URL;
+import static com.mescobar.bookapi.TestUtils.API_BOOKS_EXPORT_URL;
 import static com.mescobar.bookapi.TestUtils.API_BOOKS_ID_URL;
+import static com.mescobar.bookapi.TestUtils.API_BOOKS_MGET_URL;
+import static com.mescobar.bookapi.TestUtils.API_BOOKS_SEARCH_URL;
 import static com.mescobar.bookapi.TestUtils.API_BOOKS_URL;
 import static com.mescobar.bookapi.TestUtils.getDefaultBook;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,6 +80,71 @@ class BookApiApplicationTests {
                         }));
     }
 
+    @Test
+    void testGetBooksPages() {
+        bookRepository.saveAll(List.of(getDefaultBook(), getDefaultBook(), getDefaultBook())).blockLast();
+
+        String cursor = webTestClient.get()
+                .uri(API_BOOKS_URL + "?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookResponse.class)
+                .hasSize(2)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(BookController.NEXT_CURSOR_HEADER);
+
+        assertThat(cursor).isNotNull();
+
+        webTestClient.get()
+                .uri(API_BOOKS_URL + "?limit=2&after=" + cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(BookController.NEXT_CURSOR_HEADER)
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void testSearchBooks() {
+        Book other = Book.builder().title("other").author("someone").year(1999).build();
+        bookRepository.saveAll(List.of(getDefaultBook(), other)).blockLast();
+
+        webTestClient.get()
+                .uri(API_BOOKS_SEARCH_URL + "?author=auth&yearFrom=2000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+
+        webTestClient.get()
+                .uri(API_BOOKS_SEARCH_URL + "?text=title")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void testExportBooksMatchesTheMappedList() {
+        bookRepository.saveAll(List.of(getDefaultBook(), getDefaultBook())).blockLast();
+
+        List<BookResponse> books = webTestClient.get()
+                .uri(API_BOOKS_URL)
+                .exchange()
+                .expectBodyList(BookResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient.get()
+                .uri(API_BOOKS_EXPORT_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookResponse.class)
+                .hasSize(2)
+                .contains(books.toArray(BookResponse[]::new));
+    }
+
     @Test
     void testGetBookWhenNonExistent() {
         webTestClient.get()
@@ -91,6 +173,27 @@ class BookApiApplicationTests {
                         }));
     }
 
+    @Test
+    void testGetBooksByIdAnswersEveryIdInRequestOrder() {
+        List<Book> saved = bookRepository.saveAll(List.of(getDefaultBook(), getDefaultBook())).collectList().block();
+        List<String> ids = List.of(saved.get(1).getId(), "65a0f1c2e4b0a1b2c3d4e5f6", saved.get(0).getId());
+
+        for (int round = 0; round < 2; round++) {
+            webTestClient.post()
+                    .uri(API_BOOKS_MGET_URL)
+                    .bodyValue(new MultiGetBookRequest(ids))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(BulkItemResponse.class)
+                    .consumeWith(response -> {
+                        assertThat(response.getResponseBody()).extracting(BulkItemResponse::id).isEqualTo(ids);
+                        assertThat(response.getResponseBody()).extracting(BulkItemResponse::status).containsExactly(
+                                BulkItemResponse.Status.FOUND, BulkItemResponse.Status.NOT_FOUND,
+                                BulkItemResponse.Status.FOUND);
+                    });
+        }
+    }
+
     @Test
     void testCreateBook() {
         CreateBookRequest createBookRequest = new CreateBookRequest("title", "author", 2023);
@@ -119,6 +222,29 @@ class BookApiApplicationTests {
                 });
     }
 
+    @Test
+    void testBulkCreatedBookHasAnETag() {
+        List<BulkItemResponse> results = webTestClient.post()
+                .uri(API_BOOKS_BULK_URL)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"title\":\"title\",\"author\":\"author\",\"year\":2023}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BulkItemResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).status()).isEqualTo(BulkItemResponse.Status.CREATED);
+        String bookId = results.get(0).id();
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted(bookId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+        assertThat(bookRepository.findById(bookId).block().getVersion()).isZero();
+    }
+
     @Test
     void testUpdateBook() {
         bookRepository.save(getDefaultBook())
@@ -179,4 +305,25 @@ class BookApiApplicationTests {
                         }));
     }
 
+    @Test
+    void testGetChangesStreamsWritesThatBypassTheApi() {
+        Flux<BookChangeResponse> changes = webTestClient.get()
+                .uri(API_BOOKS_CHANGES_URL)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BookChangeResponse.class)
+                .getResponseBody();
+
+        StepVerifier.create(changes)
+                .thenAwait(Duration.ofSeconds(1))
+                .then(() -> bookRepository.save(getDefaultBook()).block())
+                .assertNext(change -> {
+                    assertThat(change.operation()).isEqualTo(BookChange.Operation.INSERT);
+                    assertThat(change.book().title()).isEqualTo("title");
+                    assertThat(change.resumeToken()).isNotBlank();
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
 }
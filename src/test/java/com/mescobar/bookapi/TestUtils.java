@@ -14,5 +14,13 @@ public class TestUtils {
 
     public static final String API_BOOKS_URL = "/api/books";
     public static final String API_BOOKS_ID_URL = "/api/books/%s";
+    public static final String API_BOOKS_BULK_URL = "/api/books/_bulk";
+    public static final String API_BOOKS_HOT_URL = "/api/books/_hot";
+    public static final String API_BOOKS_IMPORT_URL = "/api/books/_import";
+    public static final String API_BOOKS_MGET_URL = "/api/books/_mget";
+    public static final String API_BOOKS_SNAPSHOTS_URL = "/api/books/_snapshots";
+    public static final String API_BOOKS_SEARCH_URL = "/api/books/search";
+    public static final String API_BOOKS_CHANGES_URL = "/api/books/changes";
+    public static final String API_BOOKS_EXPORT_URL = "/api/books/_export";
 
 }
@@ -0,0 +1,81 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentMatchers;
+import org.reactivestreams.Publisher;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveStringCommands.SetCommand;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookCacheTest {
+
+    private final BookResponse stale = new BookResponse("1", "title", "author", 2023, 1L);
+    private final BookResponse updated = new BookResponse("1", "new title", "author", 2023, 2L);
+
+    private ReactiveRedisConnection connection;
+    private CacheInvalidationChannel invalidationChannel;
+    private TwoLevelCache cache;
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        connection = mock(ReactiveRedisConnection.class, Answers.RETURNS_DEEP_STUBS);
+        when(connection.closeLater()).thenReturn(Mono.empty());
+        ReactiveRedisConnectionFactory connectionFactory = mock(ReactiveRedisConnectionFactory.class);
+        when(connectionFactory.getReactiveConnection()).thenReturn(connection);
+        invalidationChannel = mock(CacheInvalidationChannel.class);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                RedisCacheManager.builder(mock(RedisConnectionFactory.class)).build(),
+                () -> Caffeine.newBuilder().maximumSize(100), invalidationChannel, new SimpleMeterRegistry(), 0);
+        cache = cacheManager.getCache(CachingConfig.BOOKS);
+        bookCache = new BookCache(cacheManager, connectionFactory, invalidationChannel, new HotBookSketch(100, 1.0));
+        cache.putLocal("1", stale);
+    }
+
+    @Test
+    void testFailedWriteEvictsTheReplacedBooksEverywhere() {
+        when(connection.stringCommands().set(ArgumentMatchers.<Publisher<SetCommand>>any()))
+                .thenReturn(Flux.error(new IllegalStateException("redis is down")));
+        when(connection.keyCommands().mDel(anyList())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(bookCache.putAll(List.of(updated))).verifyComplete();
+
+        assertThat(cache.getLocal("1")).isNull();
+        verify(connection.keyCommands()).mDel(anyList());
+        verify(invalidationChannel).publishEvict(eq(CachingConfig.BOOKS), eq(List.of("1")));
+    }
+
+    @Test
+    void testFailedPreloadLeavesTheCacheAlone() {
+        when(connection.stringCommands().set(ArgumentMatchers.<Publisher<SetCommand>>any()))
+                .thenReturn(Flux.error(new IllegalStateException("redis is down")));
+
+        StepVerifier.create(bookCache.preload(List.of(updated))).verifyComplete();
+
+        assertThat(cache.getLocal("1")).isEqualTo(stale);
+        verify(connection.keyCommands(), never()).mDel(anyList());
+        verify(invalidationChannel, never()).publishEvict(any(), any());
+    }
+}
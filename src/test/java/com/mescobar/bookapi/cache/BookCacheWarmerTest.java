@@ -0,0 +1,104 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.BookCacheProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookCacheWarmerTest {
+
+    private HotBookStore hotBookStore;
+    private BookRepository bookRepository;
+    private TwoLevelCache cache;
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        hotBookStore = mock(HotBookStore.class);
+        bookRepository = mock(BookRepository.class);
+        LocalInvalidationChannel invalidationChannel = new LocalInvalidationChannel();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(CachingConfig.BOOKS),
+                () -> Caffeine.newBuilder().maximumSize(100), invalidationChannel, new SimpleMeterRegistry(), 0);
+        cache = cacheManager.getCache(CachingConfig.BOOKS);
+        bookCache = new BookCache(cacheManager, null, invalidationChannel, new HotBookSketch(100, 1.0));
+    }
+
+    @Test
+    void testPreloadsHottestBooksInBatches() {
+        when(hotBookStore.hottest(10)).thenReturn(Mono.just(List.of("1", "2", "3")));
+        when(bookRepository.findAllById(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<String>>getArgument(0))
+                .map(id -> new Book(id, "title-" + id, "author", 2023, 1L, null)));
+
+        StepVerifier.create(warmer(Duration.ofSeconds(5)).warmUp())
+                .expectNext(3)
+                .verifyComplete();
+
+        verify(bookRepository, times(2)).findAllById(anyList());
+        assertThat(cache.get("3", BookResponse.class)).isEqualTo(new BookResponse("3", "title-3", "author", 2023, 1L));
+    }
+
+    @Test
+    void testStopsWhenTimeBudgetIsUsedUp() {
+        when(hotBookStore.hottest(10)).thenReturn(Mono.just(List.of("1", "2", "3")));
+        when(bookRepository.findAllById(anyList())).thenReturn(Flux.never());
+
+        StepVerifier.create(warmer(Duration.ofMillis(100)).warmUp())
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStartsColdWhenHotSetIsUnavailable() {
+        when(hotBookStore.hottest(10)).thenReturn(Mono.error(new IllegalStateException("redis down")));
+
+        StepVerifier.create(warmer(Duration.ofSeconds(5)).warmUp())
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void testKeepsReadinessOutOfServiceUntilWarmedUp() {
+        Sinks.One<List<String>> hottest = Sinks.one();
+        when(hotBookStore.hottest(10)).thenReturn(hottest.asMono());
+        CacheWarmUpHealthIndicator healthIndicator = new CacheWarmUpHealthIndicator();
+
+        warmer(Duration.ofSeconds(5), healthIndicator).run(null);
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        hottest.tryEmitValue(List.of());
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private BookCacheWarmer warmer(Duration timeBudget) {
+        return warmer(timeBudget, new CacheWarmUpHealthIndicator());
+    }
+
+    private BookCacheWarmer warmer(Duration timeBudget, CacheWarmUpHealthIndicator healthIndicator) {
+        BookCacheProperties properties = new BookCacheProperties(null, null, null, null, 1.0, null,
+                new BookCacheProperties.WarmUp(true, 10, 2, 2, timeBudget), null, null);
+        return new BookCacheWarmer(hotBookStore, bookRepository, bookCache, new BookMapperImpl(), properties,
+                healthIndicator);
+    }
+}
@@ -0,0 +1,143 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.BookChangesProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.ChangeCheckpoint;
+import com.mescobar.bookapi.repository.BookRepository;
+import com.mescobar.bookapi.repository.ChangeCheckpointRepository;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookChangeCacheSynchronizerTest {
+
+    private BookRepository bookRepository;
+    private ChangeCheckpointRepository checkpointRepository;
+    private MissingBookCache missingBookCache;
+    private TwoLevelCache cache;
+    private BookChangeCacheSynchronizer synchronizer;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        checkpointRepository = mock(ChangeCheckpointRepository.class);
+        missingBookCache = mock(MissingBookCache.class);
+        LocalInvalidationChannel invalidationChannel = new LocalInvalidationChannel();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(CachingConfig.BOOKS),
+                () -> Caffeine.newBuilder().maximumSize(100), invalidationChannel, new SimpleMeterRegistry(), 0);
+        cache = cacheManager.getCache(CachingConfig.BOOKS);
+        synchronizer = new BookChangeCacheSynchronizer(bookRepository, checkpointRepository,
+                new BookCache(cacheManager, null, invalidationChannel, new HotBookSketch(100, 1.0)), missingBookCache,
+                new BookMapperImpl(), new BookChangesProperties(true, "test", 100, Duration.ofMillis(10), Duration.ofSeconds(30)));
+        when(checkpointRepository.saveResumeToken(eq("test"), anyString(), anyString())).thenReturn(Mono.just(true));
+        when(checkpointRepository.clearResumeToken(eq("test"), anyString())).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    void testAppliesChangesAndCheckpoints() {
+        cache.put("1", new BookResponse("1", "title", "author", 2023, 1L));
+        cache.put("2", new BookResponse("2", "title", "author", 2023, 1L));
+        when(checkpointRepository.findById("test")).thenReturn(Mono.just(new ChangeCheckpoint("test", "0a", null, null, null)));
+        when(bookRepository.watch("0a")).thenReturn(Flux.just(
+                new BookChange(BookChange.Operation.UPDATE, "1", new Book("1", "newTitle", "author", 2023, 2L, null), "0b"),
+                new BookChange(BookChange.Operation.DELETE, "2", null, "0c"),
+                new BookChange(BookChange.Operation.INSERT, "3", new Book("3", "title", "author", 2023, 0L, null), "0d")));
+
+        StepVerifier.create(synchronizer.synchronize(true)).verifyComplete();
+
+        assertThat(cache.get("1", BookResponse.class)).isEqualTo(new BookResponse("1", "newTitle", "author", 2023, 2L));
+        assertThat(cache.get("2")).isNull();
+        assertThat(cache.get("3")).isNull();
+        verify(missingBookCache).invalidate("3");
+        verify(checkpointRepository).saveResumeToken(eq("test"), anyString(), eq("0d"));
+    }
+
+    @Test
+    void testEvictsUpdatesOfBooksNotCachedLocally() {
+        cache.getRemoteCache().put("1", new BookResponse("1", "title", "author", 2023, 1L));
+        when(checkpointRepository.findById("test")).thenReturn(Mono.empty());
+        when(bookRepository.watch(null)).thenReturn(Flux.just(
+                new BookChange(BookChange.Operation.UPDATE, "1", new Book("1", "newTitle", "author", 2023, 2L, null), "0b")));
+
+        StepVerifier.create(synchronizer.synchronize(true)).verifyComplete();
+
+        assertThat(cache.get("1")).isNull();
+    }
+
+    @Test
+    void testStartsOverWhenHistoryIsLost() {
+        cache.put("1", new BookResponse("1", "title", "author", 2023, 1L));
+        when(checkpointRepository.findById("test")).thenReturn(Mono.just(new ChangeCheckpoint("test", "0a", null, null, null)));
+        MongoCommandException historyLost = new MongoCommandException(
+                new BsonDocument("code", new BsonInt32(286)), new ServerAddress());
+        when(bookRepository.watch("0a")).thenReturn(Flux.error(new UncategorizedMongoDbException("lost", historyLost)));
+        when(bookRepository.watch(null)).thenReturn(Flux.empty());
+
+        StepVerifier.create(synchronizer.synchronize(true)).verifyComplete();
+
+        assertThat(cache.get("1")).isNull();
+        verify(checkpointRepository).clearResumeToken(eq("test"), anyString());
+    }
+
+    @Test
+    void testClearsCacheWhenStreamIsInvalidated() {
+        cache.put("1", new BookResponse("1", "title", "author", 2023, 1L));
+        when(checkpointRepository.findById("test")).thenReturn(Mono.empty());
+        when(bookRepository.watch(null)).thenReturn(Flux.just(
+                new BookChange(BookChange.Operation.INVALIDATE, null, null, "0b")));
+
+        StepVerifier.create(synchronizer.synchronize(true)).verifyComplete();
+
+        assertThat(cache.get("1")).isNull();
+        verify(checkpointRepository).clearResumeToken(eq("test"), anyString());
+    }
+
+    @Test
+    void testReplicaOnlyEvictsItsLocalCopies() {
+        BookResponse cached = new BookResponse("1", "title", "author", 2023, 1L);
+        cache.put("1", cached);
+        when(checkpointRepository.findById("test")).thenReturn(Mono.just(new ChangeCheckpoint("test", "0a", null, null, null)));
+        when(bookRepository.watch("0a")).thenReturn(Flux.just(
+                new BookChange(BookChange.Operation.UPDATE, "1", new Book("1", "newTitle", "author", 2023, 2L, null), "0b"),
+                new BookChange(BookChange.Operation.INSERT, "3", new Book("3", "title", "author", 2023, 0L, null), "0c")));
+
+        StepVerifier.create(synchronizer.synchronize(false)).verifyComplete();
+
+        assertThat(cache.getLocal("1")).isNull();
+        assertThat(cache.getRemoteCache().get("1", BookResponse.class)).isEqualTo(cached);
+        verify(missingBookCache).invalidate("3");
+        verify(checkpointRepository, never()).saveResumeToken(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testStepsDownWhenTheLeaseCannotBeRenewed() {
+        when(checkpointRepository.acquireLease(eq("test"), anyString(), eq(Duration.ofSeconds(30))))
+                .thenReturn(Mono.error(new IllegalStateException("mongo is down")));
+
+        StepVerifier.create(synchronizer.renewLease(Duration.ofSeconds(1))).expectNext(false).verifyComplete();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookResponseRedisSerializerTest {
+
+    private final BookResponseRedisSerializer serializer = new BookResponseRedisSerializer(getClass().getClassLoader());
+
+    @ParameterizedTest
+    @MethodSource("provideBookResponses")
+    void testRoundTrip(BookResponse bookResponse) {
+        byte[] bytes = serializer.serialize(bookResponse);
+
+        assertThat(bytes[0]).isEqualTo(BookResponseRedisSerializer.VERSION_2);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(bookResponse);
+    }
+
+    private static Stream<Arguments> provideBookResponses() {
+        return Stream.of(
+                Arguments.of(new BookResponse("65a0f1c2e4b0a1b2c3d4e5f6", "Spring Boot in Action", "Craig Walls", 2015, 1L)),
+                Arguments.of(new BookResponse("123", "Ünïcødé", "作者", -350, 1L)),
+                Arguments.of(new BookResponse("123", null, null, null, null)),
+                Arguments.of(new BookResponse("123", "t".repeat(300), "", Integer.MAX_VALUE, Long.MAX_VALUE))
+        );
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJdkSerialization() {
+        BookResponse bookResponse = new BookResponse("65a0f1c2e4b0a1b2c3d4e5f6", "Spring Boot in Action", "Craig Walls", 2015, 1L);
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(bookResponse);
+
+        assertThat(serializer.serialize(bookResponse)).hasSizeLessThan(jdk.length / 4);
+    }
+
+    @Test
+    void testReadsJdkAndJsonEncodedValues() {
+        BookResponse bookResponse = new BookResponse("123", "title", "author", 2023, 1L);
+
+        assertThat(serializer.deserialize(new JdkSerializationRedisSerializer().serialize(bookResponse))).isEqualTo(bookResponse);
+        assertThat(serializer.deserialize(new GenericJackson2JsonRedisSerializer().serialize(bookResponse))).isEqualTo(bookResponse);
+    }
+
+    @Test
+    void testReadsVersion1Values() {
+        byte[] bytes = {BookResponseRedisSerializer.VERSION_1, 0b1001, 3, '1', '2', '3', (byte) 0xCE, 0x1F};
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(new BookResponse("123", null, null, 2023, null));
+        assertThat(BookResponseRedisSerializer.peekVersion(bytes)).isNull();
+    }
+
+    @Test
+    void testPeeksVersionFromPrefix() {
+        byte[] bytes = serializer.serialize(new BookResponse("123", "title", "author", 2023, 300L));
+        byte[] prefix = Arrays.copyOf(bytes, BookResponseRedisSerializer.PEEK_LENGTH);
+
+        assertThat(BookResponseRedisSerializer.peekVersion(prefix)).isEqualTo(300L);
+        assertThat(BookResponseRedisSerializer.peekVersion(serializer.serialize(new BookResponse("123", null, null, null, null)))).isNull();
+        assertThat(BookResponseRedisSerializer.peekVersion(new JdkSerializationRedisSerializer().serialize("value"))).isNull();
+    }
+
+    @Test
+    void testFallsBackToJsonForOtherTypes() {
+        byte[] bytes = serializer.serialize("value");
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo("value");
+    }
+
+    @Test
+    void testRejectsTruncatedValues() {
+        byte[] bytes = serializer.serialize(new BookResponse("123", "title", "author", 2023, 1L));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+    }
+}
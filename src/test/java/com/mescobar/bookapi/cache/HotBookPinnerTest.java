@@ -0,0 +1,111 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.BookCacheProperties;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.HotBookResponse;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotBookPinnerTest {
+
+    private HotBookSketch sketch;
+    private BookRepository bookRepository;
+    private TwoLevelCache cache;
+    private BookCache bookCache;
+    private HotBookPinner pinner;
+
+    @BeforeEach
+    void setUp() {
+        sketch = new HotBookSketch(100, 1.0);
+        bookRepository = mock(BookRepository.class);
+        LocalInvalidationChannel invalidationChannel = new LocalInvalidationChannel();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(CachingConfig.BOOKS),
+                () -> Caffeine.newBuilder().maximumSize(100), invalidationChannel, new SimpleMeterRegistry(), 0);
+        cache = cacheManager.getCache(CachingConfig.BOOKS);
+        bookCache = new BookCache(cacheManager, null, invalidationChannel, sketch);
+        BookCacheProperties properties = new BookCacheProperties(null, null, null, null, 1.0, null, null, null,
+                new BookCacheProperties.Pinning(true, 2, Duration.ofSeconds(1), 0.1));
+        pinner = new HotBookPinner(sketch, bookRepository, bookCache, new BookMapperImpl(), properties);
+        when(bookRepository.findAllById(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<String>>getArgument(0))
+                .map(id -> new Book(id, "title-" + id, "author", 2023, 1L, null)));
+    }
+
+    @Test
+    void testPinsTheHottestBooksAboveTheMinimumShare() {
+        IntStream.range(0, 50).forEach(i -> bookCache.recordAccess("1"));
+        IntStream.range(0, 30).forEach(i -> bookCache.recordAccess("2"));
+        IntStream.range(0, 15).forEach(i -> bookCache.recordAccess("3"));
+        IntStream.range(0, 5).forEach(i -> bookCache.recordAccess("4"));
+
+        StepVerifier.create(pinner.refresh()).expectNext(2).verifyComplete();
+
+        assertThat(cache.getPinnedKeys()).containsExactlyInAnyOrder("1", "2");
+        assertThat(cache.getLocal("1")).isEqualTo(new BookResponse("1", "title-1", "author", 2023, 1L));
+        assertThat(bookCache.hottest(3)).containsExactly(
+                new HotBookResponse("1", 50, 0.5, true),
+                new HotBookResponse("2", 30, 0.3, true),
+                new HotBookResponse("3", 15, 0.15, false));
+    }
+
+    @Test
+    void testSkipsBooksWrittenOrEvictedWhileLoading() {
+        BookResponse updated = new BookResponse("1", "updated", "author", 2023, 2L);
+        cache.pin(Map.of("1", new BookResponse("1", "title-1", "author", 2023, 1L)));
+        IntStream.range(0, 50).forEach(i -> bookCache.recordAccess("1"));
+        IntStream.range(0, 50).forEach(i -> bookCache.recordAccess("2"));
+        when(bookRepository.findAllById(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<String>>getArgument(0))
+                .map(id -> new Book(id, "title-" + id, "author", 2023, 1L, null))
+                .doOnComplete(() -> {
+                    cache.put("1", updated);
+                    cache.evict("2");
+                }));
+
+        StepVerifier.create(pinner.refresh()).expectNext(2).verifyComplete();
+
+        assertThat(cache.getPinnedKeys()).containsExactly("1");
+        assertThat(cache.getLocal("1")).isEqualTo(updated);
+    }
+
+    @Test
+    void testUnpinsBooksThatCooledDown() {
+        cache.pin(Map.of("1", new BookResponse("1", "title-1", "author", 2023, 1L)));
+        IntStream.range(0, 100).forEach(i -> bookCache.recordAccess("book-" + i));
+
+        StepVerifier.create(pinner.refresh()).expectNext(0).verifyComplete();
+
+        assertThat(cache.getPinnedKeys()).isEmpty();
+        verify(bookRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    void testKeepsThePinnedBooksWhenMongoFails() {
+        cache.pin(Map.of("1", new BookResponse("1", "title-1", "author", 2023, 1L)));
+        IntStream.range(0, 10).forEach(i -> bookCache.recordAccess("1"));
+        when(bookRepository.findAllById(anyList())).thenReturn(Flux.error(new IllegalStateException("mongo down")));
+
+        StepVerifier.create(pinner.refresh()).verifyComplete();
+
+        assertThat(cache.getPinnedKeys()).containsExactly("1");
+    }
+}
@@ -0,0 +1,82 @@
+package com.mescobar.bookapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class HotBookSketchTest {
+
+    @Test
+    void testTopReturnsHottestFirst() {
+        HotBookSketch sketch = new HotBookSketch(10, 1.0);
+        IntStream.range(0, 30).forEach(i -> sketch.record("hot"));
+        IntStream.range(0, 20).forEach(i -> sketch.record("warm"));
+        sketch.record("cold");
+
+        assertThat(sketch.top(2)).containsExactly(
+                entry("hot", 30L),
+                entry("warm", 20L));
+    }
+
+    @Test
+    void testKeepsHotIdsWhenCandidatesOverflow() {
+        HotBookSketch sketch = new HotBookSketch(10, 1.0);
+        IntStream.range(0, 10).forEach(i -> IntStream.range(0, 100).forEach(j -> sketch.record("hot-" + i)));
+        IntStream.range(0, 1000).forEach(i -> sketch.record("cold-" + i));
+
+        assertThat(sketch.top(10).keySet()).allMatch(id -> id.startsWith("hot-")).hasSize(10);
+    }
+
+    @Test
+    void testBoundsCandidatesWithoutTrimmingOnRecord() {
+        HotBookSketch sketch = new HotBookSketch(10, 1.0);
+        IntStream.range(0, 5).forEach(i -> IntStream.range(0, 100).forEach(j -> sketch.record("hot-" + i)));
+        IntStream.range(0, 1000).forEach(i -> sketch.record("cold-" + i));
+        assertThat(sketch.top(100)).hasSize(20);
+
+        sketch.trim();
+
+        assertThat(sketch.top(100)).hasSize(10).containsKeys("hot-0", "hot-1", "hot-2", "hot-3", "hot-4");
+        sketch.record("new");
+        assertThat(sketch.top(100)).containsKey("new");
+    }
+
+    @Test
+    void testTotalCountsEveryRecordedRead() {
+        HotBookSketch sketch = new HotBookSketch(10, 1.0);
+        IntStream.range(0, 30).forEach(i -> sketch.record("book-" + i % 3));
+
+        assertThat(sketch.total()).isEqualTo(30);
+        sketch.decay();
+        assertThat(sketch.total()).isEqualTo(15);
+    }
+
+    @Test
+    void testDecayCoolsDownIds() {
+        HotBookSketch sketch = new HotBookSketch(10, 1.0);
+        IntStream.range(0, 8).forEach(i -> sketch.record("hot"));
+        sketch.record("cold");
+
+        sketch.decay();
+
+        assertThat(sketch.estimate("hot")).isEqualTo(4);
+        assertThat(sketch.top(10)).containsOnlyKeys("hot");
+    }
+
+    @Test
+    void testSamplesReads() {
+        HotBookSketch sketch = new HotBookSketch(10, 0.1);
+        IntStream.range(0, 10_000).forEach(i -> sketch.record("hot"));
+
+        assertThat(sketch.estimate("hot")).isBetween(800L, 1200L);
+    }
+
+    @Test
+    void testRejectsInvalidSampleRate() {
+        assertThatThrownBy(() -> new HotBookSketch(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotBookStoreTest {
+
+    @Test
+    void testKeepsEveryKeyInOneClusterSlot() {
+        @SuppressWarnings("unchecked")
+        ReactiveZSetOperations<String, String> zSet = mock(ReactiveZSetOperations.class);
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        when(redisTemplate.expire(anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(zSet.addAll(anyString(), anyCollection())).thenReturn(Mono.just(1L));
+        List<String> nodes = new ArrayList<>();
+        when(zSet.add(anyString(), anyString(), anyDouble())).thenAnswer(invocation -> {
+            nodes.add(invocation.getArgument(1));
+            return Mono.just(true);
+        });
+        when(zSet.removeRangeByScore(anyString(), any())).thenReturn(Mono.just(0L));
+        when(zSet.rangeByScore(anyString(), any())).thenAnswer(invocation -> Flux.fromIterable(nodes));
+        when(zSet.unionAndStore(anyString(), anyCollection(), anyString())).thenReturn(Mono.just(1L));
+        when(zSet.reverseRange(anyString(), any())).thenReturn(Flux.just("1"));
+        HotBookSketch sketch = new HotBookSketch(100, 1.0);
+        sketch.record("1");
+        HotBookStore store = new HotBookStore(redisTemplate, sketch, new BookCacheProperties(null, null, null, null,
+                1.0, new BookCacheProperties.HotSet(100, 1.0, Duration.ofMinutes(1), "book-api:hot-books",
+                        Duration.ofDays(1)), null, null, null));
+
+        StepVerifier.create(store.persist()).verifyComplete();
+        StepVerifier.create(store.hottest(10)).expectNext(List.of("1")).verifyComplete();
+
+        assertThat(nodes).singleElement().satisfies(node -> assertThat(node).startsWith("{book-api:hot-books}:"));
+        verify(zSet).unionAndStore(eq(nodes.get(0)), eq(List.of()), eq("{book-api:hot-books}"));
+        verify(zSet).reverseRange(eq("{book-api:hot-books}"), eq(Range.closed(0L, 9L)));
+        assertThat(SlotHash.getSlot(nodes.get(0))).isEqualTo(SlotHash.getSlot("{book-api:hot-books}:nodes"))
+                .isEqualTo(SlotHash.getSlot("{book-api:hot-books}"));
+    }
+
+    @Test
+    void testKeepsAConfiguredHashTag() {
+        assertThat(HotBookStore.hashTagged("book-api:hot-books")).isEqualTo("{book-api:hot-books}");
+        assertThat(HotBookStore.hashTagged("{hot}:books")).isEqualTo("{hot}:books");
+    }
+}
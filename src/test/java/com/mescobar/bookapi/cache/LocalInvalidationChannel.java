@@ -0,0 +1,28 @@
+package com.mescobar.bookapi.cache;
+
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Invalidation channel for a single process, where there are no other nodes to notify.
+ */
+public class LocalInvalidationChannel extends CacheInvalidationChannel {
+
+    public LocalInvalidationChannel() {
+        super(null, null, "local");
+    }
+
+    @Override
+    public void publishEvict(String cacheName, Collection<?> keys) {
+    }
+
+    @Override
+    public void publishClear(String cacheName) {
+    }
+
+    @Override
+    public Flux<CacheInvalidation> listen() {
+        return Flux.never();
+    }
+}
@@ -0,0 +1,34 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MissingBookCacheTest {
+
+    private final MissingBookCache missingBookCache = new MissingBookCache(
+            new BookCacheProperties(new BookCacheProperties.Local(10, Duration.ofMinutes(10)),
+                    new BookCacheProperties.Negative(10, Duration.ofSeconds(30)), "channel",
+                    BookCacheProperties.Serializer.BINARY, 1.0, null, null, null, null),
+            new SimpleMeterRegistry());
+
+    @Test
+    void testMarkAndInvalidate() {
+        missingBookCache.markMissing("123");
+        missingBookCache.markMissing("456");
+
+        assertThat(missingBookCache.isMissing("123")).isTrue();
+        assertThat(missingBookCache.isMissing("789")).isFalse();
+
+        missingBookCache.invalidate("123");
+        missingBookCache.invalidateAll(List.of("456"));
+
+        assertThat(missingBookCache.isMissing("123")).isFalse();
+        assertThat(missingBookCache.isMissing("456")).isFalse();
+    }
+}
@@ -0,0 +1,162 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.BookCacheProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResilientCacheTest {
+
+    private static final BookCacheProperties.Resilience RESILIENCE = new BookCacheProperties.Resilience(true,
+            Duration.ofMillis(50), 0.5, 4, 10, Duration.ofSeconds(10), 100);
+
+    private final BookResponse bookResponse = new BookResponse("123", "title", "author", 2023, 1L);
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Runnable> queuedWrites = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<CompletableFuture<BookResponse>> loader = () -> {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(bookResponse);
+    };
+
+    private UnreliableCache redis;
+    private MeterRegistry meterRegistry;
+    private ResilientCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = new UnreliableCache();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ResilientCache(redis, RESILIENCE, queuedWrites::add, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void testHitDoesNotLoad() {
+        redis.put("123", bookResponse);
+
+        assertThat(cache.retrieve("123", loader).join()).isEqualTo(bookResponse);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void testSlowRedisFallsThroughToTheLoader() {
+        redis.setLatency(Duration.ofSeconds(5));
+
+        BookResponse loaded = cache.retrieve("123", loader).orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertThat(loaded).isEqualTo(bookResponse);
+        assertThat(loads).hasValue(1);
+        assertThat(bypasses("read", "timeout")).isEqualTo(1);
+        assertThat(queuedWrites).hasSize(1);
+    }
+
+    @Test
+    void testFailuresOpenTheCircuitAndBypassRedis() {
+        redis.setDown(true);
+
+        IntStream.range(0, 4).forEach(i -> assertThat(cache.retrieve("123", loader).join()).isEqualTo(bookResponse));
+        assertThat(cache.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(bypasses("read", "error")).isEqualTo(4);
+
+        assertThat(cache.retrieve("123", loader).join()).isEqualTo(bookResponse);
+        assertThat(cache.get("123")).isNull();
+        assertThat(redis.calls()).isEqualTo(4);
+        assertThat(bypasses("read", "open")).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.circuit.state").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testProbeClosesTheCircuitOnceRedisRecovers() {
+        redis.setDown(true);
+        IntStream.range(0, 4).forEach(i -> cache.retrieve("123").join());
+        redis.setDown(false);
+        redis.put("123", bookResponse);
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThat(cache.retrieve("123", loader).join()).isEqualTo(bookResponse);
+        assertThat(cache.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void testPutsAndEvictionsAreWrittenBehindInOrder() {
+        cache.put("123", bookResponse);
+        cache.evict("123");
+        cache.put("123", bookResponse);
+
+        assertThat(redis.calls()).isZero();
+        queuedWrites.forEach(Runnable::run);
+
+        assertThat(redis.calls()).isEqualTo(3);
+        assertThat(redis.get("123")).isNotNull();
+    }
+
+    @Test
+    void testWritesAreDroppedWhenTheQueueIsFull() {
+        ResilientCache saturated = new ResilientCache(redis, RESILIENCE, write -> {
+            throw new RejectedExecutionException("queue full");
+        }, meterRegistry);
+
+        saturated.put("123", bookResponse);
+
+        assertThat(redis.calls()).isZero();
+        assertThat(meterRegistry.get("cache.writes.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDirectReadsAreGuarded() {
+        StepVerifier.create(cache.read(Mono.never()))
+                .expectSubscription()
+                .verifyComplete();
+        StepVerifier.create(cache.read(Mono.error(new IllegalStateException("Redis is down"))))
+                .verifyComplete();
+
+        assertThat(bypasses("read", "timeout")).isEqualTo(1);
+        assertThat(bypasses("read", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void testCancelledProbeDoesNotKeepBypassingRedis() {
+        redis.setDown(true);
+        IntStream.range(0, 4).forEach(i -> cache.retrieve("123").join());
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        StepVerifier.create(cache.read(Mono.never()))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        assertThat(cache.circuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        StepVerifier.create(cache.read(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        assertThat(cache.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testUnwrap() {
+        assertThat(ResilientCache.unwrap(cache)).isSameAs(redis);
+        assertThat(ResilientCache.unwrap((Cache) redis)).isSameAs(redis);
+    }
+
+    private double bypasses(String operation, String reason) {
+        return meterRegistry.get("cache.bypasses").tags("operation", operation, "reason", reason).counter().count();
+    }
+}
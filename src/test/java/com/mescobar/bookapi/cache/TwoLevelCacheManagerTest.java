@@ -0,0 +1,53 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TwoLevelCacheManagerTest {
+
+    @Test
+    void testRemoteInvalidationEvictsLocalEntries() throws Exception {
+        CacheInvalidationChannel invalidationChannel = mock(CacheInvalidationChannel.class);
+        Sinks.Many<CacheInvalidation> invalidations = Sinks.many().unicast().onBackpressureBuffer();
+        when(invalidationChannel.listen()).thenReturn(invalidations.asFlux());
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(),
+                Caffeine::newBuilder, invalidationChannel, new SimpleMeterRegistry(), 0);
+        cacheManager.afterPropertiesSet();
+
+        TwoLevelCache cache = cacheManager.getCache(CachingConfig.BOOKS);
+        cache.put("123", new BookResponse("123", "title", "author", 2023, 1L));
+        cache.put("456", new BookResponse("456", "title", "author", 2023, 1L));
+
+        invalidations.tryEmitNext(new CacheInvalidation("other-node", CachingConfig.BOOKS, List.of("123")));
+
+        assertThat(cache.getLocalCache().getIfPresent("123")).isNull();
+        assertThat(cache.getLocalCache().getIfPresent("456")).isNotNull();
+        assertThat(cache.getRemoteCache().get("123")).isNotNull();
+
+        invalidations.tryEmitNext(CacheInvalidation.clear("other-node", CachingConfig.BOOKS));
+
+        assertThat(cache.getLocalCache().asMap()).isEmpty();
+        cacheManager.destroy();
+    }
+
+    @Test
+    void testInvalidationMessageRoundTrip() {
+        CacheInvalidation evict = new CacheInvalidation("node", CachingConfig.BOOKS, List.of("a|b", "c"));
+        CacheInvalidation clear = CacheInvalidation.clear("node", CachingConfig.BOOKS);
+
+        assertThat(CacheInvalidation.decode(evict.encode())).isEqualTo(evict);
+        assertThat(CacheInvalidation.decode(clear.encode())).isEqualTo(clear);
+    }
+}
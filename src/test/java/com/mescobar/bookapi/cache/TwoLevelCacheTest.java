@@ -0,0 +1,240 @@
+package com.mescobar.bookapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mescobar.bookapi.config.CachingConfig;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwoLevelCacheTest {
+
+    private final BookResponse bookResponse = new BookResponse("123", "title", "author", 2023, 1L);
+
+    private Cache remote;
+    private CacheInvalidationChannel invalidationChannel;
+    private MeterRegistry meterRegistry;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache(CachingConfig.BOOKS);
+        invalidationChannel = mock(CacheInvalidationChannel.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TwoLevelCache(Caffeine.newBuilder().maximumSize(10).recordStats().build(), remote,
+                invalidationChannel, meterRegistry);
+    }
+
+    @Test
+    void testRetrievePromotesRemoteHitToLocal() {
+        remote.put("123", bookResponse);
+
+        assertThat(cache.retrieve("123").join()).isInstanceOfSatisfying(Cache.ValueWrapper.class,
+                wrapper -> assertThat(wrapper.get()).isEqualTo(bookResponse));
+        remote.evict("123");
+
+        assertThat(cache.retrieve("123").join()).isEqualTo(bookResponse);
+        assertThat(tierCount("l2", "hit")).isEqualTo(1);
+        assertThat(tierCount("l1", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void testRetrieveWhenMissingInBothTiers() {
+        assertThat(cache.retrieve("123").join()).isNull();
+        assertThat(tierCount("l2", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testRetrieveWithLoaderPopulatesBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        BookResponse first = cache.retrieve("123", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(bookResponse);
+        }).join();
+        BookResponse second = cache.retrieve("123", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(bookResponse);
+        }).join();
+
+        assertThat(first).isEqualTo(bookResponse);
+        assertThat(second).isEqualTo(bookResponse);
+        assertThat(loads).hasValue(1);
+        assertThat(remote.get("123")).isNotNull();
+        assertThat(cache.getLocalCache().getIfPresent("123")).isEqualTo(bookResponse);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() {
+        Cache stormRemote = nonCoalescingRemote();
+        TwoLevelCache stormCache = new TwoLevelCache(Caffeine.newBuilder().build(), stormRemote, invalidationChannel,
+                meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<BookResponse> pending = new CompletableFuture<>();
+        Supplier<CompletableFuture<BookResponse>> loader = () -> {
+            loads.incrementAndGet();
+            return pending;
+        };
+
+        IntStream.range(0, 100).forEach(i -> stormRemote.retrieve("123", loader));
+        assertThat(loads).hasValue(100);
+
+        loads.set(0);
+        List<CompletableFuture<BookResponse>> results = IntStream.range(0, 100)
+                .mapToObj(i -> stormCache.retrieve("123", loader))
+                .toList();
+        pending.complete(bookResponse);
+
+        assertThat(loads).hasValue(1);
+        assertThat(results).allSatisfy(result -> assertThat(result.join()).isEqualTo(bookResponse));
+        assertThat(meterRegistry.get("cache.loads.coalesced").counter().count()).isEqualTo(99);
+    }
+
+    @Test
+    void testCancelledCallerDoesNotCancelSharedLoad() {
+        CompletableFuture<BookResponse> pending = new CompletableFuture<>();
+        TwoLevelCache stormCache = new TwoLevelCache(Caffeine.newBuilder().build(), nonCoalescingRemote(),
+                invalidationChannel, meterRegistry);
+
+        CompletableFuture<BookResponse> first = stormCache.retrieve("123", () -> pending);
+        CompletableFuture<BookResponse> second = stormCache.retrieve("123", () -> pending);
+        first.cancel(true);
+        pending.complete(bookResponse);
+
+        assertThat(second.join()).isEqualTo(bookResponse);
+    }
+
+    @Test
+    void testRemoteReadOvertakenByAnEvictionIsNotKeptLocally() {
+        CompletableFuture<BookResponse> pending = new CompletableFuture<>();
+        TwoLevelCache racingCache = new TwoLevelCache(Caffeine.newBuilder().build(), nonCoalescingRemote(),
+                invalidationChannel, meterRegistry);
+
+        CompletableFuture<BookResponse> result = racingCache.retrieve("123", () -> pending);
+        racingCache.evictLocal("123");
+        pending.complete(bookResponse);
+
+        assertThat(result.join()).isEqualTo(bookResponse);
+        assertThat(racingCache.getLocal("123")).isNull();
+        assertThat(racingCache.retrieve("123", () -> CompletableFuture.completedFuture(bookResponse)).join())
+                .isEqualTo(bookResponse);
+        assertThat(racingCache.getLocal("123")).isEqualTo(bookResponse);
+    }
+
+    @Test
+    void testHotEntryIsRefreshedBeforeExpiry() {
+        AtomicLong nanos = new AtomicLong();
+        TwoLevelCache refreshingCache = new TwoLevelCache(Caffeine.newBuilder().build(), remote, invalidationChannel,
+                meterRegistry, Duration.ofHours(1), 1.0, Runnable::run, nanos::get);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<CompletableFuture<BookResponse>> loader = () -> {
+            loads.incrementAndGet();
+            nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+            return CompletableFuture.completedFuture(bookResponse);
+        };
+
+        refreshingCache.retrieve("123", loader).join();
+        refreshingCache.retrieve("123", loader).join();
+        assertThat(loads).hasValue(1);
+
+        nanos.set(Duration.ofHours(1).plusSeconds(1).toNanos() - 1);
+        assertThat(refreshingCache.retrieve("123", loader).join()).isEqualTo(bookResponse);
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("cache.refreshes.early").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPutWritesBothTiersAndPublishes() {
+        cache.put("123", bookResponse);
+
+        assertThat(remote.get("123", BookResponse.class)).isEqualTo(bookResponse);
+        assertThat(cache.getLocalCache().getIfPresent("123")).isEqualTo(bookResponse);
+        verify(invalidationChannel).publishEvict(CachingConfig.BOOKS, List.of("123"));
+    }
+
+    @Test
+    void testEvictRemovesBothTiersAndPublishes() {
+        cache.put("123", bookResponse);
+
+        cache.evict("123");
+
+        assertThat(remote.get("123")).isNull();
+        assertThat(cache.getLocalCache().getIfPresent("123")).isNull();
+        verify(invalidationChannel, times(2)).publishEvict(CachingConfig.BOOKS, List.of("123"));
+    }
+
+    @Test
+    void testEvictLocalKeepsRemote() {
+        cache.put("123", bookResponse);
+
+        cache.evictLocal("123");
+
+        assertThat(remote.get("123")).isNotNull();
+        assertThat(cache.getLocalCache().getIfPresent("123")).isNull();
+    }
+
+    @Test
+    void testPinnedEntriesAreServedWithoutTheTiers() {
+        cache.pin(Map.of("123", bookResponse));
+        remote.evict("123");
+
+        assertThat(cache.retrieve("123", () -> CompletableFuture.failedFuture(new IllegalStateException())).join())
+                .isEqualTo(bookResponse);
+        assertThat(cache.get("123", BookResponse.class)).isEqualTo(bookResponse);
+        assertThat(tierCount("pinned", "hit")).isEqualTo(2);
+        assertThat(tierCount("l2", "miss")).isZero();
+    }
+
+    @Test
+    void testWritesAndInvalidationsReachPinnedEntries() {
+        BookResponse updated = new BookResponse("123", "newTitle", "author", 2023, 2L);
+        cache.pin(Map.of("123", bookResponse, "456", bookResponse));
+
+        cache.put("123", updated);
+        cache.evictLocal("456");
+        cache.putLocal("789", updated);
+
+        assertThat(cache.getLocal("123")).isEqualTo(updated);
+        assertThat(cache.getPinnedKeys()).containsExactly("123");
+
+        cache.pin(Map.of("789", updated));
+        assertThat(cache.getPinnedKeys()).containsExactly("789");
+        cache.clearLocal();
+        assertThat(cache.getPinnedKeys()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache nonCoalescingRemote() {
+        Cache stormRemote = mock(Cache.class);
+        when(stormRemote.getName()).thenReturn(CachingConfig.BOOKS);
+        when(stormRemote.retrieve(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<CompletableFuture<?>>>getArgument(1).get());
+        return stormRemote;
+    }
+
+    private double tierCount(String tier, String result) {
+        return meterRegistry.get("cache.gets").tags("tier", tier, "result", result).meters().stream()
+                .mapToDouble(meter -> meter.measure().iterator().next().getValue())
+                .sum();
+    }
+}
@@ -0,0 +1,78 @@
+package com.mescobar.bookapi.cache;
+
+import com.mescobar.bookapi.config.CachingConfig;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stand-in for the Redis tier that can be made slow or unreachable, and counts the calls it receives.
+ */
+class UnreliableCache extends ConcurrentMapCache {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile boolean down;
+
+    UnreliableCache() {
+        super(CachingConfig.BOOKS);
+    }
+
+    void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    void setDown(boolean down) {
+        this.down = down;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        call();
+        return super.get(key);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        calls.incrementAndGet();
+        if (down) {
+            return CompletableFuture.failedFuture(new RedisConnectionFailureException("Redis is down"));
+        }
+        return CompletableFuture.supplyAsync(() -> super.get(key),
+                CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        call();
+        super.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        call();
+        super.evict(key);
+    }
+
+    private void call() {
+        calls.incrementAndGet();
+        if (down) {
+            throw new RedisConnectionFailureException("Redis is down");
+        }
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.config.BlockingConfig;
+import com.mescobar.bookapi.config.BookBlockingProperties;
+import com.mescobar.bookapi.config.BookExportProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
+import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookCursor;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSort;
+import com.mescobar.bookapi.service.BlockingBookService;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.BookImportService;
+import com.mescobar.bookapi.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.mescobar.bookapi.TestUtils.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(BlockingBookController.class)
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@Import({BookMapperImpl.class, BlockingConfig.class})
+@EnableConfigurationProperties({BookExportProperties.class, BookBlockingProperties.class})
+@ActiveProfiles("blocking")
+class BlockingBookControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private BlockingBookService bookService;
+
+    @MockBean
+    private BookService reactiveBookService;
+
+    @MockBean
+    private BookBulkService bookBulkService;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        when(bookCache.get(anyString(), any())).thenAnswer(invocation ->
+                Mono.defer(invocation.<Supplier<Mono<BookResponse>>>getArgument(1)));
+        when(bookCache.version(anyString())).thenReturn(Mono.empty());
+        when(bookCache.putAll(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void testGetBooks() {
+        when(bookService.getBooks()).thenAnswer(invocation -> Stream.of(getDefaultBook(), getDefaultBook()));
+
+        webTestClient.get()
+                .uri(API_BOOKS_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectBodyList(BookResponse.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void testGetBooksPageRunsOnTheTaskExecutor() {
+        Book book = getDefaultBook();
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(bookService.getBooks(any(BookPageRequest.class))).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return List.of(book);
+        });
+
+        webTestClient.get()
+                .uri(API_BOOKS_URL + "?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(BookController.NEXT_CURSOR_HEADER, BookCursor.of(BookSort.ID, book).encode())
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+
+        assertThat(thread.get()).startsWith("book-blocking-");
+    }
+
+    @Test
+    void testGetBookWhenNonExistent() {
+        when(bookService.validateAndGetBookById(anyString())).thenThrow(new BookNotFoundException("123"));
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testGetBookWhenExistent() {
+        Book book = getDefaultBook();
+        book.setId("123");
+        book.setVersion(2L);
+        when(bookService.validateAndGetBookById("123")).thenReturn(book);
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody(BookResponse.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().id()).isEqualTo("123"));
+
+        verify(bookCache).recordAccess("123");
+    }
+
+    @Test
+    void testGetBookLoadsMissesOnTheLoadPool() {
+        Book book = getDefaultBook();
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(bookService.validateAndGetBookById("123")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return book;
+        });
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(thread.get()).startsWith("book-load-");
+    }
+
+    @Test
+    void testGetBookWhenNotModified() {
+        when(bookCache.version("123")).thenReturn(Mono.just(3L));
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+
+        verify(bookService, never()).validateAndGetBookById(anyString());
+    }
+
+    @Test
+    void testCreateBook() {
+        Book book = getDefaultBook();
+        when(bookService.saveBook(any(Book.class))).thenReturn(book);
+
+        webTestClient.post()
+                .uri(API_BOOKS_URL)
+                .body(Mono.just(new CreateBookRequest("title", "author", 2023)), CreateBookRequest.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookResponse.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().title()).isEqualTo(book.getTitle()));
+    }
+
+    @Test
+    void testCreateBookAsyncWithoutJournalCreatesSynchronously() {
+        Book book = getDefaultBook();
+        when(bookService.saveBook(any(Book.class))).thenReturn(book);
+
+        webTestClient.post()
+                .uri(API_BOOKS_URL)
+                .header("Prefer", "respond-async")
+                .body(Mono.just(new CreateBookRequest("title", "author", 2023)), CreateBookRequest.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookResponse.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().id()).isEqualTo(book.getId()));
+
+        verify(bookCache).putAll(argThat(books -> books.size() == 1 && books.iterator().next().title().equals(book.getTitle())));
+    }
+
+    @Test
+    void testCreateBookWhenInvalid() {
+        webTestClient.post()
+                .uri(API_BOOKS_URL)
+                .body(Mono.just(new CreateBookRequest(null, "author", 2023)), CreateBookRequest.class)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(bookService, never()).saveBook(any());
+    }
+
+    @Test
+    void testUpdateBookRunsOnTheTaskExecutor() {
+        Book updated = new Book("123", "newTitle", "author", 2023, 2L, null);
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(bookService.updateBook(anyString(), any(Book.class))).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return updated;
+        });
+
+        webTestClient.patch()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .body(Mono.just(new UpdateBookRequest("newTitle", null, null)), UpdateBookRequest.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"");
+
+        verify(bookCache).putAll(any());
+        assertThat(thread.get()).startsWith("book-blocking-");
+    }
+
+    @Test
+    void testUpdateBookWhenVersionDoesNotMatch() {
+        when(bookService.updateBook(anyString(), any(Book.class))).thenThrow(new BookVersionMismatchException("123"));
+
+        webTestClient.patch()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .body(Mono.just(new UpdateBookRequest("newTitle", null, null)), UpdateBookRequest.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        verify(bookService).updateBook(eq("123"), argThat(patch -> patch.getVersion() == 1L));
+        verify(bookCache, never()).putAll(any());
+    }
+
+    @Test
+    void testDeleteBookWhenNonExistent() {
+        when(bookService.deleteBook(anyString())).thenThrow(new BookNotFoundException("123"));
+
+        webTestClient.delete()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
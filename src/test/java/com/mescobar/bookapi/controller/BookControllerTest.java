@@ -1,30 +1,59 @@
 package com.mescobar.bookapi.controller;
 
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.controller.dto.BookChangeResponse;
+import com.mescobar.bookapi.controller.dto.BookImportReport;
+import com.mescobar.bookapi.config.BookExportProperties;
 import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse;
+import com.mescobar.bookapi.controller.dto.MultiGetBookRequest;
 import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.controller.dto.HotBookResponse;
 import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
 import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import com.mescobar.bookapi.journal.BookJournal;
 import com.mescobar.bookapi.mapper.BookMapperImpl;
 import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.BookCursor;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.model.BookSort;
+import com.mescobar.bookapi.service.BookBulkService;
+import com.mescobar.bookapi.service.BookImportService;
 import com.mescobar.bookapi.service.BookService;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 import static com.mescobar.bookapi.TestUtils.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @WebFluxTest(BookController.class)
 @Import(BookMapperImpl.class)
+@EnableConfigurationProperties(BookExportProperties.class)
 class BookControllerTest {
 
     @Autowired
@@ -33,6 +62,26 @@ class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookBulkService bookBulkService;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private BookCache bookCache;
+
+    @MockBean
+    private BookJournal bookJournal;
+
+    @BeforeEach
+    void setUp() {
+        when(bookCache.get(anyString(), any())).thenAnswer(invocation ->
+                Mono.defer(invocation.<Supplier<Mono<BookResponse>>>getArgument(1)));
+        when(bookCache.version(anyString())).thenReturn(Mono.empty());
+        when(bookCache.putAll(any())).thenReturn(Mono.empty());
+    }
+
     @Test
     void testGetBooksWhenThereIsNone() {
         when(bookService.getBooks()).thenReturn(Flux.empty());
@@ -66,6 +115,117 @@ class BookControllerTest {
                 });
     }
 
+    @Test
+    void testGetBooksPageWhenThereAreMore() {
+        Book book = getDefaultBook();
+        when(bookService.getBooks(any(BookPageRequest.class))).thenReturn(Flux.just(book));
+
+        webTestClient.get()
+                .uri(API_BOOKS_URL + "?limit=1&fields=id,title")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectHeader().valueEquals(BookController.NEXT_CURSOR_HEADER, BookCursor.of(BookSort.ID, book).encode())
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void testGetBooksPageWhenItIsTheLast() {
+        when(bookService.getBooks(any(BookPageRequest.class))).thenReturn(Flux.just(getDefaultBook()));
+
+        webTestClient.get()
+                .uri(API_BOOKS_URL + "?limit=2&sort=title")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(BookController.NEXT_CURSOR_HEADER)
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void testGetBooksPageWithInvalidCursor() {
+        webTestClient.get()
+                .uri(API_BOOKS_URL + "?after=invalid")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testSearchBooks() {
+        Book book = getDefaultBook();
+        when(bookService.searchBooks(any(BookSearchRequest.class))).thenReturn(Flux.just(book));
+
+        webTestClient.get()
+                .uri(API_BOOKS_SEARCH_URL + "?author=auth&yearFrom=2000&limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectBodyList(BookResponse.class)
+                .hasSize(1);
+
+        verify(bookService).searchBooks(new BookSearchRequest(null, "auth", 2000, null, null, 10));
+    }
+
+    @Test
+    void testSearchBooksWithInvalidYearRange() {
+        webTestClient.get()
+                .uri(API_BOOKS_SEARCH_URL + "?yearFrom=2024&yearTo=2000")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetChanges() {
+        Book book = new Book("123", "title", "author", 2023, 1L, null);
+        when(bookService.getChanges("0a")).thenReturn(Flux.just(
+                new BookChange(BookChange.Operation.UPDATE, "123", book, "0b"),
+                new BookChange(BookChange.Operation.DELETE, "123", null, "0c")));
+
+        webTestClient.get()
+                .uri(API_BOOKS_CHANGES_URL + "?resumeAfter=0a")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectBodyList(BookChangeResponse.class)
+                .hasSize(2)
+                .contains(
+                        new BookChangeResponse(BookChange.Operation.UPDATE, "123", new BookResponse("123", "title", "author", 2023, 1L), "0b"),
+                        new BookChangeResponse(BookChange.Operation.DELETE, "123", null, "0c"));
+    }
+
+    @Test
+    void testGetChangeEventsResumesFromLastEventId() {
+        when(bookService.getChanges("0b")).thenReturn(Flux.just(
+                new BookChange(BookChange.Operation.DELETE, "123", null, "0c")));
+
+        webTestClient.get()
+                .uri(API_BOOKS_CHANGES_URL)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(BookController.LAST_EVENT_ID_HEADER, "0b")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .consumeWith(response -> assertThat(response.getResponseBody())
+                        .contains("id:0c", "event:DELETE", "\"operation\":\"DELETE\""));
+    }
+
+    @Test
+    void testExportBooks() {
+        when(bookService.exportBooks()).thenReturn(Flux.just(
+                RawBsonDocument.parse("{\"_id\": \"1\", \"title\": \"title\", \"year\": 2023}"),
+                RawBsonDocument.parse("{\"_id\": \"2\", \"author\": \"author\"}")));
+
+        webTestClient.get()
+                .uri(API_BOOKS_EXPORT_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectBodyList(BookResponse.class)
+                .contains(new BookResponse("1", "title", null, 2023, null), new BookResponse("2", null, "author", null, null));
+    }
+
     @Test
     void testGetBookByImdbIdWhenNonExistent() {
         when(bookService.validateAndGetBookById(anyString())).thenReturn(Mono.error(new BookNotFoundException("123")));
@@ -98,6 +258,38 @@ class BookControllerTest {
                 });
     }
 
+    @Test
+    void testGetBookWhenNotModified() {
+        when(bookCache.version("123")).thenReturn(Mono.just(3L));
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+
+        verify(bookService, never()).validateAndGetBookById(anyString());
+    }
+
+    @Test
+    void testGetBookWhenCachedVersionChanged() {
+        Book book = getDefaultBook();
+        book.setVersion(4L);
+        when(bookCache.version("123")).thenReturn(Mono.just(4L));
+        when(bookService.validateAndGetBookById(anyString())).thenReturn(Mono.just(book));
+
+        webTestClient.get()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"")
+                .expectBody(BookResponse.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().version()).isEqualTo(4L));
+    }
+
     @Test
     void testCreateBook() {
         Book book = getDefaultBook();
@@ -121,13 +313,176 @@ class BookControllerTest {
                 });
     }
 
+    @Test
+    void testGetHotBooks() {
+        when(bookCache.hottest(2)).thenReturn(List.of(new HotBookResponse("123", 500, 0.25, true),
+                new HotBookResponse("456", 100, 0.05, false)));
+
+        webTestClient.get()
+                .uri(API_BOOKS_HOT_URL + "?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(HotBookResponse.class)
+                .contains(new HotBookResponse("123", 500, 0.25, true), new HotBookResponse("456", 100, 0.05, false));
+    }
+
+    @Test
+    void testGetHotBooksWithInvalidLimit() {
+        webTestClient.get()
+                .uri(API_BOOKS_HOT_URL + "?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testCreateBookAsync() {
+        when(bookJournal.append(any(Book.class))).thenReturn(Mono.empty());
+
+        webTestClient.post()
+                .uri(API_BOOKS_URL)
+                .header("Prefer", "respond-async, wait=5")
+                .body(Mono.just(new CreateBookRequest("title", "author", 2023)), CreateBookRequest.class)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().valueEquals("Preference-Applied", "respond-async")
+                .expectBody(BookResponse.class)
+                .consumeWith(response -> {
+                    BookResponse body = response.getResponseBody();
+                    assertThat(body).isNotNull();
+                    assertThat(body.id()).isNotBlank();
+                    assertThat(body.title()).isEqualTo("title");
+                    assertThat(response.getResponseHeaders().getLocation()).hasPath(API_BOOKS_URL + "/" + body.id());
+                });
+
+        verify(bookJournal).append(argThat(book -> book.getId() != null && book.getTitle().equals("title")));
+        verify(bookService, never()).saveBook(any());
+    }
+
+    @Test
+    void testCreateBookWithOtherPreferencesCreatesSynchronously() {
+        Book book = getDefaultBook();
+        when(bookService.saveBook(any(Book.class))).thenReturn(Mono.just(book));
+
+        webTestClient.post()
+                .uri(API_BOOKS_URL)
+                .header("Prefer", "return=minimal")
+                .body(Mono.just(new CreateBookRequest("title", "author", 2023)), CreateBookRequest.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookResponse.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().id()).isEqualTo(book.getId()));
+
+        verify(bookJournal, never()).append(any());
+        verify(bookCache).putAll(argThat(books -> books.size() == 1 && book.getId().equals(books.iterator().next().id())));
+    }
+
+    @Test
+    void testCreateBookAsyncWhenInvalid() {
+        webTestClient.post()
+                .uri(API_BOOKS_URL)
+                .header("Prefer", "respond-async")
+                .body(Mono.just(new CreateBookRequest(null, "author", 2023)), CreateBookRequest.class)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(bookJournal, never()).append(any());
+    }
+
+    @Test
+    void testGetBooksById() {
+        BookResponse bookResponse = new BookResponse("123", "title", "author", 2023, 1L);
+        when(bookBulkService.getBooks(List.of("123", "456"))).thenReturn(Flux.just(
+                BulkItemResponse.success(0, BulkItemResponse.Status.FOUND, bookResponse),
+                BulkItemResponse.failure(1, "456", BulkItemResponse.Status.NOT_FOUND, null)));
+
+        webTestClient.post()
+                .uri(API_BOOKS_MGET_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new MultiGetBookRequest(List.of("123", "456")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectBodyList(BulkItemResponse.class)
+                .consumeWith(response -> {
+                    assertThat(response.getResponseBody()).hasSize(2);
+                    assertThat(response.getResponseBody().get(0).book()).isEqualTo(bookResponse);
+                    assertThat(response.getResponseBody().get(1).status()).isEqualTo(BulkItemResponse.Status.NOT_FOUND);
+                });
+        verify(bookCache).recordAccess("456");
+    }
+
+    @Test
+    void testGetBooksByIdRejectsAnEmptyRequest() {
+        webTestClient.post()
+                .uri(API_BOOKS_MGET_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new MultiGetBookRequest(List.of()))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testCreateBooks() {
+        BookResponse bookResponse = new BookResponse("123", "title", "author", 2023, 1L);
+        when(bookBulkService.createBooks(any())).thenReturn(Flux.just(
+                BulkItemResponse.success(0, BulkItemResponse.Status.CREATED, bookResponse),
+                BulkItemResponse.failure(1, null, BulkItemResponse.Status.INVALID, "title: must not be blank")));
+
+        webTestClient.post()
+                .uri(API_BOOKS_BULK_URL)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"title\":\"title\",\"author\":\"author\",\"year\":2023}\n{\"author\":\"author\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .expectBodyList(BulkItemResponse.class)
+                .consumeWith(response -> {
+                    assertThat(response.getResponseBody()).hasSize(2);
+                    assertThat(response.getResponseBody().get(0).book()).isEqualTo(bookResponse);
+                    assertThat(response.getResponseBody().get(1).status()).isEqualTo(BulkItemResponse.Status.INVALID);
+                });
+    }
+
+    @Test
+    void testImportBooksFromCsv() {
+        BookImportReport report = new BookImportReport(1, 1,
+                List.of(new BookImportReport.Rejection(3, "title: must not be blank")), true);
+        when(bookImportService.importBooks(any(), eq(BookImportService.Format.CSV), eq(true))).thenReturn(Mono.just(report));
+
+        webTestClient.post()
+                .uri(API_BOOKS_IMPORT_URL + "?ordered=true")
+                .contentType(MediaType.parseMediaType("text/csv; charset=utf-8"))
+                .bodyValue("title,author\ntitle,author\n,author\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookImportReport.class)
+                .isEqualTo(report);
+    }
+
+    @Test
+    void testImportBooksFromNdjson() {
+        BookImportReport report = new BookImportReport(1, 0, List.of(), true);
+        when(bookImportService.importBooks(any(), eq(BookImportService.Format.NDJSON), eq(false))).thenReturn(Mono.just(report));
+
+        webTestClient.post()
+                .uri(API_BOOKS_IMPORT_URL)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"title\":\"title\",\"author\":\"author\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookImportReport.class)
+                .isEqualTo(report);
+    }
+
     @Test
     void testUpdateBook() {
         Book book = getDefaultBook();
         UpdateBookRequest updateBookRequest = new UpdateBookRequest("newTitle", "newActors", 2024);
 
-        when(bookService.validateAndGetBookById(anyString())).thenReturn(Mono.just(book));
-        when(bookService.saveBook(any(Book.class))).thenReturn(Mono.just(book));
+        Book updated = new Book(book.getId(), updateBookRequest.title(), updateBookRequest.author(),
+                updateBookRequest.year(), 2L, null);
+
+        when(bookService.updateBook(anyString(), any(Book.class))).thenReturn(Mono.just(updated));
 
         webTestClient.patch()
                 .uri(API_BOOKS_ID_URL.formatted("123"))
@@ -135,6 +490,7 @@ class BookControllerTest {
                 .exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
                 .expectBody(BookResponse.class)
                 .consumeWith(response -> {
                     assertThat(response.getResponseBody()).isNotNull();
@@ -145,12 +501,26 @@ class BookControllerTest {
                 });
     }
 
+    @Test
+    void testUpdateBookWhenVersionDoesNotMatch() {
+        when(bookService.updateBook(anyString(), any(Book.class))).thenReturn(Mono.error(new BookVersionMismatchException("123")));
+
+        webTestClient.patch()
+                .uri(API_BOOKS_ID_URL.formatted("123"))
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .body(Mono.just(new UpdateBookRequest("newTitle", null, null)), UpdateBookRequest.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        verify(bookService).updateBook(eq("123"), argThat(patch -> patch.getVersion() == 1L));
+        verify(bookCache, never()).putAll(any());
+    }
+
     @Test
     void testDeleteBookWhenExistent() {
         Book book = getDefaultBook();
 
-        when(bookService.validateAndGetBookById(anyString())).thenReturn(Mono.just(book));
-        when(bookService.deleteBook(any(Book.class))).thenReturn(Mono.empty());
+        when(bookService.deleteBook(anyString())).thenReturn(Mono.just(book));
 
         webTestClient.delete()
                 .uri(API_BOOKS_ID_URL.formatted("123"))
@@ -162,7 +532,7 @@ class BookControllerTest {
 
     @Test
     void testDeleteBookWhenNonExistent() {
-        when(bookService.validateAndGetBookById(anyString())).thenReturn(Mono.error(new BookNotFoundException("123")));
+        when(bookService.deleteBook(anyString())).thenReturn(Mono.error(new BookNotFoundException("123")));
 
         webTestClient.delete()
                 .uri(API_BOOKS_ID_URL.formatted("123"))
@@ -173,6 +543,6 @@ class BookControllerTest {
     }
 
         private Book getDefaultBook() {
-        return new Book("123", "title", "author", 2023);
+        return new Book("123", "title", "author", 2023, 1L, null);
     }
 }
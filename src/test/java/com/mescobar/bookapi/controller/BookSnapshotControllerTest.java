@@ -0,0 +1,108 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.controller.dto.BookSnapshotResponse;
+import com.mescobar.bookapi.snapshot.BookSnapshotter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static com.mescobar.bookapi.TestUtils.*;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = BookSnapshotController.class, properties = "book-api.snapshot.enabled=true")
+class BookSnapshotControllerTest {
+
+    private static final String NAME = "1700000000000-full.bks";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private BookSnapshotter bookSnapshotter;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testCreateSnapshot() {
+        BookSnapshotResponse snapshot = new BookSnapshotResponse(NAME, false, null, Instant.ofEpochMilli(1700000000000L), 2, 100);
+        when(bookSnapshotter.export(true)).thenReturn(Mono.just(snapshot));
+
+        webTestClient.post()
+                .uri(API_BOOKS_SNAPSHOTS_URL + "?incremental=true")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location(API_BOOKS_SNAPSHOTS_URL + "/" + NAME)
+                .expectBody(BookSnapshotResponse.class)
+                .isEqualTo(snapshot);
+    }
+
+    @Test
+    void testGetSnapshots() {
+        BookSnapshotResponse snapshot = new BookSnapshotResponse(NAME, false, null, Instant.ofEpochMilli(1700000000000L), 2, 100);
+        when(bookSnapshotter.list()).thenReturn(Mono.just(List.of(snapshot)));
+
+        webTestClient.get()
+                .uri(API_BOOKS_SNAPSHOTS_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookSnapshotResponse.class)
+                .hasSize(1)
+                .contains(snapshot);
+    }
+
+    @Test
+    void testDownloadSnapshot() throws IOException {
+        when(bookSnapshotter.resolve(NAME)).thenReturn(Optional.of(snapshot("0123456789")));
+
+        webTestClient.get()
+                .uri(API_BOOKS_SNAPSHOTS_URL + "/" + NAME)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + NAME + "\"")
+                .expectBody(String.class).isEqualTo("0123456789");
+    }
+
+    @Test
+    void testDownloadSnapshotRange() throws IOException {
+        when(bookSnapshotter.resolve(NAME)).thenReturn(Optional.of(snapshot("0123456789")));
+
+        webTestClient.get()
+                .uri(API_BOOKS_SNAPSHOTS_URL + "/" + NAME)
+                .header(HttpHeaders.RANGE, "bytes=4-")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10")
+                .expectBody(String.class).isEqualTo("456789");
+    }
+
+    @Test
+    void testDownloadMissingSnapshot() {
+        when(bookSnapshotter.resolve("missing.bks")).thenReturn(Optional.empty());
+
+        webTestClient.get()
+                .uri(API_BOOKS_SNAPSHOTS_URL + "/missing.bks")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private Path snapshot(String content) throws IOException {
+        return Files.writeString(directory.resolve(NAME), content);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.config.BookConcurrencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(bind(Map.of(
+            "book-api.concurrency.retry-after", "1500ms",
+            "book-api.concurrency.endpoints.books.pattern", "/api/books/**",
+            "book-api.concurrency.endpoints.books.limit", "2",
+            "book-api.concurrency.endpoints.export.pattern", "/api/books/_export",
+            "book-api.concurrency.endpoints.export.limit", "1",
+            "book-api.concurrency.endpoints.writes.pattern", "/api/books",
+            "book-api.concurrency.endpoints.writes.methods", "POST",
+            "book-api.concurrency.endpoints.writes.limit", "1")), meterRegistry);
+
+    @Test
+    void testRejectsWithRetryAfterOnceTheLimitIsReached() {
+        Sinks.Empty<Void> export = Sinks.empty();
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/_export"));
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/_export"));
+
+        StepVerifier.create(filter.filter(first, exchange -> export.asMono()))
+                .then(() -> {
+                    filter.filter(second, exchange -> Mono.empty()).block();
+                    assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                    assertThat(gauge("book.concurrency.in.flight", "export")).isEqualTo(1);
+                    export.tryEmitEmpty();
+                })
+                .verifyComplete();
+
+        assertThat(gauge("book.concurrency.in.flight", "export")).isZero();
+        assertThat(meterRegistry.get("book.concurrency.rejected").tag("endpoint", "export").counter().count())
+                .isEqualTo(1);
+        assertThat(served("/api/books/_export")).isTrue();
+    }
+
+    @Test
+    void testReleasesThePermitOnCancellation() {
+        Sinks.Empty<Void> export = Sinks.empty();
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/_export"));
+
+        StepVerifier.create(filter.filter(first, exchange -> export.asMono()))
+                .thenCancel()
+                .verify();
+
+        assertThat(gauge("book.concurrency.in.flight", "export")).isZero();
+        assertThat(served("/api/books/_export")).isTrue();
+    }
+
+    @Test
+    void testCountsRequestsAgainstTheMostSpecificEndpoint() {
+        Sinks.Empty<Void> export = Sinks.empty();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/_export")),
+                exchange -> export.asMono()).subscribe();
+        Sinks.Empty<Void> create = Sinks.empty();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/books")),
+                exchange -> create.asMono()).subscribe();
+
+        assertThat(gauge("book.concurrency.in.flight", "export")).isEqualTo(1);
+        assertThat(gauge("book.concurrency.in.flight", "writes")).isEqualTo(1);
+        assertThat(gauge("book.concurrency.in.flight", "books")).isZero();
+        assertThat(served("/api/books")).isTrue();
+        assertThat(gauge("book.concurrency.limit", "books")).isEqualTo(2);
+    }
+
+    @Test
+    void testPassesUnmatchedRequestsThrough() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+
+        filter.filter(exchange, chained -> Mono.empty()).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+
+    private boolean served(String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        boolean[] served = new boolean[1];
+        WebFilterChain chain = chained -> Mono.fromRunnable(() -> served[0] = true);
+        filter.filter(exchange, chain).block();
+        return served[0];
+    }
+
+    private double gauge(String name, String endpoint) {
+        return meterRegistry.get(name).tag("endpoint", endpoint).gauge().value();
+    }
+
+    private static BookConcurrencyProperties bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("book-api.concurrency", BookConcurrencyProperties.class);
+    }
+}
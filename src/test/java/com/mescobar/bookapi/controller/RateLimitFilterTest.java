@@ -0,0 +1,164 @@
+package com.mescobar.bookapi.controller;
+
+import com.mescobar.bookapi.config.BookRateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.ForwardedHeaderTransformer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRejectsWithRetryAfterOnceTheBudgetIsUsedUp() {
+        RateLimitFilter filter = filter(Map.of(), null);
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/books/1"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/books/2"));
+        assertThat(served(filter, first)).isTrue();
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/1")))).isTrue();
+        assertThat(served(filter, second)).isFalse();
+
+        assertThat(first.getResponse().getHeaders().getFirst(RateLimitFilter.LIMIT_HEADER)).isEqualTo("2");
+        assertThat(first.getResponse().getHeaders().getFirst(RateLimitFilter.REMAINING_HEADER)).isEqualTo("1");
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(second.getResponse().getHeaders().getFirst(RateLimitFilter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(meterRegistry.get("book.rate.limit.rejected").tag("budget", "point").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testKeysClientsByKnownApiKeyThenAddress() {
+        RateLimitFilter filter = filter(Map.of("book-api.rate-limit.api-keys", "k1"), null);
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/1")))).isFalse();
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/1").header("X-API-Key", "k2"))))
+                .isFalse();
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/1").header("X-API-Key", "k1"))))
+                .isTrue();
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/1")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 4000))))).isTrue();
+        assertThat(meterRegistry.get("book.rate.limit.clients").tag("budget", "point").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void testKeysProxiedClientsByTheirForwardedAddress() {
+        RateLimitFilter filter = filter(Map.of(), null);
+        ForwardedHeaderTransformer transformer = new ForwardedHeaderTransformer();
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+
+        MockServerWebExchange proxied = exchange(MockServerHttpRequest.get("/api/books/1")
+                .header("X-Forwarded-For", "203.0.113.7"));
+        ServerWebExchange forwarded = proxied.mutate().request(transformer.apply(proxied.getRequest())).build();
+
+        assertThat(served(filter, forwarded)).isTrue();
+        assertThat(forwarded.getResponse().getHeaders().getFirst(RateLimitFilter.REMAINING_HEADER)).isEqualTo("1");
+    }
+
+    @Test
+    void testSeparatesStreamingFromPointBudgets() {
+        RateLimitFilter filter = filter(Map.of(), null);
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books")))).isTrue();
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/_export")))).isFalse();
+        assertThat(served(filter, exchange(MockServerHttpRequest.post("/api/books")))).isFalse();
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/actuator/health")))).isTrue();
+    }
+
+    @Test
+    void testAppliesTheClusterWideDecision() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<List<Long>>>any(), anyList(), anyList()))
+                .thenReturn(Flux.just(List.of(0L, 0L, 2_000_000L, 1_500_000L)));
+        RateLimitFilter filter = filter(Map.of("book-api.rate-limit.redis.enabled", "true"), redisTemplate);
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/books/1"));
+
+        assertThat(served(filter, exchange)).isFalse();
+
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<List<Long>>>any(), eq(List.of("book-api:rate-limit:point:ip:10.0.0.1")),
+                eq(List.of("30000000", "60000000")));
+    }
+
+    @Test
+    void testFallsBackToTheLocalDecisionWhenRedisFails() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<List<Long>>>any(), anyList(), anyList()))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("Redis is down")));
+        RateLimitFilter filter = filter(Map.of("book-api.rate-limit.redis.enabled", "true"), redisTemplate);
+
+        assertThat(served(filter, exchange(MockServerHttpRequest.get("/api/books/1")))).isTrue();
+        assertThat(meterRegistry.get("book.rate.limit.redis.errors").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSkipsRedisWhenTheLocalBudgetIsUsedUp() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        RateLimitFilter filter = filter(Map.of(), redisTemplate);
+
+        served(filter, exchange(MockServerHttpRequest.get("/api/books/1")));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private RateLimitFilter filter(Map<String, String> overrides, ReactiveStringRedisTemplate redisTemplate) {
+        Map<String, String> properties = new HashMap<>(Map.of(
+                "book-api.rate-limit.budgets.point.patterns", "/api/books/**",
+                "book-api.rate-limit.budgets.point.limit", "2",
+                "book-api.rate-limit.budgets.point.period", "1m",
+                "book-api.rate-limit.budgets.streaming.patterns", "/api/books,/api/books/_export",
+                "book-api.rate-limit.budgets.streaming.methods", "GET",
+                "book-api.rate-limit.budgets.streaming.limit", "1",
+                "book-api.rate-limit.budgets.streaming.period", "1m"));
+        properties.putAll(overrides);
+        BookRateLimitProperties rateLimitProperties = new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("book-api.rate-limit", BookRateLimitProperties.class);
+        return new RateLimitFilter(rateLimitProperties, redisTemplate, meterRegistry);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        if (request.build().getRemoteAddress() == null) {
+            request.remoteAddress(new InetSocketAddress("10.0.0.1", 4000));
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static boolean served(RateLimitFilter filter, ServerWebExchange exchange) {
+        boolean[] served = {false};
+        filter.filter(exchange, chained -> Mono.fromRunnable(() -> served[0] = true)).block();
+        return served[0];
+    }
+}
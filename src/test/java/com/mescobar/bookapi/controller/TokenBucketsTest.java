@@ -0,0 +1,54 @@
+package com.mescobar.bookapi.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final TokenBuckets buckets = new TokenBuckets(10, Duration.ofSeconds(1), 5, 100);
+
+    @Test
+    void testAllowsABurstThenOneRequestPerInterval() {
+        long now = 1_000 * SECOND;
+
+        assertThat(IntStream.range(0, 5).mapToObj(i -> buckets.tryAcquire("a", now)))
+                .allMatch(TokenBuckets.Decision::allowed)
+                .extracting(TokenBuckets.Decision::remaining)
+                .containsExactly(4L, 3L, 2L, 1L, 0L);
+
+        TokenBuckets.Decision rejected = buckets.tryAcquire("a", now);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(SECOND / 10);
+        assertThat(rejected.resetNanos()).isEqualTo(SECOND / 2);
+
+        assertThat(buckets.tryAcquire("a", now + SECOND / 10).allowed()).isTrue();
+        assertThat(buckets.tryAcquire("a", now + SECOND / 10).allowed()).isFalse();
+    }
+
+    @Test
+    void testKeepsABucketPerKey() {
+        long now = 1_000 * SECOND;
+        IntStream.range(0, 5).forEach(i -> buckets.tryAcquire("a", now));
+
+        assertThat(buckets.tryAcquire("a", now).allowed()).isFalse();
+        assertThat(buckets.tryAcquire("b", now).allowed()).isTrue();
+    }
+
+    @Test
+    void testRefillsToCapacityOnly() {
+        long now = -5 * SECOND;
+        buckets.tryAcquire("a", now);
+
+        TokenBuckets.Decision decision = buckets.tryAcquire("a", now + 60 * SECOND);
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isEqualTo(4);
+    }
+}
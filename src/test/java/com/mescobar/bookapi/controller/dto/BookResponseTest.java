@@ -17,7 +17,7 @@ class BookResponseTest {
 
     @Test
     void testSerialize() throws IOException {
-        BookResponse bookResponse = new BookResponse("123", "title", "author", 2023);
+        BookResponse bookResponse = new BookResponse("123", "title", "author", 2023, 1L);
 
         JsonContent<BookResponse> jsonContent = jacksonTester.write(bookResponse);
 
@@ -0,0 +1,149 @@
+package com.mescobar.bookapi.journal;
+
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookJournalProperties;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.FailedJournalBook;
+import com.mescobar.bookapi.repository.BookRepository;
+import com.mescobar.bookapi.repository.FailedJournalBookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookJournalDrainerTest {
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BookRepository bookRepository;
+    private FailedJournalBookRepository failedJournalBookRepository;
+    private BookCache bookCache;
+    private MissingBookCache missingBookCache;
+    private BookJournal journal;
+    private BookJournalDrainer drainer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bookRepository = mock(BookRepository.class);
+        failedJournalBookRepository = mock(FailedJournalBookRepository.class);
+        when(failedJournalBookRepository.saveAll(anyIterable())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<Iterable<FailedJournalBook>>getArgument(0)));
+        bookCache = mock(BookCache.class);
+        missingBookCache = mock(MissingBookCache.class);
+        when(bookCache.putAll(anyCollection())).thenReturn(Mono.empty());
+        BookJournalProperties properties = new BookJournalProperties(true, directory, DataSize.ofKilobytes(64),
+                Duration.ofMillis(1), 2, Duration.ofMillis(10));
+        journal = new BookJournal(properties, meterRegistry);
+        drainer = new BookJournalDrainer(journal, bookRepository, failedJournalBookRepository, bookCache,
+                missingBookCache, new BookMapperImpl(), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void testDrainsEveryBatchAndCommits() {
+        List<Book> books = append(3);
+        when(bookRepository.bulkInsert(anyList())).thenReturn(Mono.just(Map.of()));
+
+        StepVerifier.create(drainer.drain()).verifyComplete();
+
+        verify(bookRepository).bulkInsert(books.subList(0, 2));
+        verify(bookRepository).bulkInsert(books.subList(2, 3));
+        verify(missingBookCache).invalidateAll(List.of(books.get(2).getId()));
+        verify(bookCache, times(2)).putAll(anyCollection());
+        assertThat(journal.lag()).isZero();
+        assertThat(drained("inserted")).isEqualTo(3);
+    }
+
+    @Test
+    void testDeadLettersRejectionsAndCountsDuplicatesAsDrained() {
+        List<Book> books = append(2);
+        when(bookRepository.bulkInsert(anyList())).thenReturn(Mono.just(Map.of(
+                0, "E11000 duplicate key error collection: bookdb.books index: _id_",
+                1, "Document failed validation")));
+
+        StepVerifier.create(drainer.drain()).verifyComplete();
+
+        verify(failedJournalBookRepository).saveAll(argThat((List<FailedJournalBook> failed) -> failed.size() == 1
+                && failed.get(0).getBook().equals(books.get(1))
+                && failed.get(0).getError().equals("Document failed validation")));
+        verify(bookCache).putAll(argThat(Collection::isEmpty));
+        assertThat(journal.lag()).isZero();
+        assertThat(drained("duplicate")).isEqualTo(1);
+        assertThat(drained("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void testKeepsTheBatchWhenDeadLetteringFails() {
+        List<Book> books = append(2);
+        when(bookRepository.bulkInsert(anyList())).thenReturn(Mono.just(Map.of(1, "Document failed validation")));
+        when(failedJournalBookRepository.saveAll(anyIterable()))
+                .thenReturn(Flux.error(new DataAccessResourceFailureException("Mongo is down")));
+
+        StepVerifier.create(drainer.drain()).verifyError(DataAccessResourceFailureException.class);
+
+        verify(bookCache, never()).putAll(any());
+        assertThat(journal.lag()).isEqualTo(2);
+        assertThat(journal.read(10).books()).isEqualTo(books);
+        assertThat(drained("rejected")).isZero();
+    }
+
+    @Test
+    void testKeepsTheBatchWhenMongoFails() {
+        List<Book> books = append(2);
+        when(bookRepository.bulkInsert(anyList()))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("Mongo is down")));
+
+        StepVerifier.create(drainer.drain()).verifyError(DataAccessResourceFailureException.class);
+
+        verify(bookCache, never()).putAll(any());
+        assertThat(journal.lag()).isEqualTo(2);
+        assertThat(journal.read(10).books()).isEqualTo(books);
+    }
+
+    private List<Book> append(int count) {
+        List<Book> books = IntStream.range(0, count)
+                .mapToObj(i -> new Book(new ObjectId().toHexString(), "title " + i, "author", 2023, null, null))
+                .toList();
+        books.forEach(book -> journal.append(book).block(Duration.ofSeconds(5)));
+        return books;
+    }
+
+    private double drained(String outcome) {
+        return meterRegistry.get("book.journal.drained").tag("outcome", outcome).counter().count();
+    }
+}
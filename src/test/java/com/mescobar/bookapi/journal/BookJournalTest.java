@@ -0,0 +1,173 @@
+package com.mescobar.bookapi.journal;
+
+import com.mescobar.bookapi.config.BookJournalProperties;
+import com.mescobar.bookapi.model.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<BookJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(BookJournal::close);
+    }
+
+    @Test
+    void testAppendCompletesOnceDurableAndReadsInOrder() throws IOException {
+        BookJournal journal = open(DataSize.ofKilobytes(64));
+        List<Book> books = books(3);
+
+        books.forEach(book -> journal.append(book).block(Duration.ofSeconds(5)));
+
+        BookJournal.Batch batch = journal.read(10);
+        assertThat(batch.books()).isEqualTo(books);
+        assertThat(journal.read(2).books()).isEqualTo(books.subList(0, 2));
+        assertThat(journal.lag()).isEqualTo(3);
+        assertThat(meterRegistry.get("book.journal.lag").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void testCommitMovesTheCheckpoint() throws IOException {
+        BookJournal journal = open(DataSize.ofKilobytes(64));
+        List<Book> books = books(3);
+        books.forEach(book -> journal.append(book).block(Duration.ofSeconds(5)));
+
+        journal.commit(journal.read(2));
+
+        assertThat(journal.read(10).books()).containsExactly(books.get(2));
+        assertThat(journal.lag()).isEqualTo(1);
+    }
+
+    @Test
+    void testReplaysUncommittedBooksOnReopen() throws IOException {
+        BookJournal journal = open(DataSize.ofKilobytes(64));
+        List<Book> books = books(3);
+        books.forEach(book -> journal.append(book).block(Duration.ofSeconds(5)));
+        journal.commit(journal.read(1));
+        journal.close();
+
+        BookJournal reopened = open(DataSize.ofKilobytes(64));
+
+        assertThat(reopened.lag()).isEqualTo(2);
+        assertThat(reopened.read(10).books()).isEqualTo(books.subList(1, 3));
+        Book next = book(3);
+        reopened.append(next).block(Duration.ofSeconds(5));
+        assertThat(reopened.read(10).books()).containsExactly(books.get(1), books.get(2), next);
+    }
+
+    @Test
+    void testDiscardsATornRecordOnReopen() throws IOException {
+        BookJournal journal = open(DataSize.ofKilobytes(64));
+        List<Book> books = books(2);
+        books.forEach(book -> journal.append(book).block(Duration.ofSeconds(5)));
+        journal.close();
+        int secondRecord = 8 + BookJournal.encode(books.get(0)).length;
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), secondRecord + 20);
+        }
+
+        BookJournal reopened = open(DataSize.ofKilobytes(64));
+
+        assertThat(reopened.read(10).books()).containsExactly(books.get(0));
+        Book next = book(2);
+        reopened.append(next).block(Duration.ofSeconds(5));
+        assertThat(reopened.read(10).books()).containsExactly(books.get(0), next);
+    }
+
+    @Test
+    void testRollsSegmentsAndDeletesThemOnceDrained() throws IOException {
+        BookJournal journal = open(DataSize.ofBytes(256));
+        List<Book> books = books(12);
+        books.forEach(book -> journal.append(book).block(Duration.ofSeconds(5)));
+        assertThat(segments()).hasSizeGreaterThan(2);
+
+        List<Book> drained = new ArrayList<>();
+        for (BookJournal.Batch batch = journal.read(3); !batch.isEmpty(); batch = journal.read(3)) {
+            drained.addAll(batch.books());
+            journal.commit(batch);
+        }
+
+        assertThat(drained).isEqualTo(books);
+        assertThat(segments()).hasSize(1);
+        journal.close();
+        assertThat(open(DataSize.ofBytes(256)).lag()).isZero();
+    }
+
+    @Test
+    void testEncodesMissingFields() {
+        Book book = Book.builder().id(new ObjectId().toHexString()).title("title").build();
+
+        assertThat(BookJournal.decode(BookJournal.encode(book))).isEqualTo(book);
+    }
+
+    @Test
+    void testRetriesAFailedForceWithoutFailingItsAppends() throws IOException {
+        AtomicInteger forces = new AtomicInteger();
+        BookJournal journal = open(DataSize.ofKilobytes(64), buffer -> {
+            if (forces.getAndIncrement() == 0) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+            buffer.force();
+        });
+        Book book = book(0);
+
+        journal.append(book).block(Duration.ofSeconds(5));
+
+        assertThat(forces).hasValueGreaterThan(1);
+        assertThat(journal.read(10).books()).containsExactly(book);
+        assertThat(journal.lag()).isEqualTo(1);
+    }
+
+    private BookJournal open(DataSize segmentSize) throws IOException {
+        return open(segmentSize, MappedByteBuffer::force);
+    }
+
+    private BookJournal open(DataSize segmentSize, Consumer<MappedByteBuffer> force) throws IOException {
+        BookJournal journal = new BookJournal(new BookJournalProperties(true, directory, segmentSize,
+                Duration.ofMillis(1), 100, Duration.ofMillis(10)), meterRegistry, force);
+        journals.add(journal);
+        return journal;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(BookJournal.SEGMENT_SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static List<Book> books(int count) {
+        return IntStream.range(0, count).mapToObj(BookJournalTest::book).toList();
+    }
+
+    private static Book book(int i) {
+        return new Book(new ObjectId().toHexString(), "title " + i, "author " + i, 2000 + i, null, null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mescobar.bookapi.mapper;
+
+import com.mescobar.bookapi.controller.dto.CreateBookRequest;
+import com.mescobar.bookapi.exception.InvalidBookImportException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookCsvReaderTest {
+
+    @Test
+    void testReadsColumnsInHeaderOrder() {
+        BookCsvReader reader = BookCsvReader.fromHeader("\uFEFFYear, Author ,Title");
+
+        assertThat(reader.read("2015,Craig Walls,Spring Boot in Action"))
+                .isEqualTo(new CreateBookRequest("Spring Boot in Action", "Craig Walls", 2015));
+        assertThat(reader.read(",Craig Walls,Spring Boot in Action"))
+                .isEqualTo(new CreateBookRequest("Spring Boot in Action", "Craig Walls", null));
+    }
+
+    @Test
+    void testReadsQuotedFields() {
+        BookCsvReader reader = BookCsvReader.fromHeader("title,author");
+
+        assertThat(reader.read("\"Clean Code, 2nd \"\"Edition\"\"\",Robert Martin"))
+                .isEqualTo(new CreateBookRequest("Clean Code, 2nd \"Edition\"", "Robert Martin", null));
+    }
+
+    @Test
+    void testRejectsUnreadableRows() {
+        BookCsvReader reader = BookCsvReader.fromHeader("title,author,year");
+
+        assertThatThrownBy(() -> reader.read("title,author"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("expected 3 fields but found 2");
+        assertThatThrownBy(() -> reader.read("title,author,soon"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("year: must be a whole number");
+        assertThatThrownBy(() -> reader.read("\"title,author,2015"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("unterminated quoted field");
+    }
+
+    @Test
+    void testRejectsHeaderWithoutRequiredColumns() {
+        assertThatThrownBy(() -> BookCsvReader.fromHeader("title,year"))
+                .isInstanceOf(InvalidBookImportException.class);
+    }
+}
@@ -1,6 +1,7 @@
 package com.mescobar.bookapi.mapper;
 
 import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkUpdateBookRequest;
 import com.mescobar.bookapi.controller.dto.CreateBookRequest;
 import com.mescobar.bookapi.controller.dto.UpdateBookRequest;
 import com.mescobar.bookapi.model.Book;
@@ -35,6 +36,31 @@ class BookMapperImplTest {
         assertThat(book.getYear()).isEqualTo(2023);
     }
 
+    @Test
+    void testToBookFromUpdateBookRequest() {
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "author", 2023);
+
+        Book book = bookMapper.toBook(updateBookRequest);
+
+        assertThat(book.getId()).isNull();
+        assertThat(book.getTitle()).isNull();
+        assertThat(book.getAuthor()).isEqualTo("author");
+        assertThat(book.getYear()).isEqualTo(2023);
+        assertThat(book.getVersion()).isNull();
+    }
+
+    @Test
+    void testToBookFromBulkUpdateBookRequest() {
+        BulkUpdateBookRequest bulkUpdateBookRequest = new BulkUpdateBookRequest("123", "title", null, 2023);
+
+        Book book = bookMapper.toBook(bulkUpdateBookRequest);
+
+        assertThat(book.getId()).isEqualTo("123");
+        assertThat(book.getTitle()).isEqualTo("title");
+        assertThat(book.getAuthor()).isNull();
+        assertThat(book.getYear()).isEqualTo(2023);
+    }
+
     @ParameterizedTest
     @MethodSource("provideUpdateBookRequests")
     void testUpdateBookFromUpdateBookRequest(UpdateBookRequest updateupdateBookRequest, Book expectedBook) {
@@ -0,0 +1,85 @@
+package com.mescobar.bookapi.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RawBookTranscoderTest {
+
+    private static final String OBJECT_ID = "65a0f1c2e4b0a1b2c3d4e5f6";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @ParameterizedTest
+    @MethodSource("provideBooks")
+    void testWriteMatchesJackson(Document stored, BookResponse expected) throws Exception {
+        DataBuffer buffer = bufferFactory.allocateBuffer(16);
+        RawBookTranscoder.write(new RawBsonDocument(stored, new DocumentCodec()), buffer);
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(expected) + "\n");
+    }
+
+    private static Stream<Arguments> provideBooks() {
+        return Stream.of(
+                Arguments.of(new Document("_id", new ObjectId(OBJECT_ID)).append("title", "Spring Boot in Action")
+                                .append("author", "Craig Walls").append("year", 2015).append("version", 3L)
+                                .append("_class", "com.mescobar.bookapi.model.Book"),
+                        new BookResponse(OBJECT_ID, "Spring Boot in Action", "Craig Walls", 2015, 3L)),
+                Arguments.of(new Document("version", 0L).append("year", -350).append("author", "作者")
+                                .append("title", "Ünïcødé").append("_id", "custom-id"),
+                        new BookResponse("custom-id", "Ünïcødé", "作者", -350, 0L)),
+                Arguments.of(new Document("_id", "123").append("title", "\"quoted\" \\ back\nslash\t\u0001")
+                                .append("author", null),
+                        new BookResponse("123", "\"quoted\" \\ back\nslash\t\u0001", null, null, null)),
+                Arguments.of(new Document("_id", "123").append("year", Integer.MIN_VALUE).append("version", Long.MAX_VALUE),
+                        new BookResponse("123", null, null, Integer.MIN_VALUE, Long.MAX_VALUE)),
+                Arguments.of(new Document("_id", "123").append("year", 2015.0).append("version", new Decimal128(4L)),
+                        new BookResponse("123", null, null, 2015, 4L)),
+                Arguments.of(new Document("_id", "123").append("year", -350.7),
+                        new BookResponse("123", null, null, -350, null))
+        );
+    }
+
+    @Test
+    void testToNdjsonPacksBooksIntoBuffers() {
+        List<RawBsonDocument> books = Stream.of("1", "2", "3")
+                .map(id -> new RawBsonDocument(new Document("_id", id), new DocumentCodec()))
+                .toList();
+
+        List<String> buffers = RawBookTranscoder.toNdjson(Flux.fromIterable(books), bufferFactory, 2)
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .collectList()
+                .block();
+
+        assertThat(buffers).containsExactly("{\"id\":\"1\"}\n{\"id\":\"2\"}\n", "{\"id\":\"3\"}\n");
+    }
+
+    @Test
+    void testWriteRejectsUnexpectedFieldTypes() {
+        RawBsonDocument book = new RawBsonDocument(new Document("_id", "123").append("year", true), new DocumentCodec());
+
+        assertThatThrownBy(() -> RawBookTranscoder.write(book, bufferFactory.allocateBuffer(16)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("year");
+    }
+}
@@ -0,0 +1,61 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookPageRequestTest {
+
+    @Test
+    void testDefaults() {
+        BookPageRequest pageRequest = BookPageRequest.of(null, null, null, null);
+
+        assertThat(pageRequest.after()).isNull();
+        assertThat(pageRequest.limit()).isEqualTo(BookPageRequest.DEFAULT_LIMIT);
+        assertThat(pageRequest.sort()).isEqualTo(BookSort.ID);
+        assertThat(pageRequest.fields()).isEmpty();
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        Book book = new Book("65a0f1c2e4b0a1b2c3d4e5f6", "title", "author", 2023, 1L, null);
+        String token = BookCursor.of(BookSort.YEAR, book).encode();
+
+        BookPageRequest pageRequest = BookPageRequest.of(token, 10, "year", List.of("id", "title"));
+
+        assertThat(pageRequest.after()).isEqualTo(new BookCursor(BookSort.YEAR, book.getId(), 2023));
+        assertThat(pageRequest.fields()).containsExactlyInAnyOrder("id", "title");
+    }
+
+    @Test
+    void testCursorRoundTripWithNullValue() {
+        Book book = new Book("65a0f1c2e4b0a1b2c3d4e5f6", null, "author", 2023, 1L, null);
+        String token = BookCursor.of(BookSort.TITLE, book).encode();
+
+        assertThat(BookCursor.decode(token)).isEqualTo(new BookCursor(BookSort.TITLE, book.getId(), null));
+    }
+
+    @Test
+    void testCursorIssuedForAnotherSort() {
+        String token = BookCursor.of(BookSort.ID, new Book("65a0f1c2e4b0a1b2c3d4e5f6", "title", "author", 2023, 1L, null)).encode();
+
+        assertThatThrownBy(() -> BookPageRequest.of(token, 10, "title", null))
+                .isInstanceOf(InvalidBookQueryException.class);
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThatThrownBy(() -> BookPageRequest.of("not-a-cursor", null, null, null))
+                .isInstanceOf(InvalidBookQueryException.class);
+        assertThatThrownBy(() -> BookPageRequest.of(null, BookPageRequest.MAX_LIMIT + 1, null, null))
+                .isInstanceOf(InvalidBookQueryException.class);
+        assertThatThrownBy(() -> BookPageRequest.of(null, null, "price", null))
+                .isInstanceOf(InvalidBookQueryException.class);
+        assertThatThrownBy(() -> BookPageRequest.of(null, null, null, List.of("price")))
+                .isInstanceOf(InvalidBookQueryException.class);
+    }
+}
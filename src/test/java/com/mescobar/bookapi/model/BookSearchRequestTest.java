@@ -0,0 +1,50 @@
+package com.mescobar.bookapi.model;
+
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookSearchRequestTest {
+
+    @Test
+    void testDefaults() {
+        BookSearchRequest searchRequest = BookSearchRequest.of(" ", "", null, null, null, null);
+
+        assertThat(searchRequest.title()).isNull();
+        assertThat(searchRequest.author()).isNull();
+        assertThat(searchRequest.limit()).isEqualTo(BookPageRequest.DEFAULT_LIMIT);
+        assertThat(searchRequest.isIndexed()).isFalse();
+    }
+
+    @Test
+    void testIndexHint() {
+        assertThat(BookSearchRequest.of("title", "author", 2000, null, null, null).indexHint())
+                .isEqualTo(Book.AUTHOR_YEAR_INDEX);
+        assertThat(BookSearchRequest.of("title", null, 2000, 2010, null, null).indexHint())
+                .isEqualTo(Book.TITLE_ID_INDEX);
+        assertThat(BookSearchRequest.of(null, null, null, 2010, null, null).indexHint())
+                .isEqualTo(Book.YEAR_ID_INDEX);
+    }
+
+    @Test
+    void testTextSearchIsIndexedWithoutHint() {
+        BookSearchRequest searchRequest = BookSearchRequest.of(null, "author", null, null, "java", 10);
+
+        assertThat(searchRequest.isIndexed()).isTrue();
+        assertThat(searchRequest.indexHint()).isNull();
+    }
+
+    @Test
+    void testInvalidYearRange() {
+        assertThatThrownBy(() -> BookSearchRequest.of(null, null, 2024, 2000, null, null))
+                .isInstanceOf(InvalidBookQueryException.class);
+    }
+
+    @Test
+    void testInvalidLimit() {
+        assertThatThrownBy(() -> BookSearchRequest.of("title", null, null, null, null, BookPageRequest.MAX_LIMIT + 1))
+                .isInstanceOf(InvalidBookQueryException.class);
+    }
+}
@@ -0,0 +1,168 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.repository.BlockingBookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@Import(BlockingBookServiceImpl.class)
+@ActiveProfiles("blocking")
+class BlockingBookServiceImplTest {
+
+    @Autowired
+    private BlockingBookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private BlockingBookRepository bookRepository;
+
+    @MockBean
+    private MissingBookCache missingBookCache;
+
+    @Test
+    void testGetBooks() {
+        Book book = getDefaultBook();
+        when(bookRepository.streamAll()).thenReturn(Stream.of(book));
+
+        try (Stream<Book> books = bookService.getBooks()) {
+            assertThat(books).containsExactly(book);
+        }
+    }
+
+    @Test
+    void testGetBooksPage() {
+        Book book = getDefaultBook();
+        BookPageRequest pageRequest = BookPageRequest.of(null, 10, null, null);
+        when(bookRepository.findPage(pageRequest)).thenReturn(List.of(book));
+
+        assertThat(bookService.getBooks(pageRequest)).containsExactly(book);
+    }
+
+    @Test
+    void testSearchBooksWithUnindexedShape() {
+        BookSearchRequest searchRequest = BookSearchRequest.of(null, null, null, null, null, null);
+
+        assertThatThrownBy(() -> bookService.searchBooks(searchRequest)).isInstanceOf(InvalidBookQueryException.class);
+        verify(bookRepository, never()).search(any());
+    }
+
+    @Test
+    void testValidateAndGetBookByIdWhenExisting() {
+        Book book = getDefaultBook();
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        assertThat(bookService.validateAndGetBookById(book.getId())).isEqualTo(book);
+    }
+
+    @Test
+    void testValidateAndGetBookByIdWhenNonExisting() {
+        when(bookRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> bookService.validateAndGetBookById("123")).isInstanceOf(BookNotFoundException.class);
+        verify(missingBookCache).markMissing("123");
+    }
+
+    @Test
+    void testValidateAndGetBookByIdWhenKnownToBeMissing() {
+        when(missingBookCache.isMissing("123")).thenReturn(true);
+
+        assertThatThrownBy(() -> bookService.validateAndGetBookById("123")).isInstanceOf(BookNotFoundException.class);
+        verify(bookRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testSaveBook() {
+        Book book = getDefaultBook();
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+
+        assertThat(bookService.saveBook(book)).isEqualTo(book);
+        verify(missingBookCache).invalidate(book.getId());
+    }
+
+    @Test
+    void testUpdateBookWhenNonExisting() {
+        when(bookRepository.findAndUpdate(anyString(), any(Book.class))).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> bookService.updateBook("123", new Book())).isInstanceOf(BookNotFoundException.class);
+        verify(bookRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void testUpdateBookWhenVersionDoesNotMatch() {
+        Book patch = new Book();
+        patch.setVersion(1L);
+        when(bookRepository.findAndUpdate(anyString(), any(Book.class))).thenReturn(Optional.empty());
+        when(bookRepository.existsById("123")).thenReturn(true);
+
+        assertThatThrownBy(() -> bookService.updateBook("123", patch)).isInstanceOf(BookVersionMismatchException.class);
+    }
+
+    @Test
+    void testDeleteBookWhenNonExisting() {
+        when(bookRepository.findAndDelete(anyString())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> bookService.deleteBook("123")).isInstanceOf(BookNotFoundException.class);
+    }
+
+    @Test
+    void testServiceCallsAreTimed() {
+        when(bookRepository.findById(anyString())).thenReturn(Optional.of(getDefaultBook()));
+
+        bookService.validateAndGetBookById("123");
+
+        assertThat(meterRegistry.get("book.service").tag("method", "validateAndGetBookById").timer().count())
+                .isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class ObservationConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry(MeterRegistry meterRegistry) {
+            ObservationRegistry observationRegistry = ObservationRegistry.create();
+            observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+            return observationRegistry;
+        }
+    }
+
+    private Book getDefaultBook() {
+        return new Book("123", "title", "author", 2023, 1L, null);
+    }
+}
@@ -0,0 +1,241 @@
+package com.mescobar.bookapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mescobar.bookapi.cache.BookCache;
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookBulkProperties;
+import com.mescobar.bookapi.controller.dto.BookResponse;
+import com.mescobar.bookapi.controller.dto.BulkItemResponse.Status;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@Import({BookBulkServiceImpl.class, BookMapperImpl.class, LocalValidatorFactoryBean.class})
+class BookBulkServiceImplTest {
+
+    @Autowired
+    private BookBulkService bookBulkService;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private BookCache bookCache;
+
+    @MockBean
+    private MissingBookCache missingBookCache;
+
+    @BeforeEach
+    void setUp() {
+        when(bookCache.putAll(anyCollection())).thenReturn(Mono.empty());
+        when(bookCache.evictAll(anyCollection())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void testGetBooksInRequestOrder() {
+        BookResponse cached = new BookResponse("1", "title1", "author1", 2021, 1L);
+        when(bookCache.getAll(anyCollection())).thenReturn(Mono.just(Map.of("1", cached)));
+        when(bookCache.preload(anyCollection())).thenReturn(Mono.empty());
+        when(bookService.getBooksByIds(List.of("2", "3"))).thenReturn(Flux.just(new Book("3", "title3", "author3", 2023, 1L, null)));
+
+        StepVerifier.create(bookBulkService.getBooks(List.of("2", "1", "3", "2")))
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isZero();
+                    assertThat(result.id()).isEqualTo("2");
+                    assertThat(result.status()).isEqualTo(Status.NOT_FOUND);
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.status()).isEqualTo(Status.FOUND);
+                    assertThat(result.book()).isEqualTo(cached);
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.status()).isEqualTo(Status.FOUND);
+                    assertThat(result.book().title()).isEqualTo("title3");
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isEqualTo(3);
+                    assertThat(result.status()).isEqualTo(Status.NOT_FOUND);
+                })
+                .verifyComplete();
+
+        verify(bookCache).preload(List.of(new BookResponse("3", "title3", "author3", 2023, 1L)));
+    }
+
+    @Test
+    void testGetBooksServedFromTheCache() {
+        when(bookCache.getAll(anyCollection())).thenReturn(Mono.just(Map.of(
+                "1", new BookResponse("1", "title1", "author1", 2021, 1L))));
+
+        StepVerifier.create(bookBulkService.getBooks(List.of("1")))
+                .assertNext(result -> assertThat(result.status()).isEqualTo(Status.FOUND))
+                .verifyComplete();
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void testCreateBooksInBatches() {
+        when(bookRepository.bulkInsert(anyList())).thenReturn(Mono.just(Map.of()));
+
+        Flux<DataBuffer> requests = buffers("""
+                {"title":"title1","author":"author1","year":2021}
+                {"title":"","author":"author2","year":2022}
+                {"title":"title3","author":"author3","year":2023}
+                """);
+
+        StepVerifier.create(bookBulkService.createBooks(requests))
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isZero();
+                    assertThat(result.status()).isEqualTo(Status.CREATED);
+                    assertThat(result.id()).isNotNull();
+                    assertThat(result.book().title()).isEqualTo("title1");
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isEqualTo(1);
+                    assertThat(result.status()).isEqualTo(Status.INVALID);
+                    assertThat(result.error()).startsWith("title:");
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isEqualTo(2);
+                    assertThat(result.status()).isEqualTo(Status.CREATED);
+                })
+                .verifyComplete();
+
+        verify(bookRepository, times(2)).bulkInsert(anyList());
+        verify(bookCache, times(2)).putAll(anyCollection());
+    }
+
+    @Test
+    void testCreateBooksReportsWriteErrors() {
+        when(bookRepository.bulkInsert(anyList())).thenReturn(Mono.just(Map.of(1, "duplicate key")));
+
+        Flux<DataBuffer> requests = buffers("""
+                {"title":"title1","author":"author1","year":2021}
+                {"title":"title2","author":"author2","year":2022}
+                """);
+
+        StepVerifier.create(bookBulkService.createBooks(requests))
+                .consumeNextWith(result -> assertThat(result.status()).isEqualTo(Status.CREATED))
+                .consumeNextWith(result -> {
+                    assertThat(result.status()).isEqualTo(Status.FAILED);
+                    assertThat(result.error()).isEqualTo("duplicate key");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testMalformedLinesAreInvalidAndTheStreamGoesOn() {
+        when(bookRepository.bulkInsert(anyList())).thenReturn(Mono.just(Map.of()));
+        // split mid-line to check that lines are reassembled before they are read
+        Flux<DataBuffer> requests = buffers("{\"title\":\"title1\",\"author\":\"auth", "or1\"}\n{\"title\": oops}\n\nnull\n",
+                "{\"title\":\"title4\",\"author\":\"author4\"}");
+
+        StepVerifier.create(bookBulkService.createBooks(requests))
+                .consumeNextWith(result -> assertThat(result.status()).isEqualTo(Status.CREATED))
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isEqualTo(1);
+                    assertThat(result.status()).isEqualTo(Status.INVALID);
+                    assertThat(result.error()).startsWith("malformed JSON");
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isEqualTo(2);
+                    assertThat(result.status()).isEqualTo(Status.INVALID);
+                    assertThat(result.error()).isEqualTo("expected a JSON object");
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.index()).isEqualTo(3);
+                    assertThat(result.status()).isEqualTo(Status.CREATED);
+                    assertThat(result.book().title()).isEqualTo("title4");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateBooks() {
+        when(bookRepository.bulkUpdate(anyList())).thenReturn(Mono.just(Map.of()));
+        when(bookRepository.findAllById(anyIterable())).thenReturn(Flux.just(new Book("1", "newTitle", "author", 2023, 1L, null)));
+
+        Flux<DataBuffer> requests = buffers("""
+                {"id":"1","title":"newTitle"}
+                {"id":"2","title":"newTitle"}
+                """);
+
+        StepVerifier.create(bookBulkService.updateBooks(requests))
+                .consumeNextWith(result -> {
+                    assertThat(result.status()).isEqualTo(Status.UPDATED);
+                    assertThat(result.book().title()).isEqualTo("newTitle");
+                })
+                .consumeNextWith(result -> {
+                    assertThat(result.id()).isEqualTo("2");
+                    assertThat(result.status()).isEqualTo(Status.NOT_FOUND);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testDeleteBooks() {
+        when(bookRepository.findAllById(anyIterable())).thenReturn(Flux.just(new Book("1", "title", "author", 2023, 1L, null)));
+        when(bookRepository.deleteAllById(anyIterable())).thenReturn(Mono.empty());
+
+        Flux<DataBuffer> requests = buffers("{\"id\":\"1\"}\n{\"id\":\"2\"}\n");
+
+        StepVerifier.create(bookBulkService.deleteBooks(requests))
+                .consumeNextWith(result -> assertThat(result.status()).isEqualTo(Status.DELETED))
+                .consumeNextWith(result -> assertThat(result.status()).isEqualTo(Status.NOT_FOUND))
+                .verifyComplete();
+
+        verify(bookCache).evictAll(Set.of("1"));
+    }
+
+    private static Flux<DataBuffer> buffers(String... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TestConfiguration
+    static class BulkTestConfig {
+        @Bean
+        BookBulkProperties bookBulkProperties() {
+            return new BookBulkProperties(2);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
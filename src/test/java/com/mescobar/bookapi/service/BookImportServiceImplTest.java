@@ -0,0 +1,153 @@
+package com.mescobar.bookapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookImportProperties;
+import com.mescobar.bookapi.controller.dto.BookImportReport;
+import com.mescobar.bookapi.controller.dto.BookImportReport.Rejection;
+import com.mescobar.bookapi.exception.InvalidBookImportException;
+import com.mescobar.bookapi.mapper.BookMapperImpl;
+import com.mescobar.bookapi.repository.BookRepository;
+import com.mescobar.bookapi.service.BookImportService.Format;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@Import({BookImportServiceImpl.class, BookMapperImpl.class, LocalValidatorFactoryBean.class})
+class BookImportServiceImplTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private MissingBookCache missingBookCache;
+
+    @Test
+    void testImportsCsvAndReportsRejectedRows() {
+        when(bookRepository.bulkInsert(anyList(), eq(false))).thenReturn(Mono.just(Map.of()));
+        // split across buffers mid-row to check that lines are reassembled
+        Flux<DataBuffer> content = buffers("title,author,year\r\nBook 1,Author 1,2021\r\nBook 2,", "Author 2,\r\n",
+                ",Author 3,2023\r\n\r\nBook 4,Author 4,next year\r\nBook 5,Author 5,2025\r\n");
+
+        StepVerifier.create(bookImportService.importBooks(content, Format.CSV, false))
+                .assertNext(report -> {
+                    assertThat(report.accepted()).isEqualTo(3);
+                    assertThat(report.rejected()).isEqualTo(2);
+                    assertThat(report.complete()).isTrue();
+                    assertThat(report.rejections()).containsExactly(
+                            new Rejection(4, "title: must not be blank"),
+                            new Rejection(6, "year: must be a whole number"));
+                })
+                .verifyComplete();
+
+        verify(bookRepository, times(2)).bulkInsert(anyList(), eq(false));
+        verify(bookRepository).bulkInsert(argThat(books -> books.size() == 2
+                && books.get(0).getTitle().equals("Book 1") && books.get(1).getYear() == null), eq(false));
+    }
+
+    @Test
+    void testImportsNdjson() {
+        when(bookRepository.bulkInsert(anyList(), eq(false))).thenReturn(Mono.just(Map.of(1, "E11000 duplicate key error")));
+        Flux<DataBuffer> content = buffers("""
+                {"title":"Book 1","author":"Author 1","year":2021}
+                {"title":"Book 2","author":"Author 2"}
+                {"title":"Book 3",
+                """);
+
+        StepVerifier.create(bookImportService.importBooks(content, Format.NDJSON, false))
+                .assertNext(report -> {
+                    assertThat(report.accepted()).isEqualTo(1);
+                    assertThat(report.rejected()).isEqualTo(2);
+                    assertThat(report.rejections()).extracting(Rejection::line).containsExactly(2L, 3L);
+                    assertThat(report.rejections().get(0).reason()).isEqualTo("E11000 duplicate key error");
+                    assertThat(report.rejections().get(1).reason()).startsWith("malformed JSON: ");
+                })
+                .verifyComplete();
+
+        verify(missingBookCache).invalidateAll(argThat(ids -> ids.size() == 1));
+    }
+
+    @Test
+    void testOrderedImportStopsAtTheFirstFailedWrite() {
+        when(bookRepository.bulkInsert(anyList(), eq(true))).thenReturn(Mono.just(Map.of(0, "Document failed validation")));
+        Flux<DataBuffer> content = buffers("title,author\nBook 1,Author 1\nBook 2,Author 2\nBook 3,Author 3\n");
+
+        StepVerifier.create(bookImportService.importBooks(content, Format.CSV, true))
+                .assertNext(report -> {
+                    assertThat(report.accepted()).isZero();
+                    assertThat(report.rejected()).isEqualTo(2);
+                    assertThat(report.complete()).isFalse();
+                    assertThat(report.rejections()).containsExactly(
+                            new Rejection(2, "Document failed validation"),
+                            new Rejection(3, "not written, the import stopped at line 2"));
+                })
+                .verifyComplete();
+
+        verify(bookRepository).bulkInsert(anyList(), anyBoolean());
+    }
+
+    @Test
+    void testRejectsCsvWithoutRequiredColumns() {
+        StepVerifier.create(bookImportService.importBooks(buffers("name,year\n"), Format.CSV, false))
+                .verifyError(InvalidBookImportException.class);
+    }
+
+    @Test
+    void testCapsReportedRejections() {
+        Flux<DataBuffer> content = buffers("title,author\n,\n,\n,\n,\n");
+
+        StepVerifier.create(bookImportService.importBooks(content, Format.CSV, false))
+                .assertNext(report -> {
+                    assertThat(report.rejected()).isEqualTo(4);
+                    assertThat(report.rejections()).extracting(Rejection::line).containsExactly(2L, 3L, 4L);
+                })
+                .verifyComplete();
+    }
+
+    private static Flux<DataBuffer> buffers(String... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TestConfiguration
+    static class ImportTestConfig {
+        @Bean
+        BookImportProperties bookImportProperties() {
+            return new BookImportProperties(2, 2, 2, 3);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
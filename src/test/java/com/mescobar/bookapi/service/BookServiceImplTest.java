@@ -1,20 +1,38 @@
 package com.mescobar.bookapi.service;
 
+import com.mescobar.bookapi.cache.MissingBookCache;
+import com.mescobar.bookapi.config.BookExportProperties;
 import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.exception.BookVersionMismatchException;
+import com.mescobar.bookapi.exception.InvalidBookQueryException;
 import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
 import com.mescobar.bookapi.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.bson.RawBsonDocument;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
 
@@ -25,9 +43,15 @@ class BookServiceImplTest {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private BookRepository bookRepository;
 
+    @MockBean
+    private MissingBookCache missingBookCache;
+
     @Test
     void testGetBooksWhenThereIsNoBook() {
         when(bookRepository.findAll()).thenReturn(Flux.empty());
@@ -47,6 +71,34 @@ class BookServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testGetBooksPage() {
+        Book book = getDefaultBook();
+        BookPageRequest pageRequest = BookPageRequest.of(null, 10, null, null);
+        when(bookRepository.findPage(pageRequest)).thenReturn(Flux.just(book));
+
+        StepVerifier.create(bookService.getBooks(pageRequest))
+                .expectNext(book)
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchBooks() {
+        Book book = getDefaultBook();
+        BookSearchRequest searchRequest = BookSearchRequest.of("tit", null, null, null, null, null);
+        when(bookRepository.search(searchRequest)).thenReturn(Flux.just(book));
+
+        StepVerifier.create(bookService.searchBooks(searchRequest))
+                .expectNext(book)
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchBooksWithUnindexedShape() {
+        StepVerifier.create(bookService.searchBooks(BookSearchRequest.of(" ", null, null, null, null, 10)))
+                .verifyErrorMatches(ex -> ex instanceof InvalidBookQueryException);
+    }
+
     @Test
     void testValidateAndGetBookByIdWhenExisting() {
         Book book = getDefaultBook();
@@ -63,6 +115,29 @@ class BookServiceImplTest {
 
         StepVerifier.create(bookService.validateAndGetBookById("123"))
                 .verifyErrorMatches(ex -> ex instanceof BookNotFoundException);
+        verify(missingBookCache).markMissing("123");
+    }
+
+    @Test
+    void testValidateAndGetBookByIdWhenKnownToBeMissing() {
+        when(missingBookCache.isMissing("123")).thenReturn(true);
+
+        StepVerifier.create(bookService.validateAndGetBookById("123"))
+                .verifyErrorMatches(ex -> ex instanceof BookNotFoundException && ex.getStackTrace().length == 0);
+        verify(bookRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testGetBooksByIdsRemembersMissingIds() {
+        Book book = getDefaultBook();
+        when(missingBookCache.isMissing("789")).thenReturn(true);
+        when(bookRepository.findAllById(List.of("123", "456"))).thenReturn(Flux.just(book));
+
+        StepVerifier.create(bookService.getBooksByIds(List.of("123", "456", "789", "123")))
+                .expectNext(book)
+                .verifyComplete();
+        verify(missingBookCache).markMissing("456");
+        verify(missingBookCache, never()).markMissing("123");
     }
 
     @Test
@@ -73,18 +148,95 @@ class BookServiceImplTest {
         StepVerifier.create(bookService.saveBook(book))
                 .consumeNextWith(bookFound -> assertThat(bookFound).isEqualTo(book))
                 .verifyComplete();
+        verify(missingBookCache).invalidate(book.getId());
     }
 
     @Test
-    void testDeleteBook() {
+    void testUpdateBookWhenExisting() {
+        Book patch = Book.builder().title("newTitle").build();
+        Book updated = new Book("123", "newTitle", "author", 2023, 2L, null);
+        when(bookRepository.findAndUpdate("123", patch)).thenReturn(Mono.just(updated));
+
+        StepVerifier.create(bookService.updateBook("123", patch))
+                .consumeNextWith(bookFound -> assertThat(bookFound).isEqualTo(updated))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateBookWhenNonExisting() {
+        when(bookRepository.findAndUpdate(anyString(), any(Book.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookService.updateBook("123", Book.builder().title("newTitle").build()))
+                .verifyErrorMatches(ex -> ex instanceof BookNotFoundException);
+    }
+
+    @Test
+    void testUpdateBookWhenVersionDoesNotMatch() {
+        when(bookRepository.findAndUpdate(anyString(), any(Book.class))).thenReturn(Mono.empty());
+        when(bookRepository.existsById("123")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(bookService.updateBook("123", Book.builder().title("newTitle").version(1L).build()))
+                .verifyErrorMatches(ex -> ex instanceof BookVersionMismatchException);
+    }
+
+    @Test
+    void testDeleteBookWhenExisting() {
         Book book = getDefaultBook();
-        when(bookRepository.delete(any(Book.class))).thenReturn(Mono.empty());
+        when(bookRepository.findAndDelete(anyString())).thenReturn(Mono.just(book));
+
+        StepVerifier.create(bookService.deleteBook("123"))
+                .consumeNextWith(bookDeleted -> assertThat(bookDeleted).isEqualTo(book))
+                .verifyComplete();
+    }
 
-        StepVerifier.create(bookService.deleteBook(book))
+    @Test
+    void testDeleteBookWhenNonExisting() {
+        when(bookRepository.findAndDelete(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookService.deleteBook("123"))
+                .verifyErrorMatches(ex -> ex instanceof BookNotFoundException);
+    }
+
+    @Test
+    void testServiceCallsAreTimed() {
+        when(bookRepository.findById(anyString())).thenReturn(Mono.just(getDefaultBook()));
+
+        StepVerifier.create(bookService.validateAndGetBookById("123"))
+                .expectNextCount(1)
                 .verifyComplete();
+
+        assertThat(meterRegistry.get("book.service").tag("method", "validateAndGetBookById").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testExportBooks() {
+        RawBsonDocument book = RawBsonDocument.parse("{\"_id\": \"123\", \"title\": \"title\"}");
+        when(bookRepository.exportRaw(1000)).thenReturn(Flux.just(book));
+
+        StepVerifier.create(bookService.exportBooks())
+                .expectNext(book)
+                .verifyComplete();
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(BookExportProperties.class)
+    static class ObservationConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry(MeterRegistry meterRegistry) {
+            ObservationRegistry observationRegistry = ObservationRegistry.create();
+            observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+            return observationRegistry;
+        }
     }
 
     private Book getDefaultBook() {
-        return new Book("123", "title", "author", 2023);
+        return new Book("123", "title", "author", 2023, 1L, null);
     }
 }
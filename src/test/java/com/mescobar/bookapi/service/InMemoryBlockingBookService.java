@@ -0,0 +1,75 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Blocking view of an {@link InMemoryBookService} that parks the calling thread for {@code latency} before each lookup
+ * or write, the way a synchronous driver would wait on a database round trip.
+ */
+public class InMemoryBlockingBookService implements BlockingBookService {
+
+    private final InMemoryBookService delegate;
+    private final Duration latency;
+
+    public InMemoryBlockingBookService(InMemoryBookService delegate, Duration latency) {
+        this.delegate = delegate;
+        this.latency = latency;
+    }
+
+    @Override
+    public Stream<Book> getBooks() {
+        return delegate.getBooks().toStream();
+    }
+
+    @Override
+    public List<Book> getBooks(BookPageRequest pageRequest) {
+        await();
+        return delegate.getBooks(pageRequest).collectList().block();
+    }
+
+    @Override
+    public List<Book> searchBooks(BookSearchRequest searchRequest) {
+        return delegate.searchBooks(searchRequest).collectList().block();
+    }
+
+    @Override
+    public Book validateAndGetBookById(String id) {
+        await();
+        return delegate.validateAndGetBookById(id).block();
+    }
+
+    @Override
+    public Book saveBook(Book book) {
+        await();
+        return delegate.saveBook(book).block();
+    }
+
+    @Override
+    public Book updateBook(String id, Book patch) {
+        await();
+        return delegate.updateBook(id, patch).block();
+    }
+
+    @Override
+    public Book deleteBook(String id) {
+        return delegate.deleteBook(id).block();
+    }
+
+    private void await() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.mescobar.bookapi.service;
+
+import com.mescobar.bookapi.exception.BookNotFoundException;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.model.BookChange;
+import com.mescobar.bookapi.model.BookCursor;
+import com.mescobar.bookapi.model.BookPageRequest;
+import com.mescobar.bookapi.model.BookSearchRequest;
+import com.mescobar.bookapi.model.BookSort;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+public class InMemoryBookService implements BookService {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private final Map<String, Book> books = new ConcurrentSkipListMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final Sinks.Many<BookChange> changes = Sinks.many().multicast().directBestEffort();
+    private Duration latency = Duration.ZERO;
+
+    public static InMemoryBookService withBooks(int count) {
+        InMemoryBookService service = new InMemoryBookService();
+        IntStream.range(0, count).forEach(i -> service.put(Book.builder()
+                .id(new ObjectId().toHexString())
+                .title("title-" + i)
+                .author("author-" + (i % 100))
+                .year(1900 + i % 125)
+                .version(0L)
+                .build()));
+        return service;
+    }
+
+    /**
+     * Delays every single-book and page lookup and every write by {@code latency}, standing in for a database round trip.
+     */
+    public InMemoryBookService withLatency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public List<String> ids() {
+        return List.copyOf(books.keySet());
+    }
+
+    public long lookups() {
+        return lookups.get();
+    }
+
+    @Override
+    public Flux<Book> getBooks() {
+        return Flux.fromIterable(books.values());
+    }
+
+    @Override
+    public Flux<Book> getBooks(BookPageRequest pageRequest) {
+        Comparator<Book> order = order(pageRequest.sort());
+        BookCursor after = pageRequest.after();
+        return Flux.defer(() -> Flux.fromStream(books.values().stream()
+                        .filter(book -> after == null || order.compare(book, cursorBook(after)) > 0)
+                        .sorted(order)
+                        .limit(pageRequest.limit())))
+                .delaySubscription(latency);
+    }
+
+    @Override
+    public Flux<Book> searchBooks(BookSearchRequest searchRequest) {
+        Predicate<Book> matches = book -> (searchRequest.title() == null || startsWith(book.getTitle(), searchRequest.title()))
+                && (searchRequest.author() == null || startsWith(book.getAuthor(), searchRequest.author()))
+                && (searchRequest.yearFrom() == null || book.getYear() != null && book.getYear() >= searchRequest.yearFrom())
+                && (searchRequest.yearTo() == null || book.getYear() != null && book.getYear() <= searchRequest.yearTo())
+                && (searchRequest.text() == null || book.getTitle() != null && book.getTitle().contains(searchRequest.text()));
+        return Flux.fromStream(books.values().stream().filter(matches).limit(searchRequest.limit()));
+    }
+
+    @Override
+    public Mono<Book> validateAndGetBookById(String id) {
+        return Mono.fromSupplier(() -> {
+            lookups.incrementAndGet();
+            return books.get(id);
+        }).delaySubscription(latency).switchIfEmpty(Mono.error(new BookNotFoundException(id)));
+    }
+
+    @Override
+    public Flux<Book> getBooksByIds(Collection<String> ids) {
+        return Flux.defer(() -> {
+            lookups.incrementAndGet();
+            return Flux.fromStream(ids.stream().distinct().map(books::get).filter(Objects::nonNull));
+        }).delaySubscription(latency);
+    }
+
+    @Override
+    public Mono<Book> saveBook(Book book) {
+        return Mono.fromSupplier(() -> {
+            if (book.getId() == null) {
+                book.setId(new ObjectId().toHexString());
+            }
+            book.setVersion(book.getVersion() == null ? 0L : book.getVersion() + 1);
+            put(book);
+            publish(BookChange.Operation.INSERT, book.getId(), book);
+            return book;
+        }).delaySubscription(latency);
+    }
+
+    @Override
+    public Mono<Book> updateBook(String id, Book patch) {
+        return Mono.fromSupplier(() -> books.computeIfPresent(id, (key, book) -> Book.builder()
+                        .id(key)
+                        .title(patch.getTitle() == null ? book.getTitle() : patch.getTitle())
+                        .author(patch.getAuthor() == null ? book.getAuthor() : patch.getAuthor())
+                        .year(patch.getYear() == null ? book.getYear() : patch.getYear())
+                        .version(book.getVersion() == null ? 1L : book.getVersion() + 1)
+                        .build()))
+                .delaySubscription(latency)
+                .doOnNext(book -> publish(BookChange.Operation.UPDATE, id, book))
+                .switchIfEmpty(Mono.error(new BookNotFoundException(id)));
+    }
+
+    @Override
+    public Mono<Book> deleteBook(String id) {
+        return Mono.justOrEmpty(books.remove(id))
+                .doOnNext(book -> publish(BookChange.Operation.DELETE, id, null))
+                .switchIfEmpty(Mono.error(new BookNotFoundException(id)));
+    }
+
+    @Override
+    public Flux<BookChange> getChanges(String resumeAfter) {
+        return changes.asFlux();
+    }
+
+    @Override
+    public Flux<RawBsonDocument> exportBooks() {
+        return Flux.fromIterable(books.values()).map(InMemoryBookService::toRawDocument);
+    }
+
+    private static RawBsonDocument toRawDocument(Book book) {
+        Document document = new Document("_id", new ObjectId(book.getId()))
+                .append("title", book.getTitle())
+                .append("author", book.getAuthor())
+                .append("year", book.getYear())
+                .append("version", book.getVersion());
+        return new RawBsonDocument(document, DOCUMENT_CODEC);
+    }
+
+    private void publish(BookChange.Operation operation, String id, Book book) {
+        String resumeToken = "%016x".formatted(changeSequence.incrementAndGet());
+        changes.emitNext(new BookChange(operation, id, book, resumeToken), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    private void put(Book book) {
+        books.put(book.getId(), book);
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value != null && value.startsWith(prefix);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Book> order(BookSort sort) {
+        Comparator<Book> byId = Comparator.comparing(Book::getId);
+        if (sort == BookSort.ID) {
+            return byId;
+        }
+        Comparator<Book> byValue = Comparator.comparing((Book book) -> (Comparable) sort.valueOf(book),
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        return byValue.thenComparing(byId);
+    }
+
+    private static Book cursorBook(BookCursor cursor) {
+        Book book = Book.builder().id(cursor.id()).build();
+        switch (cursor.sort()) {
+            case TITLE -> book.setTitle((String) cursor.value());
+            case AUTHOR -> book.setAuthor((String) cursor.value());
+            case YEAR -> book.setYear((Integer) cursor.value());
+            default -> {
+            }
+        }
+        return book;
+    }
+}
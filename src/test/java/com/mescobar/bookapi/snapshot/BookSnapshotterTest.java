@@ -0,0 +1,166 @@
+package com.mescobar.bookapi.snapshot;
+
+import com.mescobar.bookapi.config.BookSnapshotProperties;
+import com.mescobar.bookapi.controller.dto.BookSnapshotResponse;
+import com.mescobar.bookapi.model.Book;
+import com.mescobar.bookapi.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookSnapshotterTest {
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Book> books = new ArrayList<>();
+    private BookRepository bookRepository;
+    private BookSnapshotter snapshotter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bookRepository = mock(BookRepository.class);
+        when(bookRepository.findFirstByOrderByIdAsc()).thenAnswer(invocation -> Mono.justOrEmpty(
+                books.stream().findFirst()));
+        when(bookRepository.findFirstByOrderByIdDesc()).thenAnswer(invocation -> Mono.justOrEmpty(
+                books.isEmpty() ? null : books.get(books.size() - 1)));
+        when(bookRepository.findRange(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            String from = invocation.getArgument(0);
+            String to = invocation.getArgument(1);
+            Instant modifiedAfter = invocation.getArgument(2);
+            return Flux.fromIterable(books)
+                    .filter(book -> from == null || book.getId().compareTo(from) >= 0)
+                    .filter(book -> to == null || book.getId().compareTo(to) < 0)
+                    .filter(book -> modifiedAfter == null || book.getLastModified().isAfter(modifiedAfter));
+        });
+        when(bookRepository.currentTime()).thenReturn(Mono.fromSupplier(Instant::now));
+        snapshotter = new BookSnapshotter(bookRepository,
+                new BookSnapshotProperties(true, directory, Duration.ofDays(1), 3, 10, 4, 3, Duration.ofSeconds(10)),
+                meterRegistry);
+    }
+
+    @Test
+    void testWritesEveryBookAcrossPartitions() throws IOException {
+        addBooks(25, Instant.parse("2024-01-01T00:00:00Z"));
+
+        BookSnapshotResponse snapshot = snapshotter.export(false).block(Duration.ofSeconds(10));
+
+        assertThat(snapshot.incremental()).isFalse();
+        assertThat(snapshot.since()).isNull();
+        assertThat(snapshot.books()).isEqualTo(25);
+        Path file = snapshotter.resolve(snapshot.name()).orElseThrow();
+        assertThat(snapshot.size()).isEqualTo(Files.size(file));
+        assertThat(BookSnapshotFormat.read(file)).isEqualTo(books);
+        assertThat(files()).containsExactly(file);
+        assertThat(meterRegistry.get("book.snapshot").tag("type", "full").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testIncrementalSnapshotHoldsBooksChangedSinceTheLatestOne() throws IOException {
+        addBooks(5, Instant.now().minusSeconds(60));
+        BookSnapshotResponse full = snapshotter.export(true).block(Duration.ofSeconds(10));
+        Book changed = books.get(2);
+        changed.setTitle("changed");
+        changed.setLastModified(full.upTo().plusMillis(1));
+
+        BookSnapshotResponse incremental = snapshotter.export(true).block(Duration.ofSeconds(10));
+
+        assertThat(full.incremental()).isFalse();
+        assertThat(incremental.incremental()).isTrue();
+        assertThat(incremental.since()).isEqualTo(full.upTo());
+        assertThat(incremental.books()).isEqualTo(1);
+        assertThat(BookSnapshotFormat.read(snapshotter.resolve(incremental.name()).orElseThrow()))
+                .containsExactly(changed);
+        verify(bookRepository, atLeastOnce()).findRange(any(), any(), isNull(), eq(10));
+        assertThat(snapshotter.list().block()).containsExactly(full, incremental);
+    }
+
+    @Test
+    void testIncrementalSnapshotOverlapsTheLatestOne() throws IOException {
+        addBooks(3, Instant.now().minusSeconds(60));
+        BookSnapshotResponse full = snapshotter.export(true).block(Duration.ofSeconds(10));
+        Book late = books.get(1);
+        late.setTitle("committed late");
+        late.setLastModified(full.upTo().minusSeconds(5));
+
+        BookSnapshotResponse incremental = snapshotter.export(true).block(Duration.ofSeconds(10));
+
+        assertThat(incremental.since()).isEqualTo(full.upTo());
+        assertThat(BookSnapshotFormat.read(snapshotter.resolve(incremental.name()).orElseThrow()))
+                .containsExactly(late);
+        verify(bookRepository, atLeastOnce()).findRange(any(), any(), eq(full.upTo().minusSeconds(10)), eq(10));
+    }
+
+    @Test
+    void testWritesAnEmptySnapshotOfAnEmptyCatalog() throws IOException {
+        BookSnapshotResponse snapshot = snapshotter.export(false).block(Duration.ofSeconds(10));
+
+        assertThat(snapshot.books()).isZero();
+        assertThat(BookSnapshotFormat.read(snapshotter.resolve(snapshot.name()).orElseThrow())).isEmpty();
+    }
+
+    @Test
+    void testPartitionsCoverTheWholeIdSpace() {
+        String min = new ObjectId(new Date(0)).toHexString();
+        String max = new ObjectId(new Date()).toHexString();
+
+        List<BookSnapshotter.Range> ranges = BookSnapshotter.partitions(min, max, 4);
+
+        assertThat(ranges).hasSize(4);
+        assertThat(ranges.get(0).from()).isNull();
+        assertThat(ranges.get(3).to()).isNull();
+        IntStream.range(1, 4).forEach(i -> assertThat(ranges.get(i).from()).isEqualTo(ranges.get(i - 1).to()));
+        assertThat(BookSnapshotter.partitions(min, min, 4)).containsExactly(new BookSnapshotter.Range(null, null));
+        assertThat(BookSnapshotter.partitions("1", "2", 4)).containsExactly(new BookSnapshotter.Range(null, null));
+    }
+
+    @Test
+    void testResolvesOnlyCompletedSnapshots() throws IOException {
+        Files.writeString(directory.resolve("secret.txt"), "secret");
+        Files.writeString(directory.resolve("1-full.bks.0.part"), "part");
+
+        assertThat(snapshotter.resolve("../secret.txt")).isEmpty();
+        assertThat(snapshotter.resolve("secret.txt")).isEmpty();
+        assertThat(snapshotter.resolve("1-full.bks.0.part")).isEmpty();
+        assertThat(snapshotter.resolve("2-full.bks")).isEmpty();
+    }
+
+    private void addBooks(int count, Instant lastModified) {
+        IntStream.range(0, count)
+                .mapToObj(i -> new Book(new ObjectId().toHexString(), i % 5 == 0 ? null : "title " + i, "author " + i,
+                        i % 3 == 0 ? null : 2000 + i, (long) i, lastModified))
+                .forEach(books::add);
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}